@@ -0,0 +1,41 @@
+#!/bin/bash
+
+# Compara o tempo total de processos curtos do MiniPar na JVM e no executável
+# nativo (gerado por scripts/build_native.sh), no modo "run".
+#
+# Uso: scripts/bench_startup.sh [programa.minipar] [execucoes]
+
+PROJECT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+cd "$PROJECT_DIR"
+
+PROGRAM="${1:-tests/teste2_fatorial_fibonacci.minipar}"
+RUNS="${2:-20}"
+
+mkdir -p build
+javac -encoding UTF-8 -d build src/Main.java \
+    src/lexer/*.java src/parser/*.java src/parser/ast/*.java src/interpreter/*.java src/io/*.java || exit 1
+
+# Executa o comando RUNS vezes e imprime o menor tempo e a mediana, em ms
+measure() {
+    local name="$1"
+    shift
+    local times=()
+    for ((i = 0; i < RUNS; i++)); do
+        local start=$(date +%s%N)
+        "$@" < /dev/null > /dev/null 2>&1
+        local end=$(date +%s%N)
+        times+=($(( (end - start) / 1000 )))
+    done
+    local sorted=($(printf '%s\n' "${times[@]}" | sort -n))
+    awk -v name="$name" -v min="${sorted[0]}" -v median="${sorted[$((RUNS / 2))]}" \
+        'BEGIN { printf "%-24s min %8.1f ms   mediana %8.1f ms\n", name, min / 1000, median / 1000 }'
+}
+
+echo "== $PROGRAM, $RUNS execucoes"
+measure "JVM" java -cp build Main run "$PROGRAM"
+measure "JVM (C1, -Xshare)" java -XX:TieredStopAtLevel=1 -Xshare:auto -cp build Main run "$PROGRAM"
+if [ -x build/native/minipar ]; then
+    measure "nativo" build/native/minipar run "$PROGRAM"
+else
+    echo "build/native/minipar nao encontrado: rode scripts/build_native.sh"
+fi
@@ -0,0 +1,42 @@
+#!/bin/bash
+
+# Gera o executável nativo do interpretador MiniPar (build/native/minipar)
+# com o GraalVM native-image. Só inclui a linha de comando (Main); o servidor
+# web continua rodando na JVM.
+#
+# Requer o GraalVM (JDK 17+) com o native-image no PATH ou em GRAALVM_HOME.
+
+PROJECT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+cd "$PROJECT_DIR"
+
+NATIVE_IMAGE="native-image"
+if [ -n "$GRAALVM_HOME" ]; then
+    NATIVE_IMAGE="$GRAALVM_HOME/bin/native-image"
+fi
+if ! command -v "$NATIVE_IMAGE" > /dev/null; then
+    echo "native-image nao encontrado: instale o GraalVM e defina GRAALVM_HOME"
+    exit 1
+fi
+
+CLASSES=build/native-classes
+rm -rf "$CLASSES"
+mkdir -p "$CLASSES" build/native
+
+echo "Compilando classes Java..."
+javac -encoding UTF-8 -d "$CLASSES" src/Main.java \
+    src/lexer/*.java src/parser/*.java src/parser/ast/*.java src/interpreter/*.java src/io/*.java
+if [ $? -ne 0 ]; then
+    echo "Erro na compilacao!"
+    exit 1
+fi
+
+echo "Gerando executavel nativo..."
+"$NATIVE_IMAGE" \
+    --no-fallback \
+    -H:ConfigurationFileDirectories=native-image \
+    -H:+ReportExceptionStackTraces \
+    -cp "$CLASSES" \
+    -o build/native/minipar \
+    Main || exit 1
+
+echo "Executavel gerado: build/native/minipar"
@@ -0,0 +1,38 @@
+#!/bin/bash
+
+# Compila o projeto e roda o conjunto de benchmarks do MiniPar.
+#
+# Uso: scripts/run_benchmarks.sh [resultados-base.json] [-- argumentos do BenchmarkSuite]
+#
+# Os resultados vão para bench-results/<data>.json. Se um arquivo base for
+# informado, os resultados são comparados com ele e o script termina com
+# código 1 se algum caso ficou mais de BENCH_THRESHOLD% (padrão: 10) mais lento.
+
+PROJECT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+cd "$PROJECT_DIR"
+
+BASELINE=""
+if [ $# -gt 0 ] && [ "$1" != "--" ]; then
+    BASELINE="$1"
+    shift
+fi
+if [ "$1" == "--" ]; then
+    shift
+fi
+
+mkdir -p build bench-results
+
+echo "Compilando classes Java..."
+javac -encoding UTF-8 -d build $(find src -name '*.java')
+if [ $? -ne 0 ]; then
+    echo "Erro na compilacao!"
+    exit 1
+fi
+
+RESULTS="bench-results/$(date +%Y%m%d-%H%M%S).json"
+java -Xms1g -Xmx1g -cp build bench.BenchmarkSuite --out "$RESULTS" "$@" || exit 1
+
+if [ -n "$BASELINE" ]; then
+    echo ""
+    java -cp build bench.CompareResults "$BASELINE" "$RESULTS" "${BENCH_THRESHOLD:-10}"
+fi
@@ -1,17 +1,37 @@
+import lexer.CharWindow;
 import lexer.Lexer;
+import lexer.StreamingTokens;
 import lexer.Token;
+import lexer.TokenStream;
 import lexer.TokenType;
 import parser.Parser;
 import parser.Program;
-import parser.ast.ASTNode;
+import parser.ProgramCodec;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
 
 import interpreter.Interpreter;
+import interpreter.SamplingProfiler;
 
 /**
  * Classe principal do interpretador MiniPar.
@@ -19,8 +39,25 @@ import interpreter.Interpreter;
  * (arquivo ou interativo), e coordenar as fases de análise léxica e sintática.
  */
 public class Main {
+    /**
+     * Tamanho (em bytes) a partir do qual o arquivo é analisado sob demanda,
+     * sem carregá-lo inteiro em memória. Configurável por
+     * {@code -Dminipar.stream.threshold}.
+     */
+    private static final long STREAM_THRESHOLD = Long.getLong("minipar.stream.threshold", 16L * 1024 * 1024);
+
+    /** Códigos de saída do modo {@code run}. */
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_USAGE = 1;
+    private static final int EXIT_SYNTAX = 2;
+    private static final int EXIT_RUNTIME = 3;
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("run")) {
+            // Modo de produção: sem banners nem listagens
+            System.exit(runHeadless(Arrays.copyOfRange(args, 1, args.length)));
+        }
+
         System.out.println("=".repeat(70));
         System.out.println("  INTERPRETADOR MINIPAR COM PROGRAMAÇÃO ORIENTADA A OBJETOS");
         System.out.println("  Tema 2 - Compiladores 2025.1");
@@ -28,7 +65,14 @@ public class Main {
         System.out.println("=".repeat(70));
         System.out.println();
 
-        if (args.length > 0) {
+        if (args.length > 0 && args[0].equals("compile")) {
+            // Pré-compilação para .miniparc
+            if (args.length != 2) {
+                System.err.println("Uso: java Main compile arquivo.minipar");
+                System.exit(EXIT_USAGE);
+            }
+            compile(args[1]);
+        } else if (args.length > 0) {
             // Modo arquivo
             runFile(args[0]);
         } else {
@@ -42,7 +86,18 @@ public class Main {
      */
     private static void runFile(String path) {
         try {
-            String source = new String(Files.readAllBytes(Paths.get(path)));
+            Path file = Paths.get(path);
+            if (Files.size(file) >= STREAM_THRESHOLD) {
+                runLarge(file);
+                return;
+            }
+            byte[] bytes = Files.readAllBytes(file);
+            Program compiled = loadCompiled(file, bytes);
+            if (compiled != null) {
+                runCompiled(compiled, path);
+                return;
+            }
+            String source = new String(bytes);
             run(source, path);
         } catch (IOException e) {
             System.err.println("Erro ao ler arquivo: " + e.getMessage());
@@ -50,6 +105,343 @@ public class Main {
         }
     }
 
+    /**
+     * Analisa o arquivo e grava a AST ao lado dele, em {@code .miniparc}, para
+     * que as próximas execuções pulem as análises léxica e sintática.
+     */
+    private static void compile(String path) {
+        try {
+            Path file = Paths.get(path);
+            byte[] bytes = Files.readAllBytes(file);
+            Program ast = parseSource(bytes);
+            if (ast == null) {
+                System.err.println("❌ Arquivo com erros, nada foi gravado");
+                System.exit(1);
+            }
+            Path target = compiledPath(file);
+            byte[] data = ProgramCodec.encode(ast, bytes);
+            Files.write(target, data);
+            System.out.println("✅ Programa pré-compilado: " + target + " (" + data.length + " bytes)");
+        } catch (IOException e) {
+            System.err.println("Erro ao pré-compilar arquivo: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Analisa o código-fonte sem imprimir tokens nem a AST.
+     *
+     * @return Programa, ou null se houve erro léxico ou sintático (as
+     *         mensagens já foram impressas em stderr pelo lexer e pelo parser).
+     */
+    private static Program parseSource(byte[] source) {
+        Lexer lexer = new Lexer(new String(source));
+        Parser parser = new Parser(lexer.scanPacked());
+        Program ast = parser.parse();
+        return lexer.getErrors().isEmpty() && parser.getErrors().isEmpty() ? ast : null;
+    }
+
+    /**
+     * Obtém o programa do {@code .miniparc} atualizado ou, na falta dele, do
+     * código-fonte.
+     *
+     * @return Programa, ou null se o código-fonte tem erros.
+     */
+    private static Program load(Path file, byte[] source) {
+        Program compiled = loadCompiled(file, source);
+        return compiled != null ? compiled : parseSource(source);
+    }
+
+    /**
+     * Modo de produção ({@code run}): executa o programa sem banners nem
+     * listagens de tokens e AST, com a saída padrão em buffer, e devolve o
+     * código de saída do processo.
+     * <p>
+     * Uso: {@code run [--time] [--profile saida] [--bench N [--warmup M]] arquivo.minipar}.
+     * Com {@code --time}, imprime em stderr os tempos de análise e execução;
+     * com {@code --profile}, grava as pilhas amostradas durante a execução
+     * (ver {@link SamplingProfiler#collapsed()}); com {@code --bench}, executa
+     * o programa N vezes (ver {@link #benchmark(Path, byte[], int, int)}).
+     *
+     * @return {@link #EXIT_OK}, {@link #EXIT_USAGE} (argumentos inválidos ou
+     *         erro de leitura), {@link #EXIT_SYNTAX} ou {@link #EXIT_RUNTIME}.
+     */
+    private static int runHeadless(String[] args) {
+        boolean time = false;
+        int iterations = 0;
+        int warmup = 0;
+        String profile = null;
+        String path = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--time" -> time = true;
+                    case "--bench" -> iterations = count(args, ++i, "--bench");
+                    case "--warmup" -> warmup = count(args, ++i, "--warmup");
+                    case "--profile" -> profile = value(args, ++i, "--profile");
+                    default -> {
+                        if (args[i].startsWith("--") || path != null) {
+                            throw new IllegalArgumentException("Argumento inesperado: " + args[i]);
+                        }
+                        path = args[i];
+                    }
+                }
+            }
+            if (iterations > 0 && profile != null) {
+                throw new IllegalArgumentException("--profile não pode ser usado com --bench");
+            }
+            if (path == null) {
+                throw new IllegalArgumentException("Arquivo não informado");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(
+                    "Uso: java Main run [--time] [--profile saida.folded] [--bench N [--warmup M]] arquivo.minipar");
+            return EXIT_USAGE;
+        }
+
+        Path file = Paths.get(path);
+        byte[] source;
+        try {
+            source = Files.readAllBytes(file);
+        } catch (IOException e) {
+            System.err.println("Erro ao ler arquivo: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        if (iterations > 0) {
+            return benchmark(file, source, iterations, warmup);
+        }
+
+        PrintStream console = System.out;
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16),
+                false);
+        System.setOut(out);
+        // A saída em buffer é descarregada antes de cada leitura, para que os
+        // prompts apareçam
+        System.setIn(new FilterInputStream(System.in) {
+            @Override
+            public int read() throws IOException {
+                out.flush();
+                return super.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                out.flush();
+                return super.read(b, off, len);
+            }
+        });
+        SamplingProfiler profiler = profile != null ? new SamplingProfiler() : null;
+        long start = System.nanoTime();
+        long loaded = start;
+        try {
+            Program ast = load(file, source);
+            loaded = System.nanoTime();
+            if (ast == null) {
+                return EXIT_SYNTAX;
+            }
+            Interpreter interpreter = new Interpreter();
+            interpreter.setInteractiveOutput(false);
+            if (profiler != null) {
+                interpreter.setProfiler(profiler);
+                profiler.start();
+            }
+            interpreter.execute(ast);
+            return EXIT_OK;
+        } catch (RuntimeException e) {
+            out.flush();
+            System.err.println("Erro durante a execução: " + e.getMessage());
+            return EXIT_RUNTIME;
+        } finally {
+            long end = System.nanoTime();
+            out.flush();
+            System.setOut(console);
+            if (time) {
+                System.err.println(String.format(Locale.ROOT, "tempo: análise %.3f ms, execução %.3f ms, total %.3f ms",
+                        (loaded - start) / 1e6, (end - loaded) / 1e6, (end - start) / 1e6));
+            }
+            if (profiler != null) {
+                writeProfile(profiler, Paths.get(profile));
+            }
+        }
+    }
+
+    /**
+     * @return Valor da opção na posição {@code i} dos argumentos.
+     * @throws IllegalArgumentException se a opção veio sem valor.
+     */
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException(option + " espera um valor");
+        }
+        return args[i];
+    }
+
+    /**
+     * @return Número não negativo da opção na posição {@code i} dos argumentos.
+     * @throws IllegalArgumentException se o valor falta, não é inteiro ou é
+     *                                  negativo.
+     */
+    private static int count(String[] args, int i, String option) {
+        String text = value(args, i, option);
+        int n;
+        try {
+            n = Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " espera um número inteiro (recebeu: " + text + ")");
+        }
+        if (n < 0) {
+            throw new IllegalArgumentException(option + " não pode ser negativo (recebeu: " + n + ")");
+        }
+        return n;
+    }
+
+    /**
+     * Encerra o profiler e grava as pilhas amostradas, no formato aceito por
+     * {@code flamegraph.pl} e speedscope.
+     */
+    private static void writeProfile(SamplingProfiler profiler, Path out) {
+        profiler.stop();
+        try {
+            Files.writeString(out, profiler.collapsed(), StandardCharsets.UTF_8);
+            System.err.println("perfil: " + profiler.samples() + " amostras gravadas em " + out);
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar o perfil: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Executa o programa várias vezes no mesmo processo (análise e execução a
+     * cada vez, com saída descartada e entrada vazia) e reporta tempo total
+     * (mínimo, mediana e p99), medianas de análise e execução, bytes alocados
+     * pela thread principal (não inclui as threads de blocos {@code par}) e
+     * coletas de lixo durante as execuções medidas.
+     */
+    private static int benchmark(Path file, byte[] source, int iterations, int warmup) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] total = new long[iterations];
+        long[] analysis = new long[iterations];
+        long[] execution = new long[iterations];
+        long[] allocated = new long[iterations];
+        long gcCount = 0;
+        long gcMillis = 0;
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int i = -warmup; i < iterations; i++) {
+                if (i == 0) {
+                    gcCount = -gcCount();
+                    gcMillis = -gcMillis();
+                }
+                System.setIn(new ByteArrayInputStream(new byte[0]));
+                long bytes = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                Program ast = load(file, source);
+                if (ast == null) {
+                    return EXIT_SYNTAX;
+                }
+                long loaded = System.nanoTime();
+                Interpreter interpreter = new Interpreter();
+                interpreter.setInteractiveOutput(false);
+                interpreter.execute(ast);
+                long end = System.nanoTime();
+                if (i >= 0) {
+                    total[i] = end - start;
+                    analysis[i] = loaded - start;
+                    execution[i] = end - loaded;
+                    allocated[i] = threads.getCurrentThreadAllocatedBytes() - bytes;
+                }
+            }
+            gcCount += gcCount();
+            gcMillis += gcMillis();
+        } catch (RuntimeException e) {
+            System.err.println("Erro durante a execução: " + e.getMessage());
+            return EXIT_RUNTIME;
+        } finally {
+            System.setOut(console);
+        }
+
+        Arrays.sort(total);
+        Arrays.sort(analysis);
+        Arrays.sort(execution);
+        Arrays.sort(allocated);
+        int median = iterations / 2;
+        int p99 = (int) Math.ceil(iterations * 0.99) - 1;
+        System.out.println(String.format(Locale.ROOT, "%s: %d execuções (aquecimento: %d)", file, iterations, warmup));
+        System.out.println(String.format(Locale.ROOT, "total     min %9.3f ms   mediana %9.3f ms   p99 %9.3f ms",
+                total[0] / 1e6, total[median] / 1e6, total[p99] / 1e6));
+        System.out.println(String.format(Locale.ROOT, "análise   mediana %9.3f ms", analysis[median] / 1e6));
+        System.out.println(String.format(Locale.ROOT, "execução  mediana %9.3f ms", execution[median] / 1e6));
+        System.out.println(String.format(Locale.ROOT, "alocação  mediana %9.1f KB por execução (thread principal)",
+                allocated[median] / 1024.0));
+        System.out.println(String.format(Locale.ROOT, "GC        %d coletas, %d ms no total", gcCount, gcMillis));
+        return EXIT_OK;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Caminho do arquivo pré-compilado correspondente ao código-fonte:
+     * {@code prog.minipar} vira {@code prog.miniparc}.
+     */
+    private static Path compiledPath(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".minipar")) {
+            name = name.substring(0, name.length() - ".minipar".length());
+        }
+        return file.resolveSibling(name + ProgramCodec.EXTENSION);
+    }
+
+    /**
+     * Carrega o programa pré-compilado, se existir e tiver sido gerado a partir
+     * do mesmo código-fonte.
+     *
+     * @return Programa, ou null para analisar o código-fonte normalmente.
+     */
+    private static Program loadCompiled(Path file, byte[] source) {
+        Path compiled = compiledPath(file);
+        if (!Files.isRegularFile(compiled)) {
+            return null;
+        }
+        try {
+            return ProgramCodec.decode(Files.readAllBytes(compiled), source);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Ignorando " + compiled + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Executa um programa carregado de {@code .miniparc}.
+     */
+    private static void runCompiled(Program ast, String sourceName) {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("📄 Analisando/Executando: " + sourceName);
+        System.out.println("─".repeat(70));
+        System.out.println("\n⚡ Programa pré-compilado atualizado: análises léxica e sintática omitidas");
+
+        System.out.println("\n▶️  FASE 3: EXECUÇÃO (INTERPRETER)");
+        System.out.println("─".repeat(70));
+        execute(ast);
+
+        System.out.println("\n" + "═".repeat(70));
+    }
+
     /**
      * Modo interativo (REPL)
      */
@@ -110,6 +502,43 @@ public class Main {
             }
         }
 
+        parseAndExecute(TokenStream.of(tokens));
+    }
+
+    /**
+     * Executa um arquivo grande sem carregá-lo inteiro em memória: o arquivo é
+     * mapeado (ou lido aos poucos, acima de 2 GB) e os tokens são produzidos
+     * conforme o parser avança, em outra thread se houver mais de um
+     * processador. A listagem de tokens é omitida.
+     */
+    private static void runLarge(Path file) throws IOException {
+        System.out.println("\n" + "─".repeat(70));
+        System.out.println("📄 Analisando/Executando: " + file);
+        System.out.println("─".repeat(70));
+
+        System.out.println("\n🔍 FASE 1: ANÁLISE LÉXICA (LEXER)");
+        System.out.println("─".repeat(70));
+        System.out.printf("Arquivo grande (%d bytes): tokens reconhecidos sob demanda, listagem omitida%n",
+                Files.size(file));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Reader reader = channel.size() > Integer.MAX_VALUE
+                     ? Files.newBufferedReader(file, StandardCharsets.UTF_8) : null) {
+            CharWindow window = reader != null ? CharWindow.of(reader)
+                    : CharWindow.of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            // Com um único processador a thread de leitura só acrescentaria trocas de contexto
+            Lexer lexer = new Lexer(window);
+            try (StreamingTokens tokens = Runtime.getRuntime().availableProcessors() > 1
+                    ? StreamingTokens.prefetching(lexer) : new StreamingTokens(lexer)) {
+                parseAndExecute(tokens);
+            }
+        }
+    }
+
+    /**
+     * Executa as fases de análise sintática e execução sobre os tokens.
+     */
+    private static void parseAndExecute(TokenStream tokens) {
         // ===== FASE 2: ANÁLISE SINTÁTICA =====
         System.out.println("\n🌳 FASE 2: ANÁLISE SINTÁTICA (PARSER)");
         System.out.println("─".repeat(70));
@@ -126,13 +555,7 @@ public class Main {
             System.out.println("\n▶️  FASE 3: EXECUÇÃO (INTERPRETER)");
             System.out.println("─".repeat(70));
 
-            try {
-                Interpreter interpreter = new Interpreter();
-                interpreter.execute(ast);
-            } catch (Exception e) {
-                System.err.println("❌ Erro durante a execução:");
-                System.err.println("   " + e.getMessage());
-            }
+            execute(ast);
         } catch (Exception e) {
             System.err.println("❌ Erro na análise sintática:");
             System.err.println("   " + e.getMessage());
@@ -142,96 +565,15 @@ public class Main {
     }
 
     /**
-     * Imprime a Árvore Sintática Abstrata (AST) de forma hierárquica.
-     * 
-     * @param node  Nó raiz da AST a ser impresso.
-     * @param depth Nível de profundidade para indentação visual.
+     * Executa o programa, reportando erros de execução.
      */
-    private static void printAST(ASTNode node, int depth) {
-        String indent = "  ".repeat(depth);
-        String className = node.getClass().getSimpleName();
-
+    private static void execute(Program ast) {
         try {
-            switch (className) {
-                case "Program" -> {
-                    System.out.println(indent + "Program {");
-                    @SuppressWarnings("unchecked")
-                    List<ASTNode> statements = (List<ASTNode>) node.getClass().getField("statements").get(node);
-                    for (ASTNode stmt : statements) {
-                        printAST(stmt, depth + 1);
-                    }
-                    System.out.println(indent + "}");
-                }
-                case "ClassDecl" -> {
-                    System.out.println(indent + "ClassDecl {");
-                    String name = (String) node.getClass().getField("name").get(node);
-                    String superClass = (String) node.getClass().getField("superClass").get(node);
-                    System.out.println(indent + "  name: " + name);
-                    if (superClass != null) {
-                        System.out.println(indent + "  extends: " + superClass);
-                    }
-                    List<?> attributes = (List<?>) node.getClass().getField("attributes").get(node);
-                    List<?> methods = (List<?>) node.getClass().getField("methods").get(node);
-                    if (!attributes.isEmpty()) {
-                        System.out.println(indent + "  attributes: [");
-                        for (Object attr : attributes) {
-                            printAST((ASTNode) attr, depth + 2);
-                        }
-                        System.out.println(indent + "  ]");
-                    }
-                    if (!methods.isEmpty()) {
-                        System.out.println(indent + "  methods: [");
-                        for (Object method : methods) {
-                            printAST((ASTNode) method, depth + 2);
-                        }
-                        System.out.println(indent + "  ]");
-                    }
-                    System.out.println(indent + "}");
-                }
-                case "MethodDecl" -> {
-                    String name = (String) node.getClass().getField("name").get(node);
-                    String returnType = (String) node.getClass().getField("returnType").get(node);
-                    System.out.println(indent + "MethodDecl { name: " + name +
-                            ", returnType: " + returnType + " }");
-                }
-                case "FuncDecl" -> {
-                    String name = (String) node.getClass().getField("name").get(node);
-                    String returnType = (String) node.getClass().getField("returnType").get(node);
-                    System.out.println(indent + "FuncDecl { name: " + name +
-                            ", returnType: " + returnType + " }");
-                }
-                case "VarDecl" -> {
-                    String name = (String) node.getClass().getField("name").get(node);
-                    String type = (String) node.getClass().getField("type").get(node);
-                    ASTNode initializer = (ASTNode) node.getClass().getField("initializer").get(node);
-                    System.out.print(indent + "VarDecl { name: " + name +
-                            ", type: " + type);
-                    if (initializer != null) {
-                        System.out.print(", init: " + initializer);
-                    }
-                    System.out.println(" }");
-                }
-                case "NewInstance" -> {
-                    String clsName = (String) node.getClass().getField("className").get(node);
-                    System.out.println(indent + "NewInstance { class: " + clsName + " }");
-                }
-                case "MethodCall" -> {
-                    String methodName = (String) node.getClass().getField("methodName").get(node);
-                    System.out.println(indent + "MethodCall { method: " + methodName + " }");
-                }
-                case "IfStmt" -> {
-                    ASTNode condition = (ASTNode) node.getClass().getField("condition").get(node);
-                    System.out.println(indent + "IfStmt { condition: " + condition + " }");
-                }
-                case "WhileStmt" -> {
-                    ASTNode condition = (ASTNode) node.getClass().getField("condition").get(node);
-                    System.out.println(indent + "WhileStmt { condition: " + condition + " }");
-                }
-                default -> System.out.println(indent + node);
-            }
+            Interpreter interpreter = new Interpreter();
+            interpreter.execute(ast);
         } catch (Exception e) {
-            // Se não conseguir acessar os campos, usa toString padrão
-            System.out.println(indent + node);
+            System.err.println("❌ Erro durante a execução:");
+            System.err.println("   " + e.getMessage());
         }
     }
 }
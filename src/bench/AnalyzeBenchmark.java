@@ -0,0 +1,125 @@
+package bench;
+
+import lexer.Lexer;
+import lexer.Token;
+import parser.Parser;
+import parser.Program;
+import parser.ast.ASTNode;
+import server.AstJsonSerializer;
+import server.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compara a serialização da AST do {@code /analyze} por reflexão (versão
+ * anterior do {@code AnalyzeHandler}) com o {@link AstJsonSerializer}, em
+ * programas sintéticos grandes.
+ * <p>
+ * Uso: {@code java -cp build bench.AnalyzeBenchmark [linhas...]}
+ */
+public class AnalyzeBenchmark {
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0 ? new int[args.length] : new int[] { 500, 2000, 8000 };
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        for (int lines : sizes) {
+            String code = SyntheticPrograms.generate(lines);
+            List<Token> tokens = new Lexer(code).scanTokens();
+            Program program = new Parser(tokens).parse();
+
+            String legacy = serialize(program, true);
+            String visitor = serialize(program, false);
+            if (!legacy.equals(visitor)) {
+                throw new IllegalStateException("JSON divergente para " + lines + " linhas");
+            }
+
+            System.out.println("== " + lines + " linhas, " + tokens.size() + " tokens, " + visitor.length()
+                    + " caracteres de JSON");
+            System.out.println(Bench.measure("reflexão", 50, 50, () -> serialize(program, true)));
+            System.out.println(Bench.measure("visitor", 50, 50, () -> serialize(program, false)));
+        }
+    }
+
+    private static String serialize(Program program, boolean reflective) throws IOException {
+        StringWriter sw = new StringWriter();
+        JsonWriter json = new JsonWriter(sw);
+        if (reflective) {
+            writeReflective(json, program);
+        } else {
+            AstJsonSerializer.write(json, program);
+        }
+        return sw.toString();
+    }
+
+    // Cópia da implementação anterior, baseada em reflexão
+
+    private static void writeReflective(JsonWriter json, ASTNode node) throws IOException {
+        if (node == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject();
+        json.name("type").value(node.getClass().getSimpleName());
+        json.name("label").value(buildLabel(node));
+        json.name("children").beginArray();
+        try {
+            for (Field f : node.getClass().getFields()) {
+                Object v = f.get(node);
+                if (v == null)
+                    continue;
+                if (v instanceof ASTNode) {
+                    writeReflective(json, (ASTNode) v);
+                } else if (v instanceof List<?>) {
+                    for (Object item : (List<?>) v) {
+                        if (item instanceof ASTNode) {
+                            writeReflective(json, (ASTNode) item);
+                        } else if (item != null && item.getClass().getSimpleName().equals("DictEntry")) {
+                            Object key = item.getClass().getField("key").get(item);
+                            Object val = item.getClass().getField("value").get(item);
+                            json.beginObject()
+                                    .name("type").value("DictEntry")
+                                    .name("label").value("entry")
+                                    .name("children").beginArray();
+                            writeReflective(json, key instanceof ASTNode ? (ASTNode) key : null);
+                            writeReflective(json, val instanceof ASTNode ? (ASTNode) val : null);
+                            json.endArray().endObject();
+                        }
+                    }
+                }
+            }
+        } catch (ReflectiveOperationException ignored) {
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    private static String buildLabel(Object node) {
+        try {
+            List<String> parts = new ArrayList<>();
+            for (Field f : node.getClass().getFields()) {
+                Class<?> t = f.getType();
+                if (t == String.class || Number.class.isAssignableFrom(t) || t == boolean.class
+                        || t == Boolean.class) {
+                    Object v = f.get(node);
+                    if (v != null) {
+                        parts.add(f.getName() + "=" + v.toString());
+                        if (parts.size() >= 2)
+                            break;
+                    }
+                }
+            }
+            String base = node.getClass().getSimpleName();
+            if (parts.isEmpty())
+                return base;
+            return base + "(" + String.join(", ", parts) + ")";
+        } catch (Exception e) {
+            return node.getClass().getSimpleName();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Medidor simples para os benchmarks do MiniPar.
+ * <p>
+ * Executa a tarefa algumas vezes para aquecer o JIT e depois mede cada
+ * iteração individualmente, reportando mínimo e mediana em milissegundos.
+ * Para resultados estáveis, rode com heap fixo (por exemplo,
+ * {@code -Xms1g -Xmx1g}).
+ */
+public final class Bench {
+    /** Evita que o JIT elimine resultados não usados. */
+    private static volatile Object sink;
+
+    private Bench() {
+    }
+
+    /**
+     * Tarefa medida; o valor retornado é consumido para não ser descartado.
+     */
+    @FunctionalInterface
+    public interface Task {
+        Object run() throws Exception;
+    }
+
+    /**
+     * Resultado de uma medição.
+     *
+     * @param name     Nome da medição.
+     * @param minMs    Menor tempo, em milissegundos.
+     * @param medianMs Tempo mediano, em milissegundos.
+     */
+    public record Result(String name, double minMs, double medianMs) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-40s min %9.3f ms   mediana %9.3f ms", name, minMs, medianMs);
+        }
+    }
+
+    /**
+     * Mede a tarefa.
+     *
+     * @param name       Nome exibido no relatório.
+     * @param warmup     Número de execuções de aquecimento.
+     * @param iterations Número de execuções medidas.
+     * @param task       Tarefa.
+     * @return Resultado da medição.
+     */
+    public static Result measure(String name, int warmup, int iterations, Task task) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            sink = task.run();
+        }
+        // Não contabilizar na medição o lixo deixado pelo aquecimento
+        System.gc();
+        long[] times = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            sink = task.run();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return new Result(name, times[0] / 1e6, times[iterations / 2] / 1e6);
+    }
+}
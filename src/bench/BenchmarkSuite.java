@@ -0,0 +1,299 @@
+package bench;
+
+import interpreter.Interpreter;
+import io.TCPChannel;
+import lexer.Lexer;
+import lexer.PackedTokens;
+import parser.Parser;
+import parser.Program;
+import parser.ast.CanalDecl;
+import server.JsonWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Conjunto de benchmarks do MiniPar, para acompanhar regressões entre versões.
+ * <p>
+ * Mede, para cada programa de {@code tests/}, o lexer
+ * ({@link Lexer#scanTokens()}), o parser ({@link Parser#parse()}, sobre tokens
+ * já reconhecidos) e o interpretador ({@link Interpreter#execute(Program)},
+ * sobre a AST já pronta, com saída descartada e entrada vazia); os programas
+ * com canais TCP interativos só entram no lexer e no parser. Mede também a
+ * troca de mensagens entre dois ramos de um {@code par} por canais locais, um
+ * {@code par} com vários ramos de cálculo e ida e volta de mensagens por
+ * {@link TCPChannel} na interface de loopback e a montagem de uma string de
+ * 1 MB por concatenações sucessivas, a impressão de números fracionários e
+ * um pipeline {@code map}/{@code filter}/{@code sum}.
+ * <p>
+ * O número de repetições de cada caso é ajustado pelo tempo da primeira
+ * execução, para que cada caso leve por volta de {@code --budget}
+ * milissegundos. Os resultados podem ser gravados em JSON e comparados com
+ * {@link CompareResults}.
+ * <p>
+ * Uso: {@code java -Xms1g -Xmx1g -cp build bench.BenchmarkSuite [--out resultados.json]
+ * [--filter regex] [--budget ms]}
+ */
+public class BenchmarkSuite {
+    /** Viagens de ida e volta por execução nos casos de canais. */
+    private static final int ROUND_TRIPS = 2000;
+    private static final int TCP_ROUND_TRIPS = 500;
+
+    private static final String PING_PONG = """
+            c_channel (ping);
+            c_channel (pong);
+            par {
+                seq {
+                    number i = 0;
+                    number r = 0;
+                    while (i < %1$d) {
+                        ping.send(i);
+                        pong.receive(r);
+                        i = i + 1;
+                    }
+                }
+                seq {
+                    number j = 0;
+                    number v = 0;
+                    while (j < %1$d) {
+                        ping.receive(v);
+                        pong.send(v + 1);
+                        j = j + 1;
+                    }
+                }
+            }
+            """.formatted(ROUND_TRIPS);
+
+    private static final String FAN_OUT = """
+            func trabalho(number k) -> number {
+                number s = 0;
+                number i = 0;
+                while (i < 3000) {
+                    s = s + (i * k) % 7;
+                    i = i + 1;
+                }
+                return s;
+            }
+            par {
+                seq { println(trabalho(1)); }
+                seq { println(trabalho(2)); }
+                seq { println(trabalho(3)); }
+                seq { println(trabalho(4)); }
+                seq { println(trabalho(5)); }
+                seq { println(trabalho(6)); }
+                seq { println(trabalho(7)); }
+                seq { println(trabalho(8)); }
+            }
+            """;
+
+    /** Monta uma string de 1 MB concatenando pedaços de 16 caracteres. */
+    private static final String CONCAT = """
+            string s = "";
+            number i = 0;
+            while (i < 65536) {
+                s = s + "0123456789abcdef";
+                i = i + 1;
+            }
+            println(s.length);
+            """;
+
+    /** Imprime 20000 números fracionários (formatação com 4 casas). */
+    private static final String PRINT_DECIMALS = """
+            number i = 0;
+            number x = 0.5;
+            while (i < 20000) {
+                println("epoca ", i, " erro ", x / (i + 3), " acc ", 1 - x / (i + 7));
+                i = i + 1;
+            }
+            """;
+
+    /** map/filter/sum sobre um range, com funções puras. */
+    private static final String PIPELINE = """
+            func quadrado(number x) -> number { return x * x; }
+            func impar(number x) -> bool { return x % 2 == 1; }
+            println(sum(map(quadrado, filter(impar, range(100000)))));
+            """;
+
+    private final Pattern filter;
+    private final double budgetMs;
+    private final PrintStream console;
+    private final List<Bench.Result> results = new ArrayList<>();
+
+    private BenchmarkSuite(Pattern filter, double budgetMs, PrintStream console) {
+        this.filter = filter;
+        this.budgetMs = budgetMs;
+        this.console = console;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path out = null;
+        Pattern filter = Pattern.compile(".*");
+        double budget = 2000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out" -> out = Paths.get(args[++i]);
+                case "--filter" -> filter = Pattern.compile(args[++i]);
+                case "--budget" -> budget = Double.parseDouble(args[++i]);
+                default -> throw new IllegalArgumentException("Argumento inesperado: " + args[i]);
+            }
+        }
+
+        PrintStream console = System.out;
+        InputStream stdin = System.in;
+        // Os programas e o TCPChannel escrevem em System.out
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        BenchmarkSuite suite = new BenchmarkSuite(filter, budget, console);
+        try {
+            suite.runAll();
+        } finally {
+            System.setOut(console);
+            System.setIn(stdin);
+        }
+        if (out != null) {
+            suite.write(out);
+            console.println("Resultados gravados em " + out);
+        }
+    }
+
+    private void runAll() throws Exception {
+        List<Path> programs;
+        try (Stream<Path> files = Files.list(Paths.get("tests"))) {
+            programs = files.filter(p -> p.toString().endsWith(".minipar")).sorted().toList();
+        }
+        for (Path file : programs) {
+            String name = file.getFileName().toString().replace(".minipar", "");
+            String code = Files.readString(file, StandardCharsets.UTF_8);
+            PackedTokens tokens = new Lexer(code).scanPacked();
+            Program program = new Parser(tokens).parse();
+
+            run("lexer/" + name, () -> new Lexer(code).scanTokens());
+            run("parser/" + name, () -> new Parser(tokens).parse());
+            // Canais TCP pedem configuração interativa
+            if (program.statements.stream().noneMatch(s -> s instanceof CanalDecl c && c.nomes.size() >= 3)) {
+                run("interpretador/" + name, () -> execute(program));
+            }
+        }
+
+        Program pingPong = new Parser(new Lexer(PING_PONG).scanPacked()).parse();
+        run("canal/ping-pong x" + ROUND_TRIPS, () -> execute(pingPong));
+        Program fanOut = new Parser(new Lexer(FAN_OUT).scanPacked()).parse();
+        run("par/fan-out x8", () -> execute(fanOut));
+        Program concat = new Parser(new Lexer(CONCAT).scanPacked()).parse();
+        run("string/concat 1MB", () -> execute(concat));
+        Program printDecimals = new Parser(new Lexer(PRINT_DECIMALS).scanPacked()).parse();
+        run("print/decimais x20000", () -> execute(printDecimals));
+        Program pipeline = new Parser(new Lexer(PIPELINE).scanPacked()).parse();
+        run("colecoes/map-filter-sum x100000", () -> execute(pipeline));
+        run("tcp/loopback x" + TCP_ROUND_TRIPS, BenchmarkSuite::tcpRoundTrips);
+    }
+
+    /**
+     * Mede o caso, se passar pelo filtro, com repetições proporcionais ao
+     * orçamento de tempo.
+     */
+    private void run(String name, Bench.Task task) throws Exception {
+        if (!filter.matcher(name).find()) {
+            return;
+        }
+        long start = System.nanoTime();
+        task.run();
+        double firstMs = Math.max(0.001, (System.nanoTime() - start) / 1e6);
+        int iterations = (int) Math.max(3, Math.min(200, budgetMs / 2 / firstMs));
+        Bench.Result result = Bench.measure(name, iterations / 2, iterations, task);
+        results.add(result);
+        console.println(result);
+    }
+
+    private static Object execute(Program program) {
+        System.setIn(new ByteArrayInputStream(new byte[0]));
+        Interpreter interpreter = new Interpreter();
+        interpreter.setInteractiveOutput(false);
+        interpreter.execute(program);
+        return program;
+    }
+
+    /**
+     * Envia mensagens de um cliente para um servidor que as devolve, ambos
+     * neste processo.
+     */
+    private static Object tcpRoundTrips() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        TCPChannel server = new TCPChannel("bench", port, true);
+        Thread echo = new Thread(() -> {
+            try {
+                server.start(null);
+                for (int i = 0; i < TCP_ROUND_TRIPS; i++) {
+                    server.send(server.receive());
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            } finally {
+                server.close();
+            }
+        }, "minipar-bench-echo");
+        echo.start();
+
+        TCPChannel client = new TCPChannel("bench", port, false);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                client.start("localhost");
+                break;
+            } catch (java.net.ConnectException e) {
+                if (attempt == 100) {
+                    throw e;
+                }
+                Thread.sleep(5);
+            }
+        }
+        List<Object> last = null;
+        try {
+            for (int i = 0; i < TCP_ROUND_TRIPS; i++) {
+                client.send(List.of(i, "mensagem", 1.5));
+                last = client.receive();
+            }
+        } finally {
+            client.close();
+        }
+        echo.join();
+        return last;
+    }
+
+    /**
+     * Grava os resultados em JSON:
+     * {@code {"timestamp": ..., "java": ..., "results": [{"name", "minMs", "medianMs"}, ...]}}.
+     */
+    private void write(Path file) throws Exception {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             JsonWriter json = new JsonWriter(writer)) {
+            json.beginObject()
+                    .name("timestamp").value(Instant.now().toString())
+                    .name("java").value(System.getProperty("java.version"))
+                    .name("results").beginArray();
+            for (Bench.Result result : results) {
+                json.beginObject()
+                        .name("name").value(result.name())
+                        .name("minMs").rawValue(String.format(Locale.ROOT, "%.4f", result.minMs()))
+                        .name("medianMs").rawValue(String.format(Locale.ROOT, "%.4f", result.medianMs()))
+                        .endObject();
+            }
+            json.endArray().endObject();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package bench;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compara dois arquivos de resultados do {@link BenchmarkSuite} pela mediana
+ * de cada caso e aponta as regressões acima do limite.
+ * <p>
+ * Termina com código 1 se houver alguma regressão, para uso em scripts.
+ * <p>
+ * Uso: {@code java -cp build bench.CompareResults base.json atual.json [limite%]}
+ * (limite padrão: 10%)
+ */
+public class CompareResults {
+    private static final Pattern RESULT = Pattern.compile(
+            "\\{\"name\":\"((?:[^\"\\\\]|\\\\.)*)\",\"minMs\":([-0-9.eE]+),\"medianMs\":([-0-9.eE]+)\\}");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Uso: java -cp build bench.CompareResults base.json atual.json [limite%]");
+            System.exit(2);
+        }
+        Map<String, Double> base = read(args[0]);
+        Map<String, Double> current = read(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        int regressions = 0;
+        System.out.println(String.format(Locale.ROOT, "%-40s %12s %12s %9s", "caso", "base (ms)", "atual (ms)", "variação"));
+        for (Map.Entry<String, Double> entry : current.entrySet()) {
+            Double before = base.get(entry.getKey());
+            double after = entry.getValue();
+            if (before == null) {
+                System.out.println(String.format(Locale.ROOT, "%-40s %12s %12.3f %9s", entry.getKey(), "-", after, "novo"));
+                continue;
+            }
+            double change = (after - before) / before * 100;
+            String flag = "";
+            if (change > threshold) {
+                flag = "  << REGRESSÃO";
+                regressions++;
+            } else if (change < -threshold) {
+                flag = "  melhora";
+            }
+            System.out.println(String.format(Locale.ROOT, "%-40s %12.3f %12.3f %+8.1f%%%s",
+                    entry.getKey(), before, after, change, flag));
+        }
+        for (String name : base.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.println(String.format(Locale.ROOT, "%-40s %12.3f %12s %9s", name, base.get(name), "-", "removido"));
+            }
+        }
+        System.out.println(regressions == 0 ? "Nenhuma regressão acima de " + threshold + "%"
+                : regressions + " regressão(ões) acima de " + threshold + "%");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    /**
+     * Lê as medianas de um arquivo gravado pelo {@link BenchmarkSuite}.
+     */
+    private static Map<String, Double> read(String path) throws Exception {
+        String json = Files.readString(Paths.get(path), StandardCharsets.UTF_8);
+        Map<String, Double> medians = new LinkedHashMap<>();
+        Matcher m = RESULT.matcher(json);
+        while (m.find()) {
+            medians.put(m.group(1).replaceAll("\\\\(.)", "$1"), Double.parseDouble(m.group(3)));
+        }
+        if (medians.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum resultado encontrado em " + path);
+        }
+        return medians;
+    }
+}
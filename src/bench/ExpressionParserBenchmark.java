@@ -0,0 +1,40 @@
+package bench;
+
+import lexer.Lexer;
+import lexer.PackedTokens;
+import parser.Parser;
+
+import java.util.Locale;
+
+/**
+ * Vazão do parser (sem o lexer) sobre um programa dominado por expressões
+ * ({@link SyntheticPrograms#generateExpressions(int)}) e sobre o programa
+ * misto usado nos demais benchmarks, em tokens por segundo.
+ * <p>
+ * Uso: {@code java -cp build bench.ExpressionParserBenchmark [linhas]}
+ */
+public class ExpressionParserBenchmark {
+    public static void main(String[] args) throws Exception {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        measure("expressões", SyntheticPrograms.generateExpressions(lines), lines);
+        measure("programa misto", SyntheticPrograms.generate(lines), lines);
+    }
+
+    private static void measure(String name, String code, int lines) throws Exception {
+        PackedTokens tokens = new Lexer(code).scanPacked();
+        Parser check = new Parser(tokens);
+        check.parse();
+        if (!check.getErrors().isEmpty()) {
+            throw new IllegalStateException("programa gerado com erros: " + check.getErrors().get(0));
+        }
+        int count = tokens.size();
+        System.out.println("== " + name + ": " + lines + " linhas, " + count + " tokens");
+        // O parser recursivo demora a ser compilado pelo JIT
+        for (int i = 0; i < 100; i++) {
+            new Parser(tokens).parse();
+        }
+        Bench.Result result = Bench.measure("parser: " + name, 20, 40, () -> new Parser(tokens).parse());
+        System.out.println(result + String.format(Locale.ROOT, "   %6.1f M tokens/s",
+                count / (result.medianMs() / 1000) / 1e6));
+    }
+}
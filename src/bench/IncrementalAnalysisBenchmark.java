@@ -0,0 +1,92 @@
+package bench;
+
+import lexer.Lexer;
+import parser.IncrementalDocument;
+import parser.Parser;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Mede a latência por tecla da análise incremental ({@link IncrementalDocument})
+ * comparada à reanálise completa (lexer + parser sobre o texto inteiro), que é
+ * o que o {@code /analyze} faz a cada envio do editor.
+ * <p>
+ * Simula a digitação, caractere a caractere, de uma linha nova no meio de um
+ * programa gerado, seguida da remoção da mesma linha com backspace.
+ * <p>
+ * Uso: {@code java -cp build bench.IncrementalAnalysisBenchmark [linhas] [repetições]}
+ */
+public class IncrementalAnalysisBenchmark {
+    private static final String TYPED = "        total = total + pesos[\"b\"] * 2;\n";
+
+    public static void main(String[] args) throws Exception {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String code = SyntheticPrograms.generate(lines);
+        // Início de uma linha no meio do programa, dentro de uma função
+        int offset = code.indexOf("        } else {\n", code.length() / 2);
+        System.out.println("== " + lines + " linhas, " + code.length() + " caracteres, "
+                + 2 * TYPED.length() + " edições por rodada");
+
+        IncrementalDocument document = new IncrementalDocument(code);
+        // Aquecimento do JIT
+        for (int i = 0; i < 20; i++) {
+            type(document, offset, null);
+            new Parser(new Lexer(code).scanPacked()).parse();
+        }
+
+        long[] incremental = new long[rounds * 2 * TYPED.length()];
+        int n = 0;
+        for (int i = 0; i < rounds; i++) {
+            long[] times = new long[2 * TYPED.length()];
+            type(document, offset, times);
+            System.arraycopy(times, 0, incremental, n, times.length);
+            n += times.length;
+        }
+        if (!document.text().equals(code)) {
+            throw new IllegalStateException("o documento não voltou ao texto original");
+        }
+        report("incremental (por tecla)", incremental);
+
+        long[] full = new long[rounds * 5];
+        for (int i = 0; i < full.length; i++) {
+            long start = System.nanoTime();
+            new Parser(new Lexer(code).scanPacked()).parse();
+            full[i] = System.nanoTime() - start;
+        }
+        report("reanálise completa", full);
+    }
+
+    /**
+     * Digita {@link #TYPED} na posição e depois apaga, registrando o tempo de
+     * cada edição em {@code times} (se couber).
+     */
+    private static void type(IncrementalDocument document, int offset, long[] times) {
+        int n = 0;
+        for (int i = 0; i < TYPED.length(); i++) {
+            long start = System.nanoTime();
+            document.edit(offset + i, 0, TYPED.substring(i, i + 1));
+            record(times, n++, System.nanoTime() - start);
+        }
+        for (int i = TYPED.length() - 1; i >= 0; i--) {
+            long start = System.nanoTime();
+            document.edit(offset + i, 1, "");
+            record(times, n++, System.nanoTime() - start);
+        }
+    }
+
+    private static void record(long[] times, int index, long nanos) {
+        if (times != null && index < times.length) {
+            times[index] = nanos;
+        }
+    }
+
+    private static void report(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.println(String.format(Locale.ROOT, "%-28s mediana %8.3f ms   p99 %8.3f ms   máx %8.3f ms",
+                name, sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6,
+                sorted[sorted.length - 1] / 1e6));
+    }
+}
@@ -0,0 +1,69 @@
+package bench;
+
+import lexer.Lexer;
+import lexer.PackedTokens;
+import lexer.Token;
+import parser.Parser;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compara o lexer em modo lista ({@link Lexer#scanTokens()}) com o modo
+ * compacto ({@link Lexer#scanPacked()}): tokens por segundo, bytes alocados por
+ * token e o tempo de análise léxica + sintática.
+ * <p>
+ * Uso: {@code java -cp build bench.LexerBenchmark [linhas]}
+ */
+public class LexerBenchmark {
+    public static void main(String[] args) throws Exception {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        String code = SyntheticPrograms.generate(lines);
+
+        List<Token> expected = new Lexer(code).scanTokens();
+        if (!expected.equals(new Lexer(code).scanPacked().toList())) {
+            throw new IllegalStateException("scanPacked difere de scanTokens");
+        }
+        int count = expected.size();
+        System.out.println("== " + lines + " linhas, " + code.length() + " caracteres, " + count + " tokens");
+
+        report(Bench.measure("lexer: lista de Token", 20, 30, () -> new Lexer(code).scanTokens()), count);
+        report(Bench.measure("lexer: PackedTokens", 20, 30, () -> new Lexer(code).scanPacked()), count);
+        // O parser recursivo demora a ser compilado pelo JIT: aquecer os dois
+        // modos juntos antes de medir
+        for (int i = 0; i < 100; i++) {
+            new Parser(new Lexer(code).scanTokens()).parse();
+            new Parser(new Lexer(code).scanPacked()).parse();
+        }
+        report(Bench.measure("lexer+parser: lista de Token", 20, 40,
+                () -> new Parser(new Lexer(code).scanTokens()).parse()), count);
+        report(Bench.measure("lexer+parser: PackedTokens", 20, 40,
+                () -> new Parser(new Lexer(code).scanPacked()).parse()), count);
+
+        System.out.println(String.format(Locale.ROOT, "alocação lexer lista:    %6.1f bytes/token",
+                allocatedPerRun(() -> new Lexer(code).scanTokens()) / count));
+        System.out.println(String.format(Locale.ROOT, "alocação lexer compacto: %6.1f bytes/token",
+                allocatedPerRun(() -> new Lexer(code).scanPacked()) / count));
+    }
+
+    private static void report(Bench.Result result, int tokens) {
+        System.out.println(result + String.format(Locale.ROOT, "   %6.1f M tokens/s",
+                tokens / (result.medianMs() / 1000) / 1e6));
+    }
+
+    /**
+     * Bytes alocados pela thread atual em uma execução da tarefa.
+     */
+    private static double allocatedPerRun(Bench.Task task) throws Exception {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        task.run();
+        long before = mx.getThreadAllocatedBytes(tid);
+        int runs = 10;
+        for (int i = 0; i < runs; i++) {
+            task.run();
+        }
+        return (mx.getThreadAllocatedBytes(tid) - before) / (double) runs;
+    }
+}
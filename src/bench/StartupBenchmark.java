@@ -0,0 +1,86 @@
+package bench;
+
+import lexer.Lexer;
+import parser.Parser;
+import parser.Program;
+import parser.ProgramCodec;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Compara a partida a partir do código-fonte com a partida a partir do
+ * programa pré-compilado ({@code .miniparc}).
+ * <p>
+ * Primeiro mede, no mesmo processo, lexer + parser contra a leitura do
+ * {@code .miniparc} (com a verificação do hash). Depois mede o tempo total de
+ * processos {@code java Main arquivo} novos, que é o que importa para jobs que
+ * disparam muitas execuções curtas: sem o {@code .miniparc} (inclui a listagem
+ * de tokens que o {@code Main} imprime) e com ele.
+ * <p>
+ * Uso: {@code java -cp build bench.StartupBenchmark [linhas] [processos]}
+ */
+public class StartupBenchmark {
+    public static void main(String[] args) throws Exception {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path dir = Files.createTempDirectory("minipar-startup");
+        Path file = dir.resolve("programa.minipar");
+        Path compiled = dir.resolve("programa" + ProgramCodec.EXTENSION);
+        try {
+            byte[] source = SyntheticPrograms.generate(lines).getBytes(StandardCharsets.UTF_8);
+            Files.write(file, source);
+            Program program = new Parser(new Lexer(new String(source, StandardCharsets.UTF_8)).scanPacked()).parse();
+            byte[] data = ProgramCodec.encode(program, source);
+            System.out.println("== " + lines + " linhas, fonte " + source.length + " bytes, .miniparc "
+                    + data.length + " bytes");
+
+            System.out.println(Bench.measure("no processo: lexer + parser", 20, 40,
+                    () -> new Parser(new Lexer(new String(source, StandardCharsets.UTF_8)).scanPacked()).parse()));
+            System.out.println(Bench.measure("no processo: ler .miniparc", 20, 40,
+                    () -> ProgramCodec.decode(data, source)));
+
+            report("processo novo: código-fonte", launch(file, runs));
+            Files.write(compiled, data);
+            report("processo novo: .miniparc", launch(file, runs));
+        } finally {
+            Files.deleteIfExists(compiled);
+            Files.deleteIfExists(file);
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Executa {@code Main} em processos novos, com a saída descartada.
+     *
+     * @return Duração de cada processo, em nanossegundos.
+     */
+    private static long[] launch(Path file, int runs) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "Main", file.toString())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD);
+        long[] times = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            int status = builder.start().waitFor();
+            times[i] = System.nanoTime() - start;
+            if (status != 0) {
+                throw new IllegalStateException("Main terminou com código " + status);
+            }
+        }
+        return times;
+    }
+
+    private static void report(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.println(String.format(Locale.ROOT, "%-40s min %9.3f ms   mediana %9.3f ms",
+                name, sorted[0] / 1e6, sorted[sorted.length / 2] / 1e6));
+    }
+}
@@ -0,0 +1,164 @@
+package bench;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gerador de carga para os arquivos estáticos do servidor web.
+ * <p>
+ * Cada thread mantém uma conexão HTTP/1.1 persistente e envia requisições em
+ * sequência. Mede requisições por segundo e bytes de corpo por resposta para
+ * {@code /app.js} em três cenários: GET simples, GET com
+ * {@code Accept-Encoding: gzip} e GET condicional com o ETag devolvido pelo
+ * servidor (se houver).
+ * <p>
+ * Uso: {@code java -cp build bench.StaticAssetsBenchmark [url] [segundos] [threads]}
+ * com o servidor já em execução (padrão: {@code http://localhost:8080 5 4}).
+ */
+public class StaticAssetsBenchmark {
+    public static void main(String[] args) throws Exception {
+        URI base = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        String host = base.getHost();
+        int port = base.getPort() > 0 ? base.getPort() : 80;
+
+        String plain = request(host, "");
+        String etag;
+        try (Connection conn = new Connection(host, port)) {
+            etag = conn.send(plain.getBytes(StandardCharsets.US_ASCII)).etag;
+        }
+
+        run("GET /app.js", host, port, plain, seconds, threads);
+        run("GET /app.js (gzip)", host, port, request(host, "Accept-Encoding: gzip\r\n"), seconds, threads);
+        if (etag != null) {
+            run("GET /app.js (If-None-Match)", host, port, request(host, "If-None-Match: " + etag + "\r\n"),
+                    seconds, threads);
+        } else {
+            System.out.println("servidor não envia ETag: cenário condicional ignorado");
+        }
+    }
+
+    private static String request(String host, String extraHeaders) {
+        return "GET /app.js HTTP/1.1\r\nHost: " + host + "\r\n" + extraHeaders + "\r\n";
+    }
+
+    private static void run(String name, String host, int port, String request, int seconds, int threads)
+            throws Exception {
+        byte[] bytesOut = request.getBytes(StandardCharsets.US_ASCII);
+        LongAdder requests = new LongAdder();
+        LongAdder bodyBytes = new LongAdder();
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try (Connection conn = new Connection(host, port)) {
+                    while (running.get()) {
+                        Response response = conn.send(bytesOut);
+                        if (measuring.get()) {
+                            requests.increment();
+                            bodyBytes.add(response.bodyLength);
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        Thread.sleep(1000); // aquecimento
+        measuring.set(true);
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        measuring.set(false);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long count = requests.sum();
+        System.out.println(String.format(Locale.ROOT, "%-32s %9.0f req/s   %8d bytes/resp", name,
+                count / elapsed, count == 0 ? 0 : bodyBytes.sum() / count));
+    }
+
+    private record Response(int status, int bodyLength, String etag) {
+    }
+
+    /**
+     * Conexão persistente que envia uma requisição e lê a resposta inteira.
+     */
+    private static final class Connection implements AutoCloseable {
+        private final Socket socket;
+        private final OutputStream out;
+        private final InputStream in;
+        private final byte[] body = new byte[64 * 1024];
+
+        Connection(String host, int port) throws IOException {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            out = socket.getOutputStream();
+            in = new BufferedInputStream(socket.getInputStream(), 64 * 1024);
+        }
+
+        Response send(byte[] request) throws IOException {
+            out.write(request);
+            out.flush();
+
+            String statusLine = readLine();
+            int status = Integer.parseInt(statusLine.split(" ")[1]);
+            int length = 0;
+            String etag = null;
+            String line;
+            while (!(line = readLine()).isEmpty()) {
+                int colon = line.indexOf(':');
+                String header = line.substring(0, colon).trim();
+                String value = line.substring(colon + 1).trim();
+                if (header.equalsIgnoreCase("Content-Length")) {
+                    length = Integer.parseInt(value);
+                } else if (header.equalsIgnoreCase("ETag")) {
+                    etag = value;
+                }
+            }
+            int remaining = length;
+            while (remaining > 0) {
+                int n = in.read(body, 0, Math.min(body.length, remaining));
+                if (n < 0) {
+                    throw new IOException("conexão encerrada no meio da resposta");
+                }
+                remaining -= n;
+            }
+            return new Response(status, length, etag);
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while ((c = in.read()) != '\n') {
+                if (c < 0) {
+                    throw new IOException("conexão encerrada");
+                }
+                if (c != '\r') {
+                    sb.append((char) c);
+                }
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
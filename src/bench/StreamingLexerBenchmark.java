@@ -0,0 +1,88 @@
+package bench;
+
+import lexer.CharWindow;
+import lexer.Lexer;
+import lexer.StreamingTokens;
+import lexer.TokenType;
+import parser.Parser;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Compara a análise de um arquivo grande carregado inteiro em memória
+ * ({@link Lexer#scanPacked()}) com a análise sob demanda sobre o arquivo
+ * mapeado ({@link Lexer#nextToken()} e {@link StreamingTokens}).
+ * <p>
+ * Para cada cenário, reporta o tempo e o pico de heap durante uma execução. No
+ * cenário com parser o pico inclui a AST, que é igual nos três casos.
+ * <p>
+ * Uso: {@code java -Xms2g -Xmx2g -cp build bench.StreamingLexerBenchmark [linhas]}
+ */
+public class StreamingLexerBenchmark {
+    public static void main(String[] args) throws Exception {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path file = Files.createTempFile("minipar-bench", ".minipar");
+        try {
+            Files.writeString(file, SyntheticPrograms.generate(lines), StandardCharsets.UTF_8);
+            System.out.println("== " + lines + " linhas, " + Files.size(file) / (1024 * 1024) + " MB");
+
+            report("lexer: arquivo inteiro + scanPacked",
+                    () -> new Lexer(Files.readString(file)).scanPacked().size());
+            report("lexer: mmap + nextToken", () -> countStreamed(file));
+            report("lexer+parser: arquivo inteiro", () -> new Parser(new Lexer(Files.readString(file))
+                    .scanPacked()).parse());
+            report("lexer+parser: mmap, mesma thread", () -> {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    return new Parser(new StreamingTokens(new Lexer(map(channel)))).parse();
+                }
+            });
+            report("lexer+parser: mmap, leitura antecipada", () -> {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                     StreamingTokens tokens = StreamingTokens.prefetching(new Lexer(map(channel)))) {
+                    return new Parser(tokens).parse();
+                }
+            });
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static CharWindow map(FileChannel channel) throws Exception {
+        return CharWindow.of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+
+    private static int countStreamed(Path file) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Lexer lexer = new Lexer(map(channel));
+            int count = 1;
+            while (lexer.nextToken().type() != TokenType.EOF) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private static void report(String name, Bench.Task task) throws Exception {
+        Bench.Result result = Bench.measure(name, 3, 5, task);
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+        task.run();
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.println(result + String.format(Locale.ROOT, "   pico de heap %6d MB", peak / (1024 * 1024)));
+    }
+}
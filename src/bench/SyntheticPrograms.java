@@ -0,0 +1,105 @@
+package bench;
+
+/**
+ * Gerador de programas MiniPar sintéticos para os benchmarks.
+ * <p>
+ * Os programas misturam classes, funções, laços, listas e dicionários, de modo
+ * a exercitar todos os tipos de nó comuns da AST.
+ */
+public final class SyntheticPrograms {
+    private SyntheticPrograms() {
+    }
+
+    /**
+     * Gera um programa com aproximadamente {@code lines} linhas.
+     *
+     * @param lines Número aproximado de linhas.
+     * @return Código-fonte MiniPar.
+     */
+    public static String generate(int lines) {
+        StringBuilder sb = new StringBuilder(lines * 32);
+        int written = 0;
+        int unit = 0;
+        while (written < lines) {
+            written += unit % 3 == 0 ? writeClass(sb, unit) : writeFunction(sb, unit);
+            unit++;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Gera um programa dominado por expressões: funções cujas instruções são
+     * atribuições com expressões longas que combinam todos os níveis de
+     * precedência, chamadas, índices e acessos a propriedades.
+     *
+     * @param lines Número aproximado de linhas.
+     * @return Código-fonte MiniPar.
+     */
+    public static String generateExpressions(int lines) {
+        StringBuilder sb = new StringBuilder(lines * 96);
+        int written = 0;
+        int unit = 0;
+        while (written < lines) {
+            written += writeExpressions(sb, unit++);
+        }
+        return sb.toString();
+    }
+
+    private static int writeExpressions(StringBuilder sb, int n) {
+        sb.append("func expr").append(n).append("(number a, number b, list l, dict d) -> bool {\n")
+          .append("    number x = a * b + (a - b) / 2 - l[0] % 3 + d[\"k\"] * -a;\n")
+          .append("    number y = ((x + 1) * (x - 1) + a * a * a - b / (a + 1)) % ").append(n + 7).append(";\n")
+          .append("    bool p = x > y && y >= 0 || !(a == b) && a != ").append(n).append(" || x <= y - 1;\n")
+          .append("    x = max(a, b) + calcula(x * 2, y / 2) - l[a + b * 2] + o.valor * o.fator(a, -b);\n")
+          .append("    y = -x + -y * 2 - (a < b) + [a + 1, b * 2, x % 5][1] + this.total - 1;\n")
+          .append("    return p && (x + y * 2 > a - b / 3 || x * y < a + b) && !(x == y);\n")
+          .append("}\n\n");
+        return 8;
+    }
+
+    private static int writeFunction(StringBuilder sb, int n) {
+        sb.append("func calcula").append(n).append("(number a, number b) -> number {\n")
+          .append("    number total = 0;\n")
+          .append("    list itens = [a, b, a * b, a - b, ").append(n).append("];\n")
+          .append("    dict pesos = {\"a\": a, \"b\": b, \"n\": ").append(n).append("};\n")
+          .append("    for (number x in itens) {\n")
+          .append("        if (x > 0 && !(x == b)) {\n")
+          .append("            total = total + x * pesos[\"a\"];\n")
+          .append("        } else {\n")
+          .append("            total = total - (x / 2);\n")
+          .append("        }\n")
+          .append("    }\n")
+          .append("    while (total > 1000) {\n")
+          .append("        total = total / 10;\n")
+          .append("    }\n")
+          .append("    println(\"calcula").append(n).append(": \", total);\n")
+          .append("    return total;\n")
+          .append("}\n\n");
+        return 18;
+    }
+
+    private static int writeClass(StringBuilder sb, int n) {
+        sb.append("class Conta").append(n).append(" {\n")
+          .append("    number saldo;\n")
+          .append("    string nome;\n\n")
+          .append("    Conta").append(n).append("(string nome, number inicial) {\n")
+          .append("        this.nome = nome;\n")
+          .append("        this.saldo = inicial;\n")
+          .append("    }\n\n")
+          .append("    void deposita(number valor) {\n")
+          .append("        this.saldo = this.saldo + valor;\n")
+          .append("        print(this.nome);\n")
+          .append("        println(\" saldo: \", this.saldo);\n")
+          .append("    }\n\n")
+          .append("    number rende(number meses) {\n")
+          .append("        number i = 0;\n")
+          .append("        do {\n")
+          .append("            this.saldo = this.saldo * 1.01;\n")
+          .append("            i = i + 1;\n")
+          .append("        } while (i < meses);\n")
+          .append("        return this.saldo;\n")
+          .append("    }\n")
+          .append("}\n\n");
+        return 22;
+    }
+}
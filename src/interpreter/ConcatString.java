@@ -0,0 +1,117 @@
+package interpreter;
+
+import java.io.Serializable;
+
+/**
+ * String resultante de concatenações sucessivas, construída sem copiar o texto
+ * acumulado a cada {@code +}.
+ * <p>
+ * Várias instâncias compartilham um mesmo {@link StringBuilder}, ao qual só se
+ * acrescenta texto: cada uma enxerga o prefixo de tamanho {@link #length()}.
+ * Concatenar à instância que está na ponta do buffer (a mais recente) apenas
+ * acrescenta ao buffer, de modo que {@code s = s + x} em um laço custa O(|x|)
+ * amortizado em vez de O(|s|). Concatenar a uma instância mais antiga copia o
+ * prefixo para um buffer novo, como faria uma string comum.
+ * <p>
+ * O texto só é materializado em {@link String} quando consultado
+ * ({@link #toString()}), e o resultado fica guardado. Para o interpretador o
+ * valor é uma string: ver as conversões em {@code Interpreter}. Na
+ * serialização (canais TCP) vira uma {@link String}.
+ */
+final class ConcatString implements CharSequence, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Tamanho a partir do qual uma concatenação passa a usar um buffer
+     * compartilhado; abaixo disso, a cópia é mais barata que o buffer.
+     */
+    static final int THRESHOLD = 256;
+
+    private final StringBuilder buffer;
+    private final int length;
+    private transient volatile String flat;
+
+    private ConcatString(StringBuilder buffer, int length) {
+        this.buffer = buffer;
+        this.length = length;
+    }
+
+    /**
+     * Concatena dois textos, usando um buffer compartilhado se o resultado
+     * for grande o bastante.
+     *
+     * @return {@link String} ou {@link ConcatString}.
+     */
+    static CharSequence concat(CharSequence left, String right) {
+        if (left instanceof ConcatString c) {
+            return c.append(right);
+        }
+        String l = left.toString();
+        int total = l.length() + right.length();
+        if (total < THRESHOLD) {
+            return l.concat(right);
+        }
+        StringBuilder sb = new StringBuilder(total * 2);
+        sb.append(l).append(right);
+        return new ConcatString(sb, total);
+    }
+
+    private ConcatString append(String s) {
+        synchronized (buffer) {
+            if (buffer.length() == length) {
+                buffer.append(s);
+                return new ConcatString(buffer, buffer.length());
+            }
+            // Outra instância já estendeu o buffer: copia o prefixo
+            StringBuilder copy = new StringBuilder((length + s.length()) * 2);
+            copy.append(buffer, 0, length).append(s);
+            return new ConcatString(copy, copy.length());
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        synchronized (buffer) {
+            return buffer.charAt(index);
+        }
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        String s = flat;
+        if (s == null) {
+            synchronized (buffer) {
+                s = buffer.substring(0, length);
+            }
+            flat = s;
+        }
+        return s;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ConcatString c && length == c.length && toString().equals(c.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    private Object writeReplace() {
+        return toString();
+    }
+}
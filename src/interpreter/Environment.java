@@ -9,6 +9,8 @@ import java.util.Map;
 public class Environment {
     private final Environment enclosing; // pode ser null para escopo global
     private final Map<String, Object> values = new HashMap<>();
+    /** Incrementada a cada definição ou atribuição neste escopo. */
+    private volatile int version;
 
     public Environment() {
         this.enclosing = null;
@@ -21,6 +23,7 @@ public class Environment {
     /** Define uma variável neste escopo. */
     public synchronized void define(String name, Object value) {
         values.put(name, value);
+        version++;
     }
 
     /** Obtém o valor de uma variável procurando no escopo atual e ancestrais. */
@@ -34,6 +37,7 @@ public class Environment {
     public synchronized void assign(String name, Object value) {
         if (values.containsKey(name)) {
             values.put(name, value);
+            version++;
             return;
         }
         if (enclosing != null) {
@@ -43,6 +47,14 @@ public class Environment {
         throw new RuntimeException("Variável não definida: " + name);
     }
 
+    /**
+     * Versão dos valores deste escopo (sem os ancestrais): muda sempre que
+     * uma variável dele é definida ou atribuída. Lida sem bloqueio.
+     */
+    public int version() {
+        return version;
+    }
+
     /** Retorna o ambiente pai. */
     public Environment enclosing() {
         return enclosing;
@@ -1,13 +1,14 @@
 package interpreter;
 
 import io.InputCallback;
+import io.SessionListener;
 import parser.*;
 import lexer.*;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.function.Function;
 
 /**
  * Sessão de execução com suporte a input interativo.
@@ -16,20 +17,84 @@ import java.util.concurrent.*;
 public class ExecutionSession {
     private final String sessionId;
     private final String code;
+    private final Function<String, Program> frontEnd;
     private final BlockingQueue<String> inputQueue = new LinkedBlockingQueue<>();
-    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
-    private final ByteArrayOutputStream errContent = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream outContent = new StreamingBuffer(false);
+    private final ByteArrayOutputStream errContent = new StreamingBuffer(true);
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
     private volatile boolean running = false;
     private volatile boolean waitingForInput = false;
     private volatile String currentPrompt = "";
+    private volatile SessionListener listener;
+    private volatile SamplingProfiler profiler;
+    private volatile LineCounters lineCounters;
     private Future<?> executionFuture;
     
     public ExecutionSession(String code) {
+        this(code, ExecutionSession::compile);
+    }
+
+    /**
+     * Cria uma sessão que obtém a AST através da função informada
+     * (por exemplo, consultando um cache de programas já analisados).
+     *
+     * @param code     Código-fonte MiniPar
+     * @param frontEnd Função que executa (ou reaproveita) as fases léxica e sintática
+     */
+    public ExecutionSession(String code, Function<String, Program> frontEnd) {
         this.sessionId = UUID.randomUUID().toString();
         this.code = code;
+        this.frontEnd = frontEnd;
+    }
+
+    /**
+     * Executa as fases léxica e sintática sobre o código-fonte.
+     */
+    private static Program compile(String code) {
+        Lexer lexer = new Lexer(code);
+        Parser parser = new Parser(lexer.scanPacked());
+        return parser.parse();
     }
     
+    /**
+     * Define quem será notificado da saída, dos pedidos de entrada e do fim
+     * da execução. Deve ser chamado antes de {@link #start()}.
+     */
+    public void setListener(SessionListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Liga o profiler por amostragem para esta execução. Deve ser chamado
+     * antes de {@link #start()}.
+     */
+    public void enableProfiling() {
+        this.profiler = new SamplingProfiler();
+    }
+
+    /**
+     * @return Profiler da sessão (com as amostras coletadas até agora, ou
+     *         todas se a execução terminou), ou null se não foi ligado.
+     */
+    public SamplingProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Liga a contagem de execuções por linha para esta execução. Deve ser
+     * chamado antes de {@link #start()}.
+     */
+    public void enableLineCounts() {
+        this.lineCounters = LineCounters.forSource(code);
+    }
+
+    /**
+     * @return Contadores de execução por linha, ou null se não foram ligados.
+     */
+    public LineCounters getLineCounts() {
+        return lineCounters;
+    }
+
     public String getSessionId() {
         return sessionId;
     }
@@ -66,25 +131,21 @@ public class ExecutionSession {
         executionFuture = executor.submit(() -> {
             PrintStream originalOut = System.out;
             PrintStream originalErr = System.err;
+            boolean success = false;
             
             try {
                 System.setOut(new PrintStream(outContent, true, StandardCharsets.UTF_8));
                 System.setErr(new PrintStream(errContent, true, StandardCharsets.UTF_8));
                 
-                // Análise léxica
-                Lexer lexer = new Lexer(code);
-                List<Token> tokens = lexer.scanTokens();
-                
-                // Análise sintática
-                Parser parser = new Parser(tokens);
-                Program program = parser.parse();
+                // Análise léxica e sintática
+                Program program = frontEnd.apply(code);
                 
                 // Interpretação com callback de input
                 Interpreter interpreter = new Interpreter();
                 interpreter.setInputCallback(new InputCallback() {
                     @Override
                     public String readLine() throws Exception {
-                        waitingForInput = true;
+                        requestInput();
                         String input = inputQueue.take(); // Bloqueia até receber input
                         waitingForInput = false;
                         return input;
@@ -92,7 +153,7 @@ public class ExecutionSession {
                     
                     @Override
                     public double readNumber() throws Exception {
-                        waitingForInput = true;
+                        requestInput();
                         String input = inputQueue.take(); // Bloqueia até receber input
                         waitingForInput = false;
                         try {
@@ -103,7 +164,14 @@ public class ExecutionSession {
                     }
                 });
                 
+                interpreter.setLineCounters(lineCounters);
+                SamplingProfiler p = profiler;
+                if (p != null) {
+                    interpreter.setProfiler(p);
+                    p.start();
+                }
                 interpreter.execute(program);
+                success = true;
                 
             } catch (Exception e) {
                 StringWriter sw = new StringWriter();
@@ -114,14 +182,34 @@ public class ExecutionSession {
                     errContent.write(("Erro: " + e.getMessage() + "\n" + sw.toString()).getBytes(StandardCharsets.UTF_8));
                 } catch (IOException ignored) {}
             } finally {
+                SamplingProfiler p = profiler;
+                if (p != null) {
+                    p.stop();
+                }
                 System.setOut(originalOut);
                 System.setErr(originalErr);
                 running = false;
                 waitingForInput = false;
+                executor.shutdown();
+                SessionListener l = listener;
+                if (l != null) {
+                    l.onFinished(success);
+                }
             }
         });
     }
     
+    /**
+     * Marca a sessão como aguardando entrada e avisa o listener.
+     */
+    private void requestInput() {
+        waitingForInput = true;
+        SessionListener l = listener;
+        if (l != null) {
+            l.onInputRequested();
+        }
+    }
+    
     /**
      * Fornece input para o programa em execução
      */
@@ -149,4 +237,41 @@ public class ExecutionSession {
             executionFuture.get(timeout, unit);
         }
     }
+    
+    /**
+     * Buffer da saída (ou da saída de erro) que também repassa cada trecho
+     * escrito ao listener da sessão.
+     */
+    private class StreamingBuffer extends ByteArrayOutputStream {
+        private final boolean error;
+        
+        StreamingBuffer(boolean error) {
+            this.error = error;
+        }
+        
+        @Override
+        public synchronized void write(int b) {
+            super.write(b);
+            notifyListener(new byte[] { (byte) b }, 0, 1);
+        }
+        
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            super.write(b, off, len);
+            notifyListener(b, off, len);
+        }
+        
+        private void notifyListener(byte[] b, int off, int len) {
+            SessionListener l = listener;
+            if (l == null || len == 0) {
+                return;
+            }
+            String text = new String(b, off, len, StandardCharsets.UTF_8);
+            if (error) {
+                l.onError(text);
+            } else {
+                l.onOutput(text);
+            }
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package interpreter;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Formatação de {@code double} com número fixo de casas decimais, equivalente
+ * a {@code String.format("%.Nf", d)} na localidade padrão, mas escrita
+ * diretamente em um {@link StringBuilder}, sem {@link java.util.Formatter} e
+ * sem objetos intermediários.
+ * <p>
+ * O {@code Formatter} arredonda "metade para cima" a partir da representação
+ * decimal mais curta do número ({@link Double#toString(double)}). O caminho
+ * rápido multiplica o valor por 10<sup>N</sup> e arredonda em aritmética de
+ * ponto flutuante, o que dá o mesmo resultado exceto quando a parte
+ * fracionária fica a poucos ulps de 0,5; esses empates, os valores muito
+ * grandes e os não finitos são repassados ao próprio {@code String.format}.
+ */
+final class FixedDecimal {
+    /** Maior número de casas do caminho rápido. */
+    static final int MAX_DECIMALS = 8;
+
+    /** Acima disso, o valor escalado não tem precisão para o caminho rápido. */
+    private static final double MAX_FAST = 1e10;
+
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L };
+
+    private static final Locale LOCALE = Locale.getDefault(Locale.Category.FORMAT);
+    private static final char SEPARATOR;
+    /** Localidades com outros dígitos (árabe, devanágari...) usam o Formatter. */
+    private static final boolean ASCII_DIGITS;
+
+    static {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(LOCALE);
+        SEPARATOR = symbols.getDecimalSeparator();
+        ASCII_DIGITS = symbols.getZeroDigit() == '0';
+    }
+
+    private FixedDecimal() {
+    }
+
+    /**
+     * Acrescenta {@code d} com {@code decimals} casas decimais.
+     */
+    static StringBuilder append(StringBuilder sb, double d, int decimals) {
+        if (decimals < 1 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("Casas decimais fora do intervalo: " + decimals);
+        }
+        boolean negative = Double.doubleToRawLongBits(d) < 0;
+        double abs = Math.abs(d);
+        if (!ASCII_DIGITS || !(abs < MAX_FAST)) {
+            return slow(sb, d, decimals);
+        }
+        long scale = POW10[decimals];
+        double x = abs * scale;
+        double floor = Math.floor(x);
+        double frac = x - floor;
+        if (Math.abs(frac - 0.5) <= 4 * Math.ulp(x)) {
+            return slow(sb, d, decimals);
+        }
+        long units = (long) floor + (frac > 0.5 ? 1 : 0);
+
+        if (negative) {
+            sb.append('-');
+        }
+        sb.append(units / scale).append(SEPARATOR);
+        long fraction = units % scale;
+        for (long p = scale / 10; p > 1 && fraction < p; p /= 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+
+    private static StringBuilder slow(StringBuilder sb, double d, int decimals) {
+        return sb.append(String.format(LOCALE, "%." + decimals + "f", d));
+    }
+}
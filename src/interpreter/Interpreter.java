@@ -7,10 +7,14 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.SplittableRandom;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 
@@ -37,9 +41,89 @@ public class Interpreter {
     // Built-ins de função: nome -> invocador
     private final Map<String, Builtin> builtins = new HashMap<>();
 
+    // Profiler por amostragem; null (o padrão) desliga o acompanhamento de pilhas
+    private SamplingProfiler profiler = null;
+
+    // Contadores de execução por linha; null (o padrão) desliga a contagem
+    private LineCounters lineCounters = null;
+
+    // Gerador de números aleatórios de cada thread; cada ramo de um par recebe
+    // um gerador derivado (split) do gerador de quem executou o par
+    private final ThreadLocal<SplittableRandom> random = ThreadLocal.withInitial(SplittableRandom::new);
+
+    // Análise de pureza das funções passadas a map/filter/reduce/any/all
+    private final PurityAnalyzer purity = new PurityAnalyzer(this::resolveFunction, true);
+
+    // Análise mais estrita, que também rejeita leituras de globais, para memo
+    private final PurityAnalyzer memoPurity = new PurityAnalyzer(this::resolveFunction, false);
+
+    // Saída de print/println; criada a cada execute() sobre o System.out atual
+    private ProgramOutput output;
+    private boolean interactiveOutput = true;
+
+    /**
+     * Semente inicial dos números aleatórios ({@code -Dminipar.seed=<n>}); sem
+     * ela, cada execução usa uma semente diferente, como antes de
+     * {@code seed(n)} ser chamado.
+     */
+    private static final Long SEED = Long.getLong("minipar.seed");
+
     public Interpreter() {
         // Registrar built-ins simples
-        builtins.put("random", (args) -> Math.random());
+        builtins.put("random", (args) -> {
+            checkArity("random", args, 0);
+            return random.get().nextDouble();
+        });
+        builtins.put("seed", (args) -> {
+            checkArity("seed", args, 1);
+            random.set(new SplittableRandom((long) toNumber(args.get(0))));
+            return null;
+        });
+        builtins.put("random_normal", (args) -> {
+            if (args.size() != 0 && args.size() != 2) {
+                throw new RuntimeException("Função random_normal espera 0 ou 2 argumentos, recebeu " + args.size());
+            }
+            if (args.isEmpty())
+                return random.get().nextGaussian();
+            return random.get().nextGaussian(toNumber(args.get(0)), toNumber(args.get(1)));
+        });
+        builtins.put("random_list", (args) -> {
+            if (args.size() != 1 && args.size() != 3) {
+                throw new RuntimeException("Função random_list espera 1 ou 3 argumentos, recebeu " + args.size());
+            }
+            int n = toIndex(args.get(0));
+            if (n < 0)
+                throw new RuntimeException("random_list: tamanho negativo: " + n);
+            SplittableRandom rng = random.get();
+            List<Object> list = new ArrayList<>(n);
+            if (args.size() == 1) {
+                for (int i = 0; i < n; i++)
+                    list.add(rng.nextDouble());
+            } else if (args.get(1) instanceof Long lo && args.get(2) instanceof Long hi) {
+                if (lo >= hi)
+                    throw new RuntimeException("random_list: intervalo vazio [" + lo + ", " + hi + ")");
+                for (int i = 0; i < n; i++)
+                    list.add(rng.nextLong(lo, hi));
+            } else {
+                double lo = toNumber(args.get(1));
+                double hi = toNumber(args.get(2));
+                if (!(lo < hi))
+                    throw new RuntimeException("random_list: intervalo vazio [" + lo + ", " + hi + ")");
+                for (int i = 0; i < n; i++)
+                    list.add(rng.nextDouble(lo, hi));
+            }
+            return list;
+        });
+        builtins.put("shuffle", (args) -> {
+            checkArity("shuffle", args, 1);
+            List<Object> list = asList("shuffle", args.get(0));
+            SplittableRandom rng = random.get();
+            for (int i = list.size() - 1; i > 0; i--) {
+                int j = rng.nextInt(i + 1);
+                list.set(j, list.set(i, list.get(j)));
+            }
+            return list;
+        });
         builtins.put("sqrt", (args) -> checkArityAndNumber("sqrt", args, 1, true));
         builtins.put("abs", (args) -> checkArityAndNumber("abs", args, 1, false));
         builtins.put("exp", (args) -> {
@@ -55,10 +139,145 @@ public class Interpreter {
         });
         builtins.put("max", (args) -> {
             checkArity("max", args, 2);
+            if (args.get(0) instanceof Long x && args.get(1) instanceof Long y)
+                return Math.max(x, y);
             double a = toNumber(args.get(0));
             double b = toNumber(args.get(1));
             return (a > b) ? a : b;
         });
+        builtins.put("range", (args) -> {
+            if (args.isEmpty() || args.size() > 3) {
+                throw new RuntimeException("Função range espera 1 a 3 argumentos, recebeu " + args.size());
+            }
+            Object start = args.size() == 1 ? (Object) 0L : rangeBound(args.get(0));
+            Object end = rangeBound(args.get(args.size() == 1 ? 0 : 1));
+            Object step = args.size() == 3 ? rangeBound(args.get(2)) : (Object) 1L;
+            return new Sequences.Range(start, end, step);
+        });
+        builtins.put("enumerate", (args) -> {
+            checkArity("enumerate", args, 1);
+            if (!(args.get(0) instanceof Iterable<?> it))
+                throw new RuntimeException("enumerate espera uma lista ou sequência");
+            return new Sequences.Enumerated(it);
+        });
+        builtins.put("keys", (args) -> {
+            checkArity("keys", args, 1);
+            return asDict("keys", args.get(0)).keySet();
+        });
+        builtins.put("values", (args) -> {
+            checkArity("values", args, 1);
+            return asDict("values", args.get(0)).values();
+        });
+        builtins.put("map", (args) -> {
+            checkArity("map", args, 2);
+            MiniFunction fn = asFunction("map", args.get(0));
+            return Pipeline.of(asSequence("map", args.get(1))).map(x -> fn.call(Collections.singletonList(x)),
+                    isPure(fn)).settle();
+        });
+        builtins.put("filter", (args) -> {
+            checkArity("filter", args, 2);
+            MiniFunction fn = asFunction("filter", args.get(0));
+            return Pipeline.of(asSequence("filter", args.get(1)))
+                    .filter(x -> isTruthy(fn.call(Collections.singletonList(x))), isPure(fn)).settle();
+        });
+        builtins.put("reduce", (args) -> {
+            if (args.size() != 2 && args.size() != 3) {
+                throw new RuntimeException("Função reduce espera 2 ou 3 argumentos, recebeu " + args.size());
+            }
+            MiniFunction fn = asFunction("reduce", args.get(0));
+            Pipeline items = Pipeline.of(asSequence("reduce", args.get(1)));
+            // acc[0]: acumulado; acc[1]: não-null depois do primeiro elemento
+            Object[] acc = { args.size() == 3 ? args.get(2) : null, args.size() == 3 ? Boolean.TRUE : null };
+            items.forEachOrdered(x -> {
+                if (acc[1] == null) {
+                    acc[0] = x;
+                    acc[1] = Boolean.TRUE;
+                } else {
+                    acc[0] = fn.call(Arrays.asList(acc[0], x));
+                }
+            });
+            if (acc[1] == null)
+                throw new RuntimeException("reduce de sequência vazia sem valor inicial");
+            return acc[0];
+        });
+        builtins.put("sum", (args) -> {
+            checkArity("sum", args, 1);
+            Object[] total = { 0L };
+            Pipeline.of(asSequence("sum", args.get(0))).forEachOrdered(x -> total[0] = add(total[0], x));
+            return total[0];
+        });
+        builtins.put("any", (args) -> anyOrAll("any", args, true));
+        builtins.put("all", (args) -> anyOrAll("all", args, false));
+        builtins.put("zip", (args) -> {
+            checkArity("zip", args, 2);
+            return new Sequences.Zipped(asSequence("zip", args.get(0)), asSequence("zip", args.get(1)));
+        });
+        builtins.put("to_list", (args) -> {
+            checkArity("to_list", args, 1);
+            return Pipeline.of(asSequence("to_list", args.get(0))).toList();
+        });
+        builtins.put("sort", (args) -> sortList("sort", args, false));
+        builtins.put("parallel_sort", (args) -> sortList("parallel_sort", args, true));
+        builtins.put("binary_search", (args) -> {
+            checkArity("binary_search", args, 2);
+            return (long) Sorting.binarySearch(asList("binary_search", args.get(0)), args.get(1));
+        });
+        builtins.put("index_of", (args) -> {
+            checkArity("index_of", args, 2);
+            List<Object> list = asList("index_of", args.get(0));
+            Object item = args.get(1);
+            for (int i = 0; i < list.size(); i++) {
+                if (equals(list.get(i), item))
+                    return (long) i;
+            }
+            return -1L;
+        });
+        builtins.put("set", (args) -> {
+            if (args.size() > 1) {
+                throw new RuntimeException("Função set espera 0 ou 1 argumento, recebeu " + args.size());
+            }
+            MiniSet set = new MiniSet();
+            if (args.size() == 1)
+                Pipeline.of(asSequence("set", args.get(0))).forEach(set::add);
+            return set;
+        });
+        builtins.put("memo", (args) -> {
+            if (args.isEmpty() || args.size() > 3) {
+                throw new RuntimeException("Função memo espera de 1 a 3 argumentos, recebeu " + args.size());
+            }
+            MiniFunction fn = asFunction("memo", args.get(0));
+            if (fn instanceof MemoFunction m)
+                fn = m.target;
+            // Lida antes da análise: uma mudança durante ela é verificada na
+            // primeira chamada
+            int version = globals.version();
+            PurityAnalyzer.Verdict verdict = memoVerdict(fn);
+            int size = args.size() > 1 ? toIndex(args.get(1)) : MemoCache.DEFAULT_SIZE;
+            MemoCache.Policy policy = args.size() > 2 ? MemoCache.Policy.of(stringify(args.get(2)))
+                    : MemoCache.Policy.LRU;
+            return new MemoFunction(fn, new MemoCache(size, policy), verdict, version);
+        });
+        builtins.put("flush", (args) -> {
+            checkArity("flush", args, 0);
+            output.flush();
+            return null;
+        });
+    }
+
+    /**
+     * Corpo da função global com o nome dado, para a análise de pureza; null
+     * se o nome é de um built-in ou não é de uma função.
+     */
+    private PurityAnalyzer.Callee resolveFunction(String name) {
+        if (builtins.containsKey(name))
+            return null;
+        Object value;
+        synchronized (globals) {
+            value = globals.getValues().get(name);
+        }
+        if (value instanceof MiniFunction fn)
+            return new PurityAnalyzer.Callee(fn.params, fn.body);
+        return null;
     }
 
     // Propriedades para acesso ao environment da thread atual
@@ -79,10 +298,57 @@ public class Interpreter {
         this.inputCallback = callback;
     }
 
+    /**
+     * Define o profiler que acompanha as chamadas e as linhas executadas. Deve
+     * ser chamado antes de {@link #execute(Program)}; quem o criou é
+     * responsável por iniciá-lo e encerrá-lo.
+     *
+     * @param profiler Profiler, ou null para desligar.
+     */
+    public void setProfiler(SamplingProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Liga a contagem de execuções por linha: cada instrução executada soma 1
+     * à linha em que começa. Deve ser chamado antes de
+     * {@link #execute(Program)}.
+     *
+     * @param counters Contadores, ou null para desligar.
+     */
+    public void setLineCounters(LineCounters counters) {
+        this.lineCounters = counters;
+    }
+
+    /**
+     * Define se a saída de {@code print}/{@code println} é descarregada a
+     * cada quebra de linha (o padrão, para quem acompanha a execução) ou só
+     * antes de leituras, ao encher o buffer, no built-in {@code flush()} e ao
+     * final da execução. Deve ser chamado antes de {@link #execute(Program)}.
+     *
+     * @param interactive Se verdadeiro, descarrega a cada linha.
+     */
+    public void setInteractiveOutput(boolean interactive) {
+        this.interactiveOutput = interactive;
+    }
+
     // ===== API =====
 
     public void execute(Program program) {
-        exec(program);
+        output = new ProgramOutput(System.out, interactiveOutput);
+        if (SEED != null)
+            random.set(new SplittableRandom(SEED));
+        if (profiler != null) {
+            profiler.enter();
+        }
+        try {
+            exec(program);
+        } finally {
+            if (profiler != null) {
+                profiler.exit();
+            }
+            output.flush();
+        }
     }
 
     // ===== Execução de nós =====
@@ -90,6 +356,10 @@ public class Interpreter {
     private Object exec(ASTNode node) {
         if (node == null)
             return null;
+        if (profiler != null && node.line() > 0)
+            profiler.line(node.line());
+        if (lineCounters != null)
+            lineCounters.increment(node.line());
 
         try {
             // Declarações e statements de topo
@@ -133,8 +403,13 @@ public class Interpreter {
                 return execPropertyAssign(pa);
 
             return eval(node);
-        } catch (RuntimeException e) {
+        } catch (ReturnSignal | BreakSignal | ContinueSignal | RuntimeError e) {
             throw e;
+        } catch (RuntimeException e) {
+            // Só no caminho de erro: a instrução mais interna que falhou dá a posição
+            if (node.line() == 0)
+                throw e;
+            throw new RuntimeError(node, e);
         }
     }
 
@@ -189,6 +464,7 @@ public class Interpreter {
             String comp2 = c.nomes.get(2);
 
             // Pergunta ao usuário se este processo é servidor ou cliente
+            output.flush();
             System.out.println("\n[Configuração do Canal TCP '" + canalName + "']");
             System.out.println("Este processo é (1) Servidor ou (2) Cliente?");
             System.out.print("Digite 1 ou 2: ");
@@ -240,9 +516,17 @@ public class Interpreter {
         List<Thread> threads = new ArrayList<>();
         List<Throwable> errors = new ArrayList<>();
         Environment parentEnv = getEnv();
+        SamplingProfiler.Stack parentFrames = profiler != null ? profiler.current() : null;
+        SplittableRandom parentRandom = random.get();
 
         for (List<ASTNode> group : groups) {
+            // Derivado aqui, na ordem dos ramos, para que a semente determine
+            // a sequência de cada ramo
+            SplittableRandom branchRandom = parentRandom.split();
             Thread t = new Thread(() -> {
+                if (profiler != null)
+                    profiler.enter(parentFrames);
+                random.set(branchRandom);
                 try {
                     // Cada thread inicializa com uma cópia do ambiente global
                     setEnv(new Environment(globals));
@@ -262,6 +546,9 @@ public class Interpreter {
                     synchronized (errors) {
                         errors.add(e);
                     }
+                } finally {
+                    if (profiler != null)
+                        profiler.exit();
                 }
             });
             threads.add(t);
@@ -269,12 +556,16 @@ public class Interpreter {
         }
 
         // Aguarda todas as threads terminarem
+        if (profiler != null)
+            profiler.waiting(true);
         for (Thread t : threads) {
             try {
                 t.join();
             } catch (InterruptedException ignored) {
             }
         }
+        if (profiler != null)
+            profiler.waiting(false);
 
         // Propaga primeiro erro se houver
         if (!errors.isEmpty()) {
@@ -347,25 +638,29 @@ public class Interpreter {
 
     private Object execFor(ForStmt f) {
         Object iterable = eval(f.iterable);
-        if (iterable instanceof List<?> list) {
-            for (Object item : list) {
-                Environment loopEnv = new Environment(getEnv());
-                loopEnv.define(f.variable.name, item);
-                Environment prev = getEnv();
-                setEnv(loopEnv);
+        if (!(iterable instanceof Iterable<?> items)) {
+            throw new RuntimeException("for-in suporta apenas listas e sequências (range, enumerate, keys, values)");
+        }
+        // Um único escopo para o laço inteiro: a variável é redefinida a cada volta
+        String name = f.variable.name;
+        Environment prev = getEnv();
+        Environment loopEnv = new Environment(prev);
+        setEnv(loopEnv);
+        try {
+            for (Object item : items) {
+                loopEnv.define(name, item);
                 try {
                     execSeq(f.body);
                 } catch (BreakSignal b) {
                     break;
                 } catch (ContinueSignal c) {
                     // ignora
-                } finally {
-                    setEnv(prev);
                 }
             }
-            return null;
+        } finally {
+            setEnv(prev);
         }
-        throw new RuntimeException("for-in suporta apenas listas");
+        return null;
     }
 
     private Object execPrint(PrintStmt p) {
@@ -373,22 +668,13 @@ public class Interpreter {
         for (ASTNode a : p.arguments)
             vals.add(eval(a));
 
-        if (vals.isEmpty()) {
-            if (p.newline) {
-                System.out.println();
-            }
-            return null;
-        }
-
-        // Imprime todos os argumentos concatenados (sem espaços entre eles)
+        // Imprime todos os argumentos concatenados (sem espaços entre eles),
+        // com quebra de linha se for println
+        StringBuilder sb = new StringBuilder();
         for (Object val : vals) {
-            System.out.print(stringify(val));
-        }
-
-        // Adiciona quebra de linha se for println
-        if (p.newline) {
-            System.out.println();
+            appendValue(sb, val);
         }
+        output.write(sb, p.newline);
 
         return null;
     }
@@ -405,7 +691,7 @@ public class Interpreter {
         Object value = eval(ia.value);
         if (target instanceof List<?> lst) {
             List<Object> list = castList(lst);
-            int i = (int) toNumber(index);
+            int i = toIndex(index);
             setListIndex(list, i, value);
             return value;
         }
@@ -483,6 +769,8 @@ public class Interpreter {
 
     private Object evalUnary(UnaryExpr u) {
         Object right = eval(u.operand);
+        if (right instanceof Long n && u.operator.equals("-") && n != Long.MIN_VALUE)
+            return -n;
         return switch (u.operator) {
             case "-" -> -toNumber(right);
             case "!" -> !isTruthy(right);
@@ -507,6 +795,13 @@ public class Interpreter {
                 return equals(left, right);
             case "!=":
                 return !equals(left, right);
+        }
+
+        // Inteiros: aritmética em long, sem passar por double
+        if (left instanceof Long l && right instanceof Long r)
+            return evalIntegerBinary(op, l, r);
+
+        switch (op) {
             case ">":
                 return toNumber(left) > toNumber(right);
             case ">=":
@@ -520,8 +815,11 @@ public class Interpreter {
         // Aritmética ou concatenação
         switch (op) {
             case "+":
-                if (left instanceof String || right instanceof String) {
-                    return stringify(left) + stringify(right);
+                if (left instanceof CharSequence l) {
+                    return ConcatString.concat(l, stringify(right));
+                }
+                if (right instanceof CharSequence) {
+                    return ConcatString.concat(stringify(left), stringify(right));
                 }
                 return toNumber(left) + toNumber(right);
             case "-":
@@ -536,6 +834,52 @@ public class Interpreter {
         throw new RuntimeException("Operador desconhecido: " + op);
     }
 
+    /**
+     * Operações entre inteiros. Se o resultado não couber em 64 bits, é
+     * calculado em double, como os demais números; a divisão só resulta em
+     * inteiro quando é exata (7 / 2 continua sendo 3.5).
+     */
+    private Object evalIntegerBinary(String op, long a, long b) {
+        switch (op) {
+            case ">":
+                return a > b;
+            case ">=":
+                return a >= b;
+            case "<":
+                return a < b;
+            case "<=":
+                return a <= b;
+            case "+":
+                try {
+                    return Math.addExact(a, b);
+                } catch (ArithmeticException e) {
+                    return (double) a + (double) b;
+                }
+            case "-":
+                try {
+                    return Math.subtractExact(a, b);
+                } catch (ArithmeticException e) {
+                    return (double) a - (double) b;
+                }
+            case "*":
+                try {
+                    return Math.multiplyExact(a, b);
+                } catch (ArithmeticException e) {
+                    return (double) a * (double) b;
+                }
+            case "/":
+                if (b != 0 && a % b == 0 && !(a == Long.MIN_VALUE && b == -1))
+                    return a / b;
+                return (double) a / (double) b;
+            case "%":
+                if (b != 0)
+                    return a % b;
+                return (double) a % (double) b;
+            default:
+                throw new RuntimeException("Operador desconhecido: " + op);
+        }
+    }
+
     private Object evalListLiteral(ListLiteral ll) {
         List<Object> list = new ArrayList<>();
         for (ASTNode e : ll.elements)
@@ -544,7 +888,7 @@ public class Interpreter {
     }
 
     private Object evalDictLiteral(DictLiteral dl) {
-        Map<Object, Object> map = new HashMap<>();
+        Map<Object, Object> map = new MiniDict();
         for (DictEntry e : dl.entries)
             map.put(eval(e.key), eval(e.value));
         return map;
@@ -554,7 +898,7 @@ public class Interpreter {
         Object target = eval(ie.target);
         Object index = eval(ie.index);
         if (target instanceof List<?> lst) {
-            int i = (int) toNumber(index);
+            int i = toIndex(index);
             List<Object> l = castList(lst);
             if (i < 0 || i >= l.size())
                 return null;
@@ -575,22 +919,31 @@ public class Interpreter {
         }
         if (obj instanceof List<?> lst) {
             if (pa.propertyName.equals("length"))
-                return ((List<?>) lst).size();
+                return (long) ((List<?>) lst).size();
         }
-        if (obj instanceof String s) {
+        if (obj instanceof CharSequence s) {
             if (pa.propertyName.equals("length"))
-                return s.length();
+                return (long) s.length();
         }
         if (obj instanceof Map<?, ?> m) {
             if (pa.propertyName.equals("length"))
-                return ((Map<?, ?>) m).size();
+                return (long) ((Map<?, ?>) m).size();
+        }
+        if (obj instanceof Collection<?> c) {
+            if (pa.propertyName.equals("length"))
+                return (long) c.size();
+        }
+        if (obj instanceof Sequences.Range r) {
+            if (pa.propertyName.equals("length"))
+                return r.size();
         }
         throw new RuntimeException("Propriedade desconhecida: " + pa.propertyName);
     }
 
     private Object evalInput(InputExpr in) {
         if (in.prompt != null)
-            System.out.print(stringify(eval(in.prompt)));
+            output.write(stringify(eval(in.prompt)), false);
+        output.flush();
         try {
             String line = reader.readLine();
             if (line == null)
@@ -599,7 +952,7 @@ public class Interpreter {
             try {
                 if (line.contains("."))
                     return Double.parseDouble(line.trim());
-                return Integer.parseInt(line.trim());
+                return Long.parseLong(line.trim());
             } catch (NumberFormatException e) {
                 return line;
             }
@@ -609,6 +962,7 @@ public class Interpreter {
     }
 
     private Object evalReadln() {
+        output.flush();
         try {
             // Se há callback (interface web), usa ele
             if (inputCallback != null) {
@@ -623,6 +977,7 @@ public class Interpreter {
     }
 
     private Object evalReadNumber() {
+        output.flush();
         try {
             // Se há callback (interface web), usa ele
             if (inputCallback != null) {
@@ -663,6 +1018,9 @@ public class Interpreter {
         if (obj instanceof MiniInstance inst) {
             return inst.call(mc.methodName, args);
         }
+        if (obj instanceof MiniSet set) {
+            return callSetMethod(set, mc.methodName, args);
+        }
         throw new RuntimeException("Chamada de método em não-instância");
     }
 
@@ -749,7 +1107,7 @@ public class Interpreter {
             Object idx = eval(ie.index);
             if (t instanceof List<?> lst) {
                 List<Object> l = castList(lst);
-                int i = (int) toNumber(idx);
+                int i = toIndex(idx);
                 setListIndex(l, i, value);
                 return;
             }
@@ -772,52 +1130,99 @@ public class Interpreter {
             return b;
         if (v instanceof Number n)
             return n.doubleValue() != 0.0;
-        if (v instanceof String s)
-            return !s.isEmpty();
-        if (v instanceof List<?> l)
-            return !l.isEmpty();
+        if (v instanceof CharSequence s)
+            return s.length() != 0;
+        if (v instanceof Collection<?> c)
+            return !c.isEmpty();
+        if (v instanceof Sequences.Range r)
+            return r.size() != 0;
         if (v instanceof Map<?, ?> m)
             return !m.isEmpty();
         return true;
     }
 
     private String stringify(Object v) {
+        if (v instanceof String s)
+            return s;
+        if (v instanceof ConcatString s)
+            return s.toString();
+        if (v instanceof Long n)
+            return n.toString();
+        return appendValue(new StringBuilder(), v).toString();
+    }
+
+    /**
+     * Escreve a representação de {@code v} em {@code sb}, como
+     * {@link #stringify(Object)}, sem strings intermediárias para números e
+     * coleções.
+     */
+    private StringBuilder appendValue(StringBuilder sb, Object v) {
         if (v == null)
-            return "null";
+            return sb.append("null");
+        if (v instanceof Long n)
+            return sb.append(n.longValue());
         if (v instanceof Double d) {
             if (d % 1 == 0)
-                return String.valueOf(d.longValue());
-            // return d.toString(); // Retornava notação científica para números pequenos
-            return String.format("%.4f", d);
+                return sb.append(d.longValue());
+            // Double.toString usaria notação científica para números pequenos
+            return FixedDecimal.append(sb, d, 4);
         }
         if (v instanceof Integer i)
-            return i.toString();
+            return sb.append(i.intValue());
         if (v instanceof Boolean b)
-            return b.toString();
+            return sb.append(b.booleanValue());
         if (v instanceof String s)
-            return s;
+            return sb.append(s);
+        if (v instanceof ConcatString s)
+            return sb.append(s.toString());
         if (v instanceof List<?> l) {
-            StringBuilder sb = new StringBuilder("[");
+            sb.append("[");
             for (int i = 0; i < l.size(); i++) {
                 if (i > 0)
                     sb.append(", ");
-                sb.append(stringify(l.get(i)));
+                appendValue(sb, l.get(i));
             }
-            sb.append("]");
-            return sb.toString();
+            return sb.append("]");
         }
         if (v instanceof Map<?, ?> m) {
-            StringBuilder sb = new StringBuilder("{");
+            sb.append("{");
             int i = 0;
             for (Map.Entry<?, ?> e : m.entrySet()) {
                 if (i++ > 0)
                     sb.append(", ");
-                sb.append(stringify(e.getKey())).append(": ").append(stringify(e.getValue()));
+                appendValue(sb, e.getKey()).append(": ");
+                appendValue(sb, e.getValue());
+            }
+            return sb.append("}");
+        }
+        if (v instanceof MiniSet set) {
+            sb.append("{");
+            int i = 0;
+            for (Object item : set) {
+                if (i++ > 0)
+                    sb.append(", ");
+                appendValue(sb, item);
+            }
+            return sb.append("}");
+        }
+        if (v instanceof Sequences.Range r) {
+            sb.append("range(");
+            appendValue(sb, r.first).append(", ");
+            appendValue(sb, r.last).append(", ");
+            return appendValue(sb, r.stride).append(")");
+        }
+        if (v instanceof Iterable<?> it) {
+            // keys, values e enumerate: impressos como lista
+            sb.append("[");
+            int i = 0;
+            for (Object item : it) {
+                if (i++ > 0)
+                    sb.append(", ");
+                appendValue(sb, item);
             }
-            sb.append("}");
-            return sb.toString();
+            return sb.append("]");
         }
-        return String.valueOf(v);
+        return sb.append(v);
     }
 
     private boolean equals(Object a, Object b) {
@@ -825,20 +1230,30 @@ public class Interpreter {
             return true;
         if (a == null || b == null)
             return false;
+        if (a instanceof Long x && b instanceof Long y)
+            return x.longValue() == y.longValue();
         if (a instanceof Number && b instanceof Number) {
+            if (isInteger(a) && isInteger(b))
+                return ((Number) a).longValue() == ((Number) b).longValue();
             return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue()) == 0;
         }
+        if (a instanceof ConcatString || b instanceof ConcatString) {
+            return a instanceof CharSequence && b instanceof CharSequence && a.toString().equals(b.toString());
+        }
         return Objects.equals(a, b);
     }
 
     private double toNumber(Object v) {
-        if (v instanceof Integer i)
-            return i.doubleValue();
         if (v instanceof Double d)
             return d;
+        if (v instanceof Long n)
+            return n.doubleValue();
+        if (v instanceof Integer i)
+            return i.doubleValue();
         if (v instanceof Number n)
             return n.doubleValue();
-        if (v instanceof String s) {
+        if (v instanceof CharSequence cs) {
+            String s = cs.toString();
             try {
                 if (s.contains("."))
                     return Double.parseDouble(s);
@@ -851,6 +1266,24 @@ public class Interpreter {
                 "Esperado número, obtido tipo: " + (v == null ? "null" : v.getClass().getSimpleName()));
     }
 
+    /**
+     * Inteiros do MiniPar são {@link Long}; {@link Integer} pode vir de
+     * mensagens de canais TCP de versões anteriores.
+     */
+    private static boolean isInteger(Object v) {
+        return v instanceof Long || v instanceof Integer;
+    }
+
+    /**
+     * Converte o valor em índice de lista, sem passar por double quando já é
+     * inteiro; valores fora do intervalo de int ficam no limite mais próximo.
+     */
+    private int toIndex(Object v) {
+        if (v instanceof Long n)
+            return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, n));
+        return (int) toNumber(v);
+    }
+
     @SuppressWarnings("unchecked")
     private List<Object> castList(List<?> l) {
         return (List<Object>) l;
@@ -864,10 +1297,116 @@ public class Interpreter {
 
     private Object checkArityAndNumber(String name, List<Object> args, int arity, boolean sqrt) {
         checkArity(name, args, arity);
+        if (!sqrt && args.get(0) instanceof Long x && x != Long.MIN_VALUE)
+            return Math.abs(x);
         double n = toNumber(args.get(0));
         return sqrt ? Math.sqrt(n) : Math.abs(n);
     }
 
+    /**
+     * Limite ou passo de {@code range}: inteiros ficam como {@link Long}.
+     */
+    private Object rangeBound(Object v) {
+        if (v instanceof Long)
+            return v;
+        double d = toNumber(v);
+        if (d == Math.rint(d) && Math.abs(d) < 0x1p53)
+            return (long) d;
+        return d;
+    }
+
+    private Iterable<?> asSequence(String name, Object v) {
+        if (v instanceof Iterable<?> it)
+            return it;
+        throw new RuntimeException("Função " + name + " espera uma lista ou sequência");
+    }
+
+    private MiniFunction asFunction(String name, Object v) {
+        if (v instanceof MiniFunction fn)
+            return fn;
+        throw new RuntimeException("Função " + name + " espera uma função como primeiro argumento");
+    }
+
+    /**
+     * {@code any(seq)}/{@code all(seq)} testam os elementos;
+     * {@code any(fn, seq)}/{@code all(fn, seq)}, o resultado de {@code fn}.
+     */
+    private Object anyOrAll(String name, List<Object> args, boolean any) {
+        if (args.size() != 1 && args.size() != 2) {
+            throw new RuntimeException("Função " + name + " espera 1 ou 2 argumentos, recebeu " + args.size());
+        }
+        Pipeline items = Pipeline.of(asSequence(name, args.get(args.size() - 1)));
+        if (args.size() == 2) {
+            MiniFunction fn = asFunction(name, args.get(0));
+            items = items.map(x -> fn.call(Collections.singletonList(x)), isPure(fn));
+        }
+        return any ? items.stream().anyMatch(this::isTruthy) : items.stream().allMatch(this::isTruthy);
+    }
+
+    /** Soma com a semântica do operador {@code +} para números. */
+    private Object add(Object a, Object b) {
+        if (a instanceof Long x && b instanceof Long y)
+            return evalIntegerBinary("+", x, y);
+        return toNumber(a) + toNumber(b);
+    }
+
+    /**
+     * Se a função não tem efeitos colaterais e pode ser chamada em paralelo
+     * pelos built-ins de coleções.
+     */
+    private boolean isPure(MiniFunction fn) {
+        synchronized (purity) {
+            return purity.isPure(new PurityAnalyzer.Callee(fn.params, fn.body));
+        }
+    }
+
+    /**
+     * {@code sort(lista[, chave])}: ordena a lista no lugar (pela chave
+     * calculada por {@code chave}, se houver) e a devolve.
+     */
+    private Object sortList(String name, List<Object> args, boolean parallel) {
+        if (args.size() != 1 && args.size() != 2) {
+            throw new RuntimeException("Função " + name + " espera 1 ou 2 argumentos, recebeu " + args.size());
+        }
+        List<Object> list = asList(name, args.get(0));
+        if (args.size() == 1) {
+            Sorting.sort(list, parallel);
+            return list;
+        }
+        MiniFunction fn = asFunction(name, args.get(1));
+        List<Object> keys = Pipeline.of(list).map(x -> fn.call(Collections.singletonList(x)), isPure(fn)).toList();
+        Sorting.sortByKey(list, keys, parallel);
+        return list;
+    }
+
+    private List<Object> asList(String name, Object v) {
+        if (v instanceof List<?> l)
+            return castList(l);
+        throw new RuntimeException("Função " + name + " espera uma lista");
+    }
+
+    /**
+     * Métodos de conjuntos: {@code add}, {@code contains} e {@code remove}
+     * (que devolvem se o conjunto mudou ou contém o elemento).
+     */
+    private Object callSetMethod(MiniSet set, String method, List<Object> args) {
+        if (args.size() != 1) {
+            throw new RuntimeException("Método " + method + " de set espera 1 argumento, recebeu " + args.size());
+        }
+        return switch (method) {
+            case "add" -> set.add(args.get(0));
+            case "contains" -> set.contains(args.get(0));
+            case "remove" -> set.remove(args.get(0));
+            default -> throw new RuntimeException("Método desconhecido em set: " + method);
+        };
+    }
+
+    private Map<?, ?> asDict(String name, Object v) {
+        if (v instanceof Map<?, ?> m)
+            return m;
+        throw new RuntimeException("Função " + name + " espera um dicionário");
+    }
+
     private void checkArity(String name, List<Object> args, int arity) {
         if (args.size() != arity) {
             throw new RuntimeException("Função " + name + " espera " + arity + " argumentos, recebeu " + args.size());
@@ -894,6 +1433,18 @@ public class Interpreter {
     private static class ContinueSignal extends RuntimeException {
     }
 
+    /**
+     * Erro de execução com a posição da instrução em que ocorreu, no mesmo
+     * formato das mensagens de erro sintático.
+     */
+    private static class RuntimeError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        RuntimeError(ASTNode node, RuntimeException cause) {
+            super("Linha " + node.line() + ", Coluna " + node.column() + ": " + cause.getMessage(), cause);
+        }
+    }
+
     private class MiniFunction {
         final String name;
         final List<Parameter> params; // name:type
@@ -916,6 +1467,8 @@ public class Interpreter {
             }
             Environment prev = getEnv();
             setEnv(local);
+            if (profiler != null)
+                profiler.push(name);
             try {
                 for (ASTNode s : body)
                     exec(s);
@@ -923,11 +1476,76 @@ public class Interpreter {
                 return rs.value;
             } finally {
                 setEnv(prev);
+                if (profiler != null)
+                    profiler.pop();
             }
             return null; // void
         }
     }
 
+    /**
+     * Veredito de pureza exigido por {@code memo}.
+     *
+     * @throws RuntimeException se a função não é pura.
+     */
+    private PurityAnalyzer.Verdict memoVerdict(MiniFunction fn) {
+        PurityAnalyzer.Verdict verdict;
+        synchronized (memoPurity) {
+            verdict = memoPurity.analyze(new PurityAnalyzer.Callee(fn.params, fn.body));
+        }
+        if (!verdict.pure()) {
+            throw new RuntimeException("memo: a função " + fn.name
+                    + " não é pura (usa canais, entrada/saída, variáveis globais ou altera valores)");
+        }
+        return verdict;
+    }
+
+    /**
+     * Função envolvida por {@code memo}: devolve o resultado guardado quando
+     * já foi chamada com os mesmos argumentos. Para que as chamadas
+     * recursivas também usem o cache, o programa atribui o resultado de
+     * {@code memo} ao próprio nome da função ({@code fib = memo(fib);}).
+     * <p>
+     * Se uma função global de que ela depende for redefinida, a pureza é
+     * verificada de novo e os resultados guardados são descartados. As
+     * dependências só são resolvidas de novo quando alguma variável global
+     * mudou desde a última verificação ({@link Environment#version()}), de
+     * modo que as chamadas não disputam o bloqueio das globais.
+     */
+    private class MemoFunction extends MiniFunction {
+        final MiniFunction target;
+        final MemoCache cache;
+        private volatile PurityAnalyzer.Verdict verdict;
+        /** Versão das globais em que {@link #verdict} foi confirmado. */
+        private volatile int checkedVersion;
+
+        MemoFunction(MiniFunction target, MemoCache cache, PurityAnalyzer.Verdict verdict, int version) {
+            super(target.name, target.params, target.body, target.closure);
+            this.target = target;
+            this.cache = cache;
+            this.verdict = verdict;
+            this.checkedVersion = version;
+        }
+
+        @Override
+        Object call(List<Object> args) {
+            int version = globals.version();
+            if (version != checkedVersion)
+                revalidate(version);
+            return cache.get(args, target::call);
+        }
+
+        private synchronized void revalidate(int version) {
+            if (version == checkedVersion)
+                return;
+            if (!memoPurity.isCurrent(verdict)) {
+                verdict = memoVerdict(target);
+                cache.clear();
+            }
+            checkedVersion = version;
+        }
+    }
+
     private class MiniClass {
         final String name;
         final MiniClass superKlass; // referência direta à superclasse (pode ser null)
@@ -991,7 +1609,7 @@ public class Interpreter {
                 return new BoundMethod(this, m);
             }
             if (name.equals("length"))
-                return fields.size();
+                return (long) fields.size();
             throw new RuntimeException("Propriedade/método não encontrado: " + name);
         }
 
@@ -1012,6 +1630,8 @@ public class Interpreter {
             }
             Environment prev = getEnv();
             setEnv(local);
+            if (profiler != null)
+                profiler.push(klass.name + "." + methodName);
             try {
                 for (ASTNode s : m.body)
                     exec(s);
@@ -1019,6 +1639,8 @@ public class Interpreter {
                 return rs.value;
             } finally {
                 setEnv(prev);
+                if (profiler != null)
+                    profiler.pop();
             }
             return null;
         }
@@ -1037,6 +1659,8 @@ public class Interpreter {
             }
             Environment prev = getEnv();
             setEnv(local);
+            if (profiler != null)
+                profiler.push(targetKlass.name + "." + methodName);
             try {
                 for (ASTNode s : m.body)
                     exec(s);
@@ -1044,6 +1668,8 @@ public class Interpreter {
                 return rs.value;
             } finally {
                 setEnv(prev);
+                if (profiler != null)
+                    profiler.pop();
             }
             return null;
         }
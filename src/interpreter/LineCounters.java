@@ -0,0 +1,63 @@
+package interpreter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contadores de execução por linha do código-fonte, usados no mapa de calor
+ * do editor web.
+ * <p>
+ * Cada instrução executada pelo {@link Interpreter} incrementa o contador da
+ * linha em que começa. Os contadores são atômicos porque os ramos de um
+ * {@code par} executam em paralelo; linhas além do tamanho informado na
+ * criação são ignoradas.
+ */
+public final class LineCounters {
+    private final AtomicLongArray counts;
+
+    /**
+     * @param lines Número de linhas do código-fonte.
+     */
+    public LineCounters(int lines) {
+        this.counts = new AtomicLongArray(lines + 1);
+    }
+
+    /**
+     * Cria contadores para todas as linhas do código-fonte informado.
+     */
+    public static LineCounters forSource(String code) {
+        return new LineCounters((int) code.lines().count());
+    }
+
+    void increment(int line) {
+        if (line > 0 && line < counts.length()) {
+            counts.incrementAndGet(line);
+        }
+    }
+
+    /**
+     * @return Número de linhas acompanhadas.
+     */
+    public int lines() {
+        return counts.length() - 1;
+    }
+
+    /**
+     * @param line Linha, a partir de 1.
+     * @return Quantas instruções começando nessa linha foram executadas.
+     */
+    public long count(int line) {
+        return line > 0 && line < counts.length() ? counts.get(line) : 0;
+    }
+
+    /**
+     * @return Cópia dos contadores; o índice {@code i} corresponde à linha
+     *         {@code i + 1}.
+     */
+    public long[] snapshot() {
+        long[] copy = new long[lines()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i + 1);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,187 @@
+package interpreter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache limitado dos resultados de uma função memoizada com o built-in
+ * {@code memo}, compartilhado pelas threads de um {@code par}.
+ * <p>
+ * As entradas são distribuídas pelo hash dos argumentos entre segmentos
+ * independentes, cada um com seu próprio monitor, para que threads
+ * diferentes raramente disputem o mesmo bloqueio. Cada segmento guarda até
+ * {@code maxEntries / segmentos} entradas e, ao passar do limite, remove a
+ * menos recentemente usada ({@link Policy#LRU}) ou a mais antiga
+ * ({@link Policy#FIFO}).
+ * <p>
+ * O valor é calculado fora do bloqueio (a função pode chamar a si mesma);
+ * duas threads que calculam a mesma chave ao mesmo tempo obtêm o mesmo
+ * resultado, pois só funções puras são memoizadas.
+ * <p>
+ * Listas, dicionários e conjuntos devolvidos pela função são copiados ao
+ * serem guardados e a cada acerto, de modo que alterar um resultado recebido
+ * não muda o que as chamadas seguintes recebem.
+ */
+final class MemoCache {
+    /**
+     * Número máximo padrão de entradas (ajustável com
+     * {@code -Dminipar.memo.size=<entradas>}).
+     */
+    static final int DEFAULT_SIZE = Integer.getInteger("minipar.memo.size", 10_000);
+
+    private static final int MAX_SEGMENTS = 16;
+
+    /** Marca de resultado nulo (função sem retorno) guardado no cache. */
+    private static final Object NULL = new Object();
+
+    /** Política de remoção quando o cache está cheio. */
+    enum Policy {
+        /** Remove a entrada usada há mais tempo. */
+        LRU,
+        /** Remove a entrada inserida há mais tempo. */
+        FIFO;
+
+        /**
+         * @return A política com o nome dado ({@code "lru"} ou {@code "fifo"}).
+         */
+        static Policy of(String name) {
+            for (Policy p : values()) {
+                if (p.name().equalsIgnoreCase(name)) {
+                    return p;
+                }
+            }
+            throw new RuntimeException("memo: política de remoção desconhecida: " + name + " (use \"lru\" ou \"fifo\")");
+        }
+    }
+
+    private final Segment[] segments;
+    /** Incrementado por {@link #clear()}; valores calculados antes não são guardados. */
+    private volatile int generation;
+
+    /**
+     * @param maxEntries Número máximo de entradas (positivo).
+     */
+    MemoCache(int maxEntries, Policy policy) {
+        if (maxEntries <= 0) {
+            throw new RuntimeException("memo: tamanho do cache deve ser positivo, recebeu " + maxEntries);
+        }
+        int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(maxEntries));
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Distribui o resto, para que a soma dos limites seja maxEntries
+            int limit = maxEntries / count + (i < maxEntries % count ? 1 : 0);
+            segments[i] = new Segment(limit, policy == Policy.LRU);
+        }
+    }
+
+    /**
+     * @return O resultado guardado para os argumentos, ou o calculado por
+     *         {@code compute} (e então guardado).
+     */
+    Object get(List<Object> args, Function<List<Object>, Object> compute) {
+        List<Object> key = key(args);
+        int h = key.hashCode();
+        Segment segment = segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+        Object cached;
+        synchronized (segment) {
+            cached = segment.get(key);
+        }
+        if (cached != null) {
+            return cached == NULL ? null : copyValue(cached);
+        }
+        int started = generation;
+        Object value = compute.apply(args);
+        Object stored = value == null ? NULL : copyValue(value);
+        synchronized (segment) {
+            if (generation == started) {
+                segment.put(key, stored);
+            }
+        }
+        return value;
+    }
+
+    /** Descarta todas as entradas. */
+    void clear() {
+        generation++;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Chave imutável com os argumentos na forma canônica de {@link MiniDict}
+     * ({@code 1} e {@code 1.0} são o mesmo argumento); listas, dicionários e
+     * conjuntos são copiados, para que alterá-los depois não mude a chave.
+     */
+    private static List<Object> key(List<?> args) {
+        List<Object> key = new ArrayList<>(args.size());
+        for (Object a : args) {
+            key.add(copy(a));
+        }
+        return key;
+    }
+
+    private static Object copy(Object a) {
+        if (a instanceof List<?> l) {
+            return key(l);
+        }
+        if (a instanceof Map<?, ?> m) {
+            MiniDict d = new MiniDict();
+            m.forEach((k, v) -> d.put(k, copy(v)));
+            return d;
+        }
+        if (a instanceof MiniSet set) {
+            MiniSet s = new MiniSet();
+            for (Object item : set) {
+                s.add(copy(item));
+            }
+            return s;
+        }
+        return MiniDict.canonical(a);
+    }
+
+    /**
+     * Cópia profunda de listas, dicionários e conjuntos; os demais valores do
+     * MiniPar são imutáveis e são devolvidos como estão.
+     */
+    private static Object copyValue(Object v) {
+        if (v instanceof List<?> l) {
+            List<Object> copy = new ArrayList<>(l.size());
+            for (Object item : l) {
+                copy.add(copyValue(item));
+            }
+            return copy;
+        }
+        if (v instanceof MiniDict d) {
+            MiniDict copy = new MiniDict();
+            d.forEach((k, value) -> copy.put(k, copyValue(value)));
+            return copy;
+        }
+        if (v instanceof MiniSet set) {
+            MiniSet copy = new MiniSet();
+            copy.addAll(set);
+            return copy;
+        }
+        return v;
+    }
+
+    @SuppressWarnings("serial") // nunca é serializado
+    private static final class Segment extends LinkedHashMap<List<Object>, Object> {
+        private final int limit;
+
+        Segment(int limit, boolean accessOrder) {
+            super(16, 0.75f, accessOrder);
+            this.limit = limit;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Object> eldest) {
+            return size() > limit;
+        }
+    }
+}
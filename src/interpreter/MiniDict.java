@@ -0,0 +1,421 @@
+package interpreter;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Dicionário do MiniPar ({@code dict}).
+ * <p>
+ * As chaves numéricas são canônicas: {@code 1}, {@code 1.0} e {@code 0 + 1}
+ * são a mesma chave, guardada como {@link Long}; números fracionários ficam
+ * como {@link Double}. Strings concatenadas ({@link ConcatString}) são
+ * guardadas como {@link String}. Na consulta, a chave não é convertida: o hash
+ * e a comparação tratam números e textos diretamente, sem alocar.
+ * <p>
+ * As entradas ficam em arrays, na ordem de inserção, que também é a ordem de
+ * iteração e de impressão. Um índice separado, com endereçamento aberto e
+ * sondagem linear, guarda a posição de cada entrada; entradas removidas ficam
+ * marcadas até a próxima reconstrução do índice.
+ * <p>
+ * Não é sincronizado, como as listas do MiniPar.
+ */
+final class MiniDict extends AbstractMap<Object, Object> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** Marca de entrada removida em {@link #keys}. */
+    private static final Object REMOVED = new Object();
+    private static final int MIN_CAPACITY = 8;
+
+    /** Chaves, valores e hashes das entradas, na ordem de inserção. */
+    private transient Object[] keys;
+    private transient Object[] values;
+    private transient int[] hashes;
+    /** Entradas usadas nos arrays, incluindo as removidas. */
+    private transient int used;
+    private transient int size;
+    /** Índice: posição da entrada + 1, ou 0 se livre. Tamanho potência de 2. */
+    private transient int[] table;
+    private transient int modCount;
+
+    MiniDict() {
+        init(MIN_CAPACITY);
+    }
+
+    private void init(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        table = new int[capacity * 2];
+        used = 0;
+        size = 0;
+    }
+
+    // ===== Chaves canônicas =====
+
+    /**
+     * Forma guardada da chave: inteiros como {@link Long} (inclusive doubles
+     * sem parte fracionária) e textos como {@link String}.
+     */
+    static Object canonical(Object key) {
+        if (key instanceof Double d) {
+            double x = d;
+            if (isLong(x)) {
+                return (long) x;
+            }
+            return d;
+        }
+        if (key instanceof Integer i) {
+            return i.longValue();
+        }
+        if (key instanceof ConcatString s) {
+            return s.toString();
+        }
+        return key;
+    }
+
+    private static boolean isLong(double x) {
+        return x == Math.rint(x) && x >= -0x1p63 && x < 0x1p63;
+    }
+
+    private static int hash(Object key) {
+        if (key instanceof String s) {
+            return spread(s.hashCode());
+        }
+        if (key instanceof Long n) {
+            return hashLong(n);
+        }
+        if (key instanceof Double d) {
+            double x = d;
+            return isLong(x) ? hashLong((long) x) : hashLong(Double.doubleToLongBits(x));
+        }
+        if (key instanceof Integer i) {
+            return hashLong(i);
+        }
+        if (key instanceof ConcatString s) {
+            return spread(s.toString().hashCode());
+        }
+        return spread(Objects.hashCode(key));
+    }
+
+    private static int hashLong(long x) {
+        long h = x * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Compara uma chave guardada (canônica) com a chave consultada.
+     */
+    private static boolean matches(Object stored, Object key) {
+        if (stored == key) {
+            return true;
+        }
+        if (stored instanceof String s) {
+            return key instanceof CharSequence && s.contentEquals((CharSequence) key);
+        }
+        if (stored instanceof Long n) {
+            long x = n;
+            if (key instanceof Long m) {
+                return x == m;
+            }
+            if (key instanceof Double d) {
+                return isLong(d) && (long) (double) d == x;
+            }
+            return key instanceof Integer i && x == i;
+        }
+        return stored.equals(key);
+    }
+
+    // ===== Índice =====
+
+    /**
+     * @return Posição da entrada com a chave, ou -1.
+     */
+    private int find(Object key, int h) {
+        int mask = table.length - 1;
+        for (int slot = h & mask;; slot = (slot + 1) & mask) {
+            int e = table[slot] - 1;
+            if (e < 0) {
+                return -1;
+            }
+            if (hashes[e] == h) {
+                Object k = keys[e];
+                if (k != REMOVED && matches(k, key)) {
+                    return e;
+                }
+            }
+        }
+    }
+
+    private void insertSlot(int e, int h) {
+        int mask = table.length - 1;
+        int slot = h & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = e + 1;
+    }
+
+    /**
+     * Reconstrói arrays e índice, descartando as entradas removidas.
+     */
+    private void rebuild(int capacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        int oldUsed = used;
+        init(capacity);
+        for (int i = 0; i < oldUsed; i++) {
+            if (oldKeys[i] != REMOVED) {
+                append(oldKeys[i], oldValues[i], oldHashes[i]);
+            }
+        }
+    }
+
+    private void append(Object key, Object value, int h) {
+        int e = used++;
+        keys[e] = key;
+        values[e] = value;
+        hashes[e] = h;
+        insertSlot(e, h);
+        size++;
+    }
+
+    // ===== Map =====
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key, hash(key)) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int e = find(key, hash(key));
+        return e >= 0 ? values[e] : null;
+    }
+
+    @Override
+    public Object put(Object key, Object value) {
+        int h = hash(key);
+        int e = find(key, h);
+        if (e >= 0) {
+            Object old = values[e];
+            values[e] = value;
+            return old;
+        }
+        if (used == keys.length) {
+            // Muitas remoções: basta compactar; senão, dobra
+            rebuild(size < used / 2 ? keys.length : keys.length * 2);
+        }
+        append(canonical(key), value, h);
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int e = find(key, hash(key));
+        if (e < 0) {
+            return null;
+        }
+        Object old = values[e];
+        removeAt(e);
+        return old;
+    }
+
+    private void removeAt(int e) {
+        // A posição no índice continua ocupada, para não quebrar as sondagens
+        keys[e] = REMOVED;
+        values[e] = null;
+        size--;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        init(MIN_CAPACITY);
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<Object, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<Object, Object>> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Map.Entry<Object, Object> at(int index) {
+                        return new Entry(index);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /** Visão das chaves, percorrida direto nos arrays (sem criar entradas). */
+    @Override
+    public Set<Object> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Object at(int index) {
+                        return keys[index];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+        };
+    }
+
+    /** Visão dos valores, percorrida direto nos arrays (sem criar entradas). */
+    @Override
+    public Collection<Object> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Object at(int index) {
+                        return values[index];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /** Percorre as entradas vivas na ordem de inserção. */
+    private abstract class SlotIterator<T> implements Iterator<T> {
+        private final Object[] iterKeys = keys;
+        private int next = advance(0);
+        private int last = -1;
+        private int expected = modCount;
+
+        abstract T at(int index);
+
+        private int advance(int i) {
+            while (i < used && keys[i] == REMOVED) {
+                i++;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < used;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expected || iterKeys != keys) {
+                throw new ConcurrentModificationException("Dicionário modificado durante a iteração");
+            }
+            if (next >= used) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = advance(next + 1);
+            return at(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expected) {
+                throw new ConcurrentModificationException("Dicionário modificado durante a iteração");
+            }
+            removeAt(last);
+            expected = modCount;
+            last = -1;
+        }
+    }
+
+    /** Entrada ligada a uma posição dos arrays; {@code setValue} escreve no dicionário. */
+    @SuppressWarnings("serial") // só existe durante a iteração, nunca é serializada
+    private final class Entry extends AbstractMap.SimpleEntry<Object, Object> {
+        private final int index;
+
+        Entry(int index) {
+            super(keys[index], values[index]);
+            this.index = index;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            values[index] = value;
+            return super.setValue(value);
+        }
+    }
+
+    // ===== Serialização (canais TCP) =====
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < used; i++) {
+            if (keys[i] != REMOVED) {
+                out.writeObject(keys[i]);
+                out.writeObject(values[i]);
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int n = in.readInt();
+        if (n < 0) {
+            throw new IOException("Tamanho de dicionário inválido: " + n);
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity < n) {
+            capacity *= 2;
+        }
+        init(capacity);
+        for (int i = 0; i < n; i++) {
+            Object key = in.readObject();
+            put(key, in.readObject());
+        }
+    }
+}
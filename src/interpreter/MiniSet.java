@@ -0,0 +1,46 @@
+package interpreter;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Iterator;
+
+/**
+ * Conjunto do MiniPar (built-in {@code set}), com os mesmos critérios de
+ * igualdade das chaves de {@link MiniDict}: {@code 1} e {@code 1.0} são o
+ * mesmo elemento. A iteração e a impressão seguem a ordem de inserção.
+ */
+final class MiniSet extends AbstractSet<Object> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final MiniDict items = new MiniDict();
+
+    @Override
+    public boolean add(Object item) {
+        return items.put(item, Boolean.TRUE) == null;
+    }
+
+    @Override
+    public boolean contains(Object item) {
+        return items.containsKey(item);
+    }
+
+    @Override
+    public boolean remove(Object item) {
+        return items.remove(item) != null;
+    }
+
+    @Override
+    public void clear() {
+        items.clear();
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return items.keySet().iterator();
+    }
+}
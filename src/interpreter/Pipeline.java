@@ -0,0 +1,172 @@
+package interpreter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sequência preguiçosa resultante de {@code map} e {@code filter}.
+ * <p>
+ * Cada {@code map}/{@code filter} sobre um pipeline acrescenta uma etapa ao
+ * mesmo pipeline, sobre a fonte original; nada é calculado até o resultado
+ * ser consumido (por um {@code for-in}, {@code sum}, {@code reduce},
+ * {@code to_list}, impressão...). O consumo percorre a fonte uma única vez,
+ * aplicando todas as etapas a cada elemento, sem listas intermediárias.
+ * <p>
+ * Se todas as funções das etapas são puras (ver {@link PurityAnalyzer}) e a
+ * fonte tem pelo menos {@link #PARALLEL_THRESHOLD} elementos (e há mais de um
+ * processador), as etapas são executadas em paralelo sobre o
+ * {@link Spliterator} da fonte. O resultado é sempre entregue na ordem da
+ * fonte, de modo que a saída não muda.
+ * <p>
+ * A preguiça só vale para funções puras: com uma função com efeitos
+ * colaterais (que imprime, por exemplo), os built-ins {@code map} e
+ * {@code filter} calculam o resultado na hora, uma única vez (ver
+ * {@link #settle()}), como se fossem laços comuns.
+ */
+final class Pipeline implements Iterable<Object> {
+    /**
+     * Tamanho mínimo da fonte para executar em paralelo (ajustável com
+     * {@code -Dminipar.parallel.threshold=<elementos>}).
+     */
+    static final long PARALLEL_THRESHOLD = Long.getLong("minipar.parallel.threshold", 10_000);
+
+    /** Com um único processador, o paralelismo só acrescentaria custo. */
+    private static final boolean MULTICORE = Runtime.getRuntime().availableProcessors() > 1;
+
+    /** Etapa: {@code map} (transforma) ou {@code filter} (mantém se verdadeiro). */
+    private record Stage(Function<Object, Object> map, Predicate<Object> filter) {
+    }
+
+    private final Iterable<?> source;
+    private final List<Stage> stages;
+    private final boolean pure;
+
+    private Pipeline(Iterable<?> source, List<Stage> stages, boolean pure) {
+        this.source = source;
+        this.stages = stages;
+        this.pure = pure;
+    }
+
+    /**
+     * Pipeline sem etapas sobre uma sequência; se ela já é um pipeline, é
+     * devolvida como está.
+     */
+    static Pipeline of(Iterable<?> source) {
+        if (source instanceof Pipeline p) {
+            return p;
+        }
+        return new Pipeline(source, List.of(), true);
+    }
+
+    /**
+     * @param pure Se a função não tem efeitos colaterais.
+     */
+    Pipeline map(Function<Object, Object> fn, boolean pure) {
+        return then(new Stage(fn, null), pure);
+    }
+
+    /**
+     * @param pure Se o predicado não tem efeitos colaterais.
+     */
+    Pipeline filter(Predicate<Object> predicate, boolean pure) {
+        return then(new Stage(null, predicate), pure);
+    }
+
+    private Pipeline then(Stage stage, boolean stagePure) {
+        List<Stage> next = new ArrayList<>(stages.size() + 1);
+        next.addAll(stages);
+        next.add(stage);
+        return new Pipeline(source, List.copyOf(next), this.pure && stagePure);
+    }
+
+    /**
+     * Resultado de {@code map}/{@code filter} para o programa: se alguma
+     * etapa tem efeitos colaterais, os elementos são calculados agora e o
+     * pipeline devolvido percorre a lista obtida. Assim os efeitos acontecem
+     * uma única vez, no ponto da chamada, mesmo que o resultado nunca seja
+     * consumido ou seja consumido várias vezes.
+     */
+    Pipeline settle() {
+        return pure ? this : of(toList());
+    }
+
+    /**
+     * @return Se o consumo deste pipeline roda em paralelo.
+     */
+    boolean parallel() {
+        return MULTICORE && pure && !stages.isEmpty() && sourceSize() >= PARALLEL_THRESHOLD;
+    }
+
+    private long sourceSize() {
+        if (source instanceof Collection<?> c) {
+            return c.size();
+        }
+        if (source instanceof Sequences.Range r) {
+            return r.size();
+        }
+        return -1;
+    }
+
+    /**
+     * Fluxo com as etapas aplicadas, em paralelo se {@link #parallel()}.
+     */
+    Stream<Object> stream() {
+        return stream(parallel());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Stream<Object> stream(boolean parallel) {
+        Stream<Object> s = StreamSupport.stream((Spliterator<Object>) source.spliterator(), parallel);
+        for (Stage stage : stages) {
+            s = stage.map() != null ? s.map(stage.map()) : s.filter(stage.filter());
+        }
+        return s;
+    }
+
+    /**
+     * Entrega os elementos a {@code action}, na ordem da fonte; as etapas
+     * podem rodar em paralelo, mas {@code action} é chamada por uma thread de
+     * cada vez.
+     */
+    void forEachOrdered(Consumer<Object> action) {
+        if (parallel()) {
+            stream(true).forEachOrdered(action);
+        } else {
+            forEach(action);
+        }
+    }
+
+    /**
+     * @return Os elementos em uma nova lista.
+     */
+    List<Object> toList() {
+        if (parallel()) {
+            return stream(true).collect(ArrayList::new, List::add, List::addAll);
+        }
+        List<Object> out = new ArrayList<>();
+        forEach(out::add);
+        return out;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return stream(false).iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Object> action) {
+        if (stages.isEmpty()) {
+            source.forEach(action);
+            return;
+        }
+        stream(false).forEachOrdered(action);
+    }
+}
@@ -0,0 +1,68 @@
+package interpreter;
+
+import java.io.PrintStream;
+
+/**
+ * Saída de {@code print}/{@code println} de um programa MiniPar, acumulada em
+ * buffer e repassada à {@link PrintStream} de destino só nos pontos de
+ * descarga:
+ * <ul>
+ * <li>a cada quebra de linha, se a saída é interativa;</li>
+ * <li>antes de cada leitura de entrada ({@code input}, {@code readln},
+ * {@code readNumber} e configuração de canais TCP), para que os prompts
+ * apareçam;</li>
+ * <li>quando o buffer passa de {@link #THRESHOLD} caracteres;</li>
+ * <li>ao final da execução e no built-in {@code flush()}.</li>
+ * </ul>
+ * Cada {@code print} chega inteiro ao buffer, de modo que linhas impressas
+ * por ramos diferentes de um {@code par} não se misturam.
+ */
+final class ProgramOutput {
+    /** Tamanho do buffer, em caracteres, a partir do qual ele é descarregado. */
+    static final int THRESHOLD = 8192;
+
+    private final PrintStream target;
+    private final boolean interactive;
+    private final StringBuilder buffer = new StringBuilder(THRESHOLD);
+
+    /**
+     * @param target      Destino da saída.
+     * @param interactive Se verdadeiro, descarrega a cada quebra de linha.
+     */
+    ProgramOutput(PrintStream target, boolean interactive) {
+        this.target = target;
+        this.interactive = interactive;
+    }
+
+    /**
+     * Acrescenta o texto, seguido de uma quebra de linha se {@code newline}.
+     */
+    synchronized void write(CharSequence text, boolean newline) {
+        buffer.append(text);
+        if (newline) {
+            buffer.append(System.lineSeparator());
+            if (interactive) {
+                flush();
+                return;
+            }
+        }
+        if (buffer.length() >= THRESHOLD) {
+            drain();
+        }
+    }
+
+    /**
+     * Repassa o conteúdo do buffer ao destino e descarrega o destino.
+     */
+    synchronized void flush() {
+        drain();
+        target.flush();
+    }
+
+    private void drain() {
+        if (buffer.length() > 0) {
+            target.append(buffer);
+            buffer.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package interpreter;
+
+import parser.Program;
+import parser.ast.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Análise estática conservadora que decide se uma função MiniPar é livre de
+ * efeitos colaterais, para que os built-ins de coleções ({@code map},
+ * {@code filter}...) possam chamá-la em paralelo.
+ * <p>
+ * Uma função é pura se o seu corpo só lê variáveis, atribui às próprias
+ * variáveis locais e chama built-ins sem efeitos ou outras funções globais
+ * puras. Uma variável só conta como local numa atribuição se foi declarada
+ * (ou é parâmetro) em todos os caminhos até ela: declarações dentro de um
+ * {@code if} só valem depois dele se os dois ramos as fazem, e as de corpos
+ * de laços (inclusive a variável do {@code for-in}) só valem dentro do
+ * corpo. Chamar um nome que a função declara em algum ponto (parâmetro ou
+ * variável) é chamar uma função desconhecida, portanto impuro. Impressão, entrada, canais, {@code par},
+ * escrita em listas, dicionários ou atributos, chamadas de método e criação
+ * de objetos tornam a função impura. Na dúvida, a resposta é "impura".
+ * <p>
+ * Chamadas recursivas (diretas ou mútuas) são consideradas puras enquanto a
+ * análise da função ainda está em andamento.
+ * <p>
+ * O veredito depende das funções globais que os nomes chamados resolviam no
+ * momento da análise; ele é guardado com essas dependências e refeito se
+ * algum desses nomes passar a resolver outra função (por exemplo, após
+ * {@code f = memo(f);} ou reatribuir uma variável de função).
+ * <p>
+ * Para {@code memo}, a análise pode também rejeitar a leitura de variáveis
+ * globais (e de {@code this}), cujo valor pode mudar entre duas chamadas com
+ * os mesmos argumentos; só os nomes de funções continuam permitidos.
+ */
+final class PurityAnalyzer implements ASTVisitor<Boolean> {
+    /** Built-ins sem efeitos colaterais nem callbacks. */
+    private static final Set<String> PURE_BUILTINS = Set.of(
+            "sqrt", "abs", "exp", "pow", "max", "range", "enumerate", "keys", "values", "zip", "sum",
+            "binary_search", "index_of", "set");
+
+    /** Corpo de uma função: parâmetros e instruções. */
+    record Callee(List<Parameter> params, List<ASTNode> body) {
+    }
+
+    /**
+     * Resultado da análise de uma função.
+     *
+     * @param pure         Se a função é livre de efeitos colaterais.
+     * @param dependencies Corpo resolvido, no momento da análise, para cada
+     *                     nome global consultado (null se o nome não era de
+     *                     uma função).
+     */
+    record Verdict(boolean pure, Map<String, List<ASTNode>> dependencies) {
+    }
+
+    private static final Verdict ASSUMED_PURE = new Verdict(true, Map.of());
+
+    private final Function<String, Callee> resolver;
+    private final boolean globalReads;
+    private final Map<List<ASTNode>, Verdict> results = new IdentityHashMap<>();
+    private final Set<List<ASTNode>> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+    /** Variáveis declaradas em todos os caminhos até o ponto analisado. */
+    private Set<String> locals;
+    /** Todos os nomes declarados em algum ponto da função em análise. */
+    private Set<String> declared;
+    /** Nomes chamados como funções globais na função em análise. */
+    private Set<String> calledGlobals;
+    private Map<String, List<ASTNode>> dependencies;
+
+    /**
+     * @param resolver Função que devolve o corpo da função MiniPar com o
+     *                 nome dado, ou null se o nome não é de uma função.
+     * @param globalReads Se a função pode ler variáveis de fora dela.
+     */
+    PurityAnalyzer(Function<String, Callee> resolver, boolean globalReads) {
+        this.resolver = resolver;
+        this.globalReads = globalReads;
+    }
+
+    /**
+     * @return Se a função é livre de efeitos colaterais.
+     */
+    boolean isPure(Callee callee) {
+        return analyze(callee).pure();
+    }
+
+    /**
+     * @return O veredito sobre a função, com as dependências em que se baseia.
+     */
+    Verdict analyze(Callee callee) {
+        List<ASTNode> body = callee.body();
+        Verdict known = results.get(body);
+        if (known != null && isCurrent(known)) {
+            if (dependencies != null) {
+                dependencies.putAll(known.dependencies());
+            }
+            return known;
+        }
+        if (!inProgress.add(body)) {
+            return ASSUMED_PURE;
+        }
+        Set<String> outerLocals = locals;
+        Set<String> outerDeclared = declared;
+        Set<String> outerCalled = calledGlobals;
+        Map<String, List<ASTNode>> outerDependencies = dependencies;
+        locals = new HashSet<>();
+        declared = new HashSet<>();
+        calledGlobals = new HashSet<>();
+        dependencies = new HashMap<>();
+        for (Parameter p : callee.params()) {
+            declare(p.name);
+        }
+        try {
+            // Um nome chamado antes de ser declarado (por exemplo, numa
+            // iteração anterior de um laço) também pode ser local
+            boolean pure = all(body) && Collections.disjoint(calledGlobals, declared);
+            Verdict verdict = new Verdict(pure, Collections.unmodifiableMap(dependencies));
+            // Um "pura" obtido supondo pura outra função ainda em análise
+            // (recursão mútua) só vale para aquela análise
+            if (!verdict.pure() || inProgress.size() == 1) {
+                results.put(body, verdict);
+            }
+            return verdict;
+        } finally {
+            if (outerDependencies != null) {
+                outerDependencies.putAll(dependencies);
+            }
+            locals = outerLocals;
+            declared = outerDeclared;
+            calledGlobals = outerCalled;
+            dependencies = outerDependencies;
+            inProgress.remove(body);
+        }
+    }
+
+    /**
+     * @return Se os nomes de que o veredito depende ainda resolvem as mesmas
+     *         funções. Não altera o estado da análise.
+     */
+    boolean isCurrent(Verdict verdict) {
+        for (Map.Entry<String, List<ASTNode>> e : verdict.dependencies().entrySet()) {
+            Callee callee = resolver.apply(e.getKey());
+            if ((callee == null ? null : callee.body()) != e.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Resolve um nome global, registrando-o como dependência do veredito. */
+    private Callee resolve(String name) {
+        Callee callee = resolver.apply(name);
+        dependencies.put(name, callee == null ? null : callee.body());
+        return callee;
+    }
+
+    private boolean all(List<? extends ASTNode> nodes) {
+        for (ASTNode n : nodes) {
+            if (!pure(n)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean pure(ASTNode node) {
+        return node == null || node.accept(this);
+    }
+
+    private void declare(String name) {
+        locals.add(name);
+        declared.add(name);
+    }
+
+    /**
+     * Analisa instruções cujas declarações não valem depois delas (corpo de
+     * laço, ramo de {@code if}).
+     *
+     * @param variable Variável declarada só dentro do escopo, ou null.
+     * @return As variáveis locais ao fim das instruções, ou null se impuras.
+     */
+    private Set<String> scoped(String variable, List<? extends ASTNode> nodes) {
+        Set<String> outer = locals;
+        locals = new HashSet<>(outer);
+        if (variable != null) {
+            declare(variable);
+        }
+        try {
+            return nodes == null || all(nodes) ? locals : null;
+        } finally {
+            locals = outer;
+        }
+    }
+
+    // ===== Variáveis =====
+
+    @Override
+    public Boolean visitVarDecl(VarDecl node) {
+        if (!pure(node.initializer)) {
+            return false;
+        }
+        declare(node.name);
+        return true;
+    }
+
+    @Override
+    public Boolean visitAssignment(Assignment node) {
+        return locals.contains(node.varName) && pure(node.value);
+    }
+
+    @Override
+    public Boolean visitIdentifier(Identifier node) {
+        return globalReads || locals.contains(node.name) || resolve(node.name) != null;
+    }
+
+    @Override
+    public Boolean visitLiteral(Literal node) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitThisExpr(ThisExpr node) {
+        return globalReads;
+    }
+
+    // ===== Expressões =====
+
+    @Override
+    public Boolean visitBinaryExpr(BinaryExpr node) {
+        return pure(node.left) && pure(node.right);
+    }
+
+    @Override
+    public Boolean visitUnaryExpr(UnaryExpr node) {
+        return pure(node.operand);
+    }
+
+    @Override
+    public Boolean visitListLiteral(ListLiteral node) {
+        return all(node.elements);
+    }
+
+    @Override
+    public Boolean visitDictLiteral(DictLiteral node) {
+        for (DictEntry e : node.entries) {
+            if (!pure(e.key) || !pure(e.value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Boolean visitIndexExpr(IndexExpr node) {
+        return pure(node.target) && pure(node.index);
+    }
+
+    @Override
+    public Boolean visitPropertyAccess(PropertyAccess node) {
+        return pure(node.object);
+    }
+
+    @Override
+    public Boolean visitFunctionCall(FunctionCall node) {
+        if (!all(node.arguments)) {
+            return false;
+        }
+        if (PURE_BUILTINS.contains(node.functionName)) {
+            return true;
+        }
+        if (declared.contains(node.functionName)) {
+            // Parâmetro ou variável: a função chamada é desconhecida
+            return false;
+        }
+        calledGlobals.add(node.functionName);
+        Callee callee = resolve(node.functionName);
+        return callee != null && isPure(callee);
+    }
+
+    // ===== Controle de fluxo =====
+
+    @Override
+    public Boolean visitIfStmt(IfStmt node) {
+        if (!pure(node.condition)) {
+            return false;
+        }
+        Set<String> thenLocals = scoped(null, node.thenBranch);
+        Set<String> elseLocals = scoped(null, node.elseBranch);
+        if (thenLocals == null || elseLocals == null) {
+            return false;
+        }
+        if (node.elseBranch != null) {
+            // Declarada nos dois ramos, a variável existe depois do if
+            thenLocals.retainAll(elseLocals);
+            locals = thenLocals;
+        }
+        return true;
+    }
+
+    @Override
+    public Boolean visitWhileStmt(WhileStmt node) {
+        return pure(node.condition) && scoped(null, node.body) != null;
+    }
+
+    @Override
+    public Boolean visitDoWhileStmt(DoWhileStmt node) {
+        // A condição também é avaliada após um continue, antes das
+        // declarações restantes do corpo
+        return scoped(null, node.body) != null && pure(node.condition);
+    }
+
+    @Override
+    public Boolean visitForStmt(ForStmt node) {
+        return pure(node.iterable) && scoped(node.variable.name, node.body) != null;
+    }
+
+    @Override
+    public Boolean visitSeqBlock(SeqBlock node) {
+        return all(node.statements);
+    }
+
+    @Override
+    public Boolean visitReturnStmt(ReturnStmt node) {
+        return pure(node.value);
+    }
+
+    @Override
+    public Boolean visitBreakStmt(BreakStmt node) {
+        return true;
+    }
+
+    @Override
+    public Boolean visitContinueStmt(ContinueStmt node) {
+        return true;
+    }
+
+    // ===== Efeitos colaterais =====
+
+    @Override
+    public Boolean visitIndexAssign(IndexAssign node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitPropertyAssign(PropertyAssign node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitMethodCall(MethodCall node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitNewInstance(NewInstance node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitSuperCall(SuperCall node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitPrintStmt(PrintStmt node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitInputExpr(InputExpr node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitReadlnExpr(ReadlnExpr node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitReadNumberExpr(ReadNumberExpr node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitSendStmt(SendStmt node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitReceiveStmt(ReceiveStmt node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitParBlock(ParBlock node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitCanalDecl(CanalDecl node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitFuncDecl(FuncDecl node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitClassDecl(ClassDecl node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitMethodDecl(MethodDecl node) {
+        return false;
+    }
+
+    @Override
+    public Boolean visitProgram(Program node) {
+        return false;
+    }
+}
@@ -0,0 +1,265 @@
+package interpreter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Profiler por amostragem de programas MiniPar.
+ * <p>
+ * Enquanto o programa executa, o {@link Interpreter} mantém, para cada thread,
+ * a pilha de funções e métodos MiniPar em andamento e a linha em execução em
+ * cada uma. Uma thread separada copia essas pilhas em intervalos regulares e
+ * conta quantas vezes cada pilha foi vista. O resultado sai no formato
+ * "collapsed stacks" ({@code quadro;quadro;quadro contagem} por linha), aceito
+ * por {@code flamegraph.pl}, speedscope e similares.
+ * <p>
+ * A leitura das pilhas não usa travas: cada thread escreve apenas na própria
+ * pilha e publica a profundidade em um campo volátil, de modo que o custo no
+ * interpretador é de algumas escritas em arrays por chamada e por instrução.
+ * Uma amostra pode misturar quadros de instantes muito próximos, o que não
+ * afeta as contagens de forma perceptível.
+ * <p>
+ * As threads de um {@code par} herdam os quadros da thread que o executou;
+ * enquanto espera pelos ramos, essa thread não é amostrada, para que o tempo
+ * apareça só nos ramos.
+ */
+public final class SamplingProfiler {
+    /** Intervalo padrão entre amostras, em microssegundos. */
+    public static final long DEFAULT_INTERVAL_MICROS = 1000;
+
+    /** Quadro raiz, que representa o código de nível superior. */
+    static final String ROOT = "<programa>";
+
+    private final long intervalNanos;
+    private final ThreadLocal<Stack> current = new ThreadLocal<>();
+    private final Set<Stack> stacks = ConcurrentHashMap.newKeySet();
+    /** Contagem por pilha; protegido por {@code this}. */
+    private final Map<String, Long> counts = new HashMap<>();
+    private long samples;
+
+    private volatile boolean running;
+    private Thread sampler;
+
+    public SamplingProfiler() {
+        this(DEFAULT_INTERVAL_MICROS);
+    }
+
+    /**
+     * @param intervalMicros Intervalo entre amostras, em microssegundos.
+     */
+    public SamplingProfiler(long intervalMicros) {
+        if (intervalMicros <= 0) {
+            throw new IllegalArgumentException("Intervalo de amostragem inválido: " + intervalMicros);
+        }
+        this.intervalNanos = intervalMicros * 1000;
+    }
+
+    /**
+     * Inicia a amostragem em uma thread daemon.
+     */
+    public synchronized void start() {
+        if (sampler != null) {
+            throw new IllegalStateException("Profiler já iniciado");
+        }
+        running = true;
+        sampler = new Thread(() -> {
+            while (running) {
+                LockSupport.parkNanos(intervalNanos);
+                sample();
+            }
+        }, "minipar-profiler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    /**
+     * Encerra a amostragem e aguarda a thread de amostragem terminar.
+     */
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            thread = sampler;
+        }
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return Número de amostras coletadas até agora.
+     */
+    public synchronized long samples() {
+        return samples;
+    }
+
+    /**
+     * Retorna as pilhas amostradas no formato "collapsed stacks", em ordem
+     * alfabética: uma linha por pilha, com os quadros (da raiz ao topo)
+     * separados por {@code ;} e a contagem ao final. Cada quadro é o nome da
+     * função ou {@code Classe.metodo}, seguido de {@code :linha} quando a
+     * linha é conhecida.
+     *
+     * @return Texto das pilhas; vazio se nenhuma amostra foi coletada.
+     */
+    public String collapsed() {
+        Map<String, Long> sorted;
+        synchronized (this) {
+            sorted = new TreeMap<>(counts);
+        }
+        StringBuilder sb = new StringBuilder();
+        sorted.forEach((stack, count) -> sb.append(stack).append(' ').append(count).append('\n'));
+        return sb.toString();
+    }
+
+    private void sample() {
+        StringBuilder key = new StringBuilder(128);
+        for (Stack stack : stacks) {
+            if (stack.waiting) {
+                continue;
+            }
+            int depth = stack.depth;
+            String[] names = stack.names;
+            int[] lines = stack.lines;
+            depth = Math.min(depth, Math.min(names.length, lines.length));
+            if (depth == 0) {
+                continue;
+            }
+            key.setLength(0);
+            for (int i = 0; i < depth; i++) {
+                if (i > 0) {
+                    key.append(';');
+                }
+                key.append(names[i]);
+                if (lines[i] > 0) {
+                    key.append(':').append(lines[i]);
+                }
+            }
+            synchronized (this) {
+                counts.merge(key.toString(), 1L, Long::sum);
+                samples++;
+            }
+        }
+    }
+
+    // ===== Ganchos do interpretador (thread atual) =====
+
+    /**
+     * Passa a acompanhar a thread atual, a partir do quadro raiz.
+     */
+    void enter() {
+        attach(new Stack(new String[] { ROOT }, new int[1], 1));
+    }
+
+    /**
+     * Passa a acompanhar a thread atual, com uma cópia dos quadros de outra
+     * thread (a que executou o {@code par}).
+     *
+     * @param parent Pilha de origem, ou null para começar da raiz.
+     */
+    void enter(Stack parent) {
+        if (parent == null) {
+            enter();
+            return;
+        }
+        int depth = parent.depth;
+        attach(new Stack(Arrays.copyOf(parent.names, depth), Arrays.copyOf(parent.lines, depth), depth));
+    }
+
+    private void attach(Stack stack) {
+        current.set(stack);
+        stacks.add(stack);
+    }
+
+    /**
+     * Deixa de acompanhar a thread atual.
+     */
+    void exit() {
+        Stack stack = current.get();
+        if (stack != null) {
+            stacks.remove(stack);
+            current.remove();
+        }
+    }
+
+    /**
+     * @return Pilha da thread atual, ou null se ela não é acompanhada.
+     */
+    Stack current() {
+        return current.get();
+    }
+
+    void push(String name) {
+        Stack stack = current.get();
+        if (stack != null) {
+            stack.push(name);
+        }
+    }
+
+    void pop() {
+        Stack stack = current.get();
+        if (stack != null) {
+            stack.pop();
+        }
+    }
+
+    void line(int line) {
+        Stack stack = current.get();
+        if (stack != null) {
+            stack.lines[stack.depth - 1] = line;
+        }
+    }
+
+    void waiting(boolean waiting) {
+        Stack stack = current.get();
+        if (stack != null) {
+            stack.waiting = waiting;
+        }
+    }
+
+    /**
+     * Pilha de quadros de uma thread. Só a própria thread escreve; a
+     * profundidade volátil publica os quadros para a thread de amostragem.
+     */
+    static final class Stack {
+        String[] names;
+        int[] lines;
+        volatile int depth;
+        volatile boolean waiting;
+
+        Stack(String[] names, int[] lines, int depth) {
+            int capacity = Math.max(16, depth * 2);
+            this.names = Arrays.copyOf(names, capacity);
+            this.lines = Arrays.copyOf(lines, capacity);
+            this.depth = depth;
+        }
+
+        void push(String name) {
+            int d = depth;
+            if (d == names.length) {
+                names = Arrays.copyOf(names, d * 2);
+                lines = Arrays.copyOf(lines, d * 2);
+            }
+            names[d] = name;
+            lines[d] = 0;
+            depth = d + 1;
+        }
+
+        void pop() {
+            if (depth > 1) {
+                depth--;
+            }
+        }
+    }
+}
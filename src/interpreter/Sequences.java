@@ -0,0 +1,229 @@
+package interpreter;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Sequências preguiçosas dos built-ins {@code range}, {@code enumerate} e
+ * {@code zip}:
+ * produzem um elemento por vez durante a iteração (por exemplo, em um
+ * {@code for-in}), sem montar a lista inteira.
+ */
+final class Sequences {
+    private Sequences() {
+    }
+
+    /**
+     * Inteiros (ou números fracionários, se algum limite ou o passo for
+     * fracionário) de {@code start} até {@code end}, exclusive, de
+     * {@code step} em {@code step}.
+     */
+    static final class Range implements Iterable<Object> {
+        /** Argumentos como recebidos, para impressão. */
+        final Object first;
+        final Object last;
+        final Object stride;
+        private final boolean integral;
+        private final long start;
+        private final long step;
+        private final double dstart;
+        private final double dstep;
+        private final long size;
+
+        Range(Object start, Object end, Object step) {
+            this.first = start;
+            this.last = end;
+            this.stride = step;
+            if (start instanceof Long s && end instanceof Long e && step instanceof Long p) {
+                if (p == 0) {
+                    throw new RuntimeException("range: passo não pode ser zero");
+                }
+                this.integral = true;
+                this.start = s;
+                this.step = p;
+                this.dstart = s;
+                this.dstep = p;
+                this.size = countLong(s, e, p);
+            } else {
+                double s = ((Number) start).doubleValue();
+                double e = ((Number) end).doubleValue();
+                double p = ((Number) step).doubleValue();
+                if (p == 0 || Double.isNaN(p)) {
+                    throw new RuntimeException("range: passo não pode ser zero");
+                }
+                this.integral = false;
+                this.start = 0;
+                this.step = 0;
+                this.dstart = s;
+                this.dstep = p;
+                double n = Math.ceil((e - s) / p);
+                this.size = n > 0 ? (long) n : 0;
+            }
+        }
+
+        private static long countLong(long start, long end, long step) {
+            if (step > 0 ? start >= end : start <= end) {
+                return 0;
+            }
+            // Diferença e passo sem sinal, para não estourar em limites extremos
+            long span = step > 0 ? end - start : start - end;
+            long stride = step > 0 ? step : -step;
+            return Long.divideUnsigned(span - 1, stride) + 1;
+        }
+
+        /** @return Número de elementos. */
+        long size() {
+            return size;
+        }
+
+        private Object get(long i) {
+            if (integral) {
+                return start + i * step;
+            }
+            // Calculado a partir do início, para não acumular erro de arredondamento
+            return dstart + i * dstep;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return new Iterator<>() {
+                private long i;
+
+                @Override
+                public boolean hasNext() {
+                    return i < size;
+                }
+
+                @Override
+                public Object next() {
+                    if (i >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    return get(i++);
+                }
+            };
+        }
+
+        /** Divisível por índice, para execução em paralelo. */
+        @Override
+        public Spliterator<Object> spliterator() {
+            return new RangeSpliterator(0, size);
+        }
+
+        private final class RangeSpliterator implements Spliterator<Object> {
+            private long index;
+            private final long end;
+
+            RangeSpliterator(long index, long end) {
+                this.index = index;
+                this.end = end;
+            }
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Object> action) {
+                if (index >= end) {
+                    return false;
+                }
+                action.accept(get(index++));
+                return true;
+            }
+
+            @Override
+            public Spliterator<Object> trySplit() {
+                long mid = index + (end - index) / 2;
+                if (mid <= index) {
+                    return null;
+                }
+                Spliterator<Object> prefix = new RangeSpliterator(index, mid);
+                index = mid;
+                return prefix;
+            }
+
+            @Override
+            public long estimateSize() {
+                return end - index;
+            }
+
+            @Override
+            public int characteristics() {
+                return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "range(" + first + ", " + last + ", " + stride + ")";
+        }
+    }
+
+    /**
+     * Pares {@code [índice, elemento]} de outra sequência, com índices a
+     * partir de 0.
+     */
+    static final class Enumerated implements Iterable<Object> {
+        private final Iterable<?> source;
+
+        Enumerated(Iterable<?> source) {
+            this.source = source;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            Iterator<?> it = source.iterator();
+            return new Iterator<>() {
+                private long index;
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    List<Object> pair = new ArrayList<>(2);
+                    pair.add(index++);
+                    pair.add(it.next());
+                    return pair;
+                }
+            };
+        }
+    }
+
+    /**
+     * Pares {@code [a, b]} com os elementos de mesma posição de duas
+     * sequências, até o fim da mais curta.
+     */
+    static final class Zipped implements Iterable<Object> {
+        private final Iterable<?> left;
+        private final Iterable<?> right;
+
+        Zipped(Iterable<?> left, Iterable<?> right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            Iterator<?> a = left.iterator();
+            Iterator<?> b = right.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return a.hasNext() && b.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    List<Object> pair = new ArrayList<>(2);
+                    pair.add(a.next());
+                    pair.add(b.next());
+                    return pair;
+                }
+            };
+        }
+    }
+}
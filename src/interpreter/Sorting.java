@@ -0,0 +1,142 @@
+package interpreter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Ordenação e busca binária dos built-ins {@code sort},
+ * {@code parallel_sort} e {@code binary_search}, feitas pelo JDK em vez de
+ * código MiniPar interpretado.
+ * <p>
+ * Listas só de inteiros ou só de números fracionários são copiadas para um
+ * {@code long[]}/{@code double[]} e ordenadas com
+ * {@link Arrays#parallelSort(long[])}, que divide o trabalho entre os
+ * processadores em listas grandes e ordena sequencialmente as pequenas. As
+ * demais são ordenadas como objetos, de forma estável, pela
+ * {@link #NATURAL ordem natural} do MiniPar.
+ */
+final class Sorting {
+    private Sorting() {
+    }
+
+    /**
+     * Ordem natural dos valores do MiniPar: números pelo valor (inteiros e
+     * fracionários misturados), textos em ordem lexicográfica e booleanos
+     * com {@code false} antes de {@code true}. Valores de tipos diferentes
+     * não são comparáveis.
+     */
+    static final Comparator<Object> NATURAL = Sorting::compare;
+
+    private static int compare(Object a, Object b) {
+        if (a instanceof Long x && b instanceof Long y) {
+            return Long.compare(x, y);
+        }
+        if (a instanceof Number x && b instanceof Number y) {
+            return Double.compare(x.doubleValue(), y.doubleValue());
+        }
+        if (a instanceof CharSequence x && b instanceof CharSequence y) {
+            return x.toString().compareTo(y.toString());
+        }
+        if (a instanceof Boolean x && b instanceof Boolean y) {
+            return Boolean.compare(x, y);
+        }
+        throw new RuntimeException("Não é possível comparar " + typeName(a) + " com " + typeName(b));
+    }
+
+    private static String typeName(Object v) {
+        return v == null ? "null" : v.getClass().getSimpleName();
+    }
+
+    /**
+     * Ordena a lista no lugar.
+     *
+     * @param parallel Se verdadeiro, listas de objetos também são ordenadas
+     *                 em paralelo.
+     */
+    static void sort(List<Object> list, boolean parallel) {
+        int n = list.size();
+        if (n < 2) {
+            return;
+        }
+        if (allOf(list, Long.class)) {
+            long[] values = new long[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = (Long) list.get(i);
+            }
+            Arrays.parallelSort(values);
+            for (int i = 0; i < n; i++) {
+                list.set(i, values[i]);
+            }
+            return;
+        }
+        if (allOf(list, Double.class)) {
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = (Double) list.get(i);
+            }
+            Arrays.parallelSort(values);
+            for (int i = 0; i < n; i++) {
+                list.set(i, values[i]);
+            }
+            return;
+        }
+        Object[] values = list.toArray();
+        if (parallel) {
+            Arrays.parallelSort(values, NATURAL);
+        } else {
+            Arrays.sort(values, NATURAL);
+        }
+        writeBack(list, values);
+    }
+
+    /**
+     * Ordena a lista no lugar pelas chaves dadas ({@code keys.get(i)} é a
+     * chave de {@code list.get(i)}), de forma estável.
+     */
+    static void sortByKey(List<Object> list, List<Object> keys, boolean parallel) {
+        int n = list.size();
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Comparator<Integer> byKey = (i, j) -> compare(keys.get(i), keys.get(j));
+        if (parallel) {
+            Arrays.parallelSort(order, byKey);
+        } else {
+            Arrays.sort(order, byKey);
+        }
+        Object[] values = new Object[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = list.get(order[i]);
+        }
+        writeBack(list, values);
+    }
+
+    /**
+     * @return Posição de {@code item} na lista ordenada, ou -1.
+     */
+    static int binarySearch(List<Object> list, Object item) {
+        int index = Collections.binarySearch(list, item, NATURAL);
+        return index >= 0 ? index : -1;
+    }
+
+    private static boolean allOf(List<Object> list, Class<?> type) {
+        for (Object v : list) {
+            if (v == null || v.getClass() != type) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeBack(List<Object> list, Object[] values) {
+        ListIterator<Object> it = list.listIterator();
+        for (Object v : values) {
+            it.next();
+            it.set(v);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io;
+
+/**
+ * Interface para acompanhar uma sessão de execução em tempo real.
+ * Permite ao servidor repassar a saída e os pedidos de entrada ao cliente
+ * assim que acontecem, sem consultas periódicas.
+ * <p>
+ * Os métodos são chamados na thread da sessão.
+ */
+public interface SessionListener {
+    /**
+     * Texto escrito pelo programa na saída padrão.
+     * @param text Trecho da saída
+     */
+    void onOutput(String text);
+
+    /**
+     * Texto escrito na saída de erro (erros de análise ou de execução).
+     * @param text Trecho da saída de erro
+     */
+    void onError(String text);
+
+    /**
+     * O programa está bloqueado aguardando uma linha de entrada.
+     */
+    void onInputRequested();
+
+    /**
+     * A execução terminou.
+     * @param success {@code false} se a execução terminou com exceção
+     */
+    void onFinished(boolean success);
+}
@@ -46,7 +46,10 @@ public class TCPChannel {
             System.out.println("[TCPChannel " + name + "] Conectado ao servidor " + host + ":" + port);
         }
         
-        out = new ObjectOutputStream(socket.getOutputStream());
+        // Mensagens pequenas com resposta: sem o algoritmo de Nagle, cada envio
+        // esperaria o ACK atrasado do outro lado (~40 ms por ida e volta)
+        socket.setTcpNoDelay(true);
+        out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
         out.flush();
         in = new ObjectInputStream(socket.getInputStream());
         connected = true;
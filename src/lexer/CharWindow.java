@@ -0,0 +1,170 @@
+package lexer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Janela deslizante sobre um texto lido aos poucos, de um {@link Reader} ou de
+ * um {@link ByteBuffer} em UTF-8 (por exemplo, um arquivo mapeado em memória).
+ * <p>
+ * Os índices são absolutos, como se o texto inteiro estivesse em uma
+ * {@link String}, mas só o trecho a partir da marca de {@link #release(int)}
+ * fica em memória: ao encher o buffer, os caracteres anteriores à marca são
+ * descartados. O buffer só cresce se um único token for maior que ele.
+ * <p>
+ * {@link #length()} devolve o total de caracteres já lidos; use
+ * {@link #ensure(int)} para saber se uma posição existe. Não é seguro para uso
+ * concorrente.
+ */
+public final class CharWindow implements CharSequence {
+    private static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private final Reader reader;
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder;
+    private char[] buffer;
+    /** Posição absoluta de {@code buffer[0]}. */
+    private int base = 0;
+    /** Quantidade de caracteres válidos no buffer. */
+    private int count = 0;
+    /** Posição absoluta a partir da qual os caracteres ainda são necessários. */
+    private int mark = 0;
+    private boolean eof = false;
+    private boolean flushed = false;
+
+    private CharWindow(Reader reader, ByteBuffer bytes, int capacity) {
+        this.reader = reader;
+        this.bytes = bytes;
+        this.decoder = bytes == null ? null : StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.buffer = new char[capacity];
+    }
+
+    /**
+     * @param reader Texto de entrada; não é fechado pela janela.
+     * @return Janela sobre o texto do leitor.
+     */
+    public static CharWindow of(Reader reader) {
+        return new CharWindow(reader, null, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param utf8 Bytes em UTF-8, consumidos a partir da posição atual.
+     * @return Janela que decodifica os bytes sob demanda.
+     */
+    public static CharWindow of(ByteBuffer utf8) {
+        return new CharWindow(null, utf8, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Garante que a posição esteja no buffer, lendo mais texto se preciso.
+     *
+     * @param index Posição absoluta desejada.
+     * @return Total de caracteres disponíveis; menor ou igual a {@code index}
+     *         somente se o texto terminou antes.
+     */
+    public int ensure(int index) {
+        while (index >= base + count && !eof) {
+            fill();
+        }
+        return base + count;
+    }
+
+    /**
+     * Indica que os caracteres anteriores à posição não serão mais lidos.
+     *
+     * @param index Posição absoluta.
+     */
+    public void release(int index) {
+        mark = index;
+    }
+
+    @Override
+    public int length() {
+        return base + count;
+    }
+
+    @Override
+    public char charAt(int index) {
+        int i = index - base;
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("Posição " + index + " fora da janela ["
+                    + base + ", " + (base + count) + ")");
+        }
+        return buffer[i];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < base || end > base + count || start > end) {
+            throw new IndexOutOfBoundsException("Trecho [" + start + ", " + end + ") fora da janela ["
+                    + base + ", " + (base + count) + ")");
+        }
+        return new String(buffer, start - base, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, count);
+    }
+
+    private void fill() {
+        // Deixa espaço para ao menos um par substituto (UTF-16)
+        if (buffer.length - count < 2) {
+            int keep = base + count - mark;
+            if (keep < buffer.length / 2) {
+                // Descarta o que vem antes da marca
+                System.arraycopy(buffer, mark - base, buffer, 0, keep);
+                base = mark;
+                count = keep;
+            } else {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        try {
+            int n = read(buffer, count, buffer.length - count);
+            if (n < 0) {
+                eof = true;
+            } else {
+                count += n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int read(char[] dst, int offset, int length) throws IOException {
+        if (reader != null) {
+            return reader.read(dst, offset, length);
+        }
+        if (flushed) {
+            return -1;
+        }
+        CharBuffer out = CharBuffer.wrap(dst, offset, length);
+        // Todo o texto já está no ByteBuffer, então a entrada é sempre completa
+        CoderResult result = decoder.decode(bytes, out, true);
+        if (result.isUnderflow()) {
+            result = decoder.flush(out);
+            flushed = result.isUnderflow();
+        }
+        if (result.isError()) {
+            try {
+                result.throwException();
+            } catch (CharacterCodingException e) {
+                throw new IOException("Texto UTF-8 inválido", e);
+            }
+        }
+        int n = out.position() - offset;
+        return n == 0 && flushed ? -1 : n;
+    }
+}
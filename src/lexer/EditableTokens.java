@@ -0,0 +1,335 @@
+package lexer;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tokens de um documento que recebe edições, usados pelo editor web.
+ * <p>
+ * Cada edição ({@link #edit(int, int, String)}) reanalisa apenas a partir do
+ * token anterior ao trecho alterado, até voltar a coincidir com um token antigo
+ * depois da edição; daí em diante os tokens antigos são reaproveitados, apenas
+ * com posição, linha e coluna deslocadas. Se o documento tiver erros léxicos,
+ * a edição reanalisa o texto inteiro, para que as mensagens continuem
+ * coerentes.
+ * <p>
+ * Também registra o maior índice consultado (ver {@link #maxTouched()}), para
+ * que o parser saiba de quais tokens cada declaração dependeu. Não é seguro
+ * para uso concorrente.
+ */
+public final class EditableTokens implements TokenStream {
+    private String text;
+    private TokenType[] types = new TokenType[0];
+    private String[] lexemes = new String[0];
+    private int[] starts = new int[0];
+    private int[] ends = new int[0];
+    private int[] lines = new int[0];
+    private int[] columns = new int[0];
+    private int size = 0;
+    private List<String> errors = List.of();
+    private int touched = -1;
+
+    /**
+     * Trecho de tokens substituído por uma edição: os tokens antigos
+     * {@code [start, start + removed)} deram lugar aos novos
+     * {@code [start, start + inserted)}.
+     *
+     * @param start    Primeiro índice afetado.
+     * @param removed  Quantidade de tokens antigos removidos.
+     * @param inserted Quantidade de tokens novos.
+     */
+    public record Damage(int start, int removed, int inserted) {
+    }
+
+    /**
+     * @param text Texto inicial do documento.
+     */
+    public EditableTokens(String text) {
+        rescan(text, 0);
+    }
+
+    /** Buffer temporário para os tokens reanalisados. */
+    private EditableTokens() {
+    }
+
+    /**
+     * Aplica uma edição ao texto e atualiza os tokens.
+     *
+     * @param offset Posição da edição.
+     * @param delete Quantidade de caracteres removidos a partir da posição.
+     * @param insert Texto inserido na posição.
+     * @return Trecho de tokens alterado.
+     */
+    public Damage edit(int offset, int delete, String insert) {
+        if (offset < 0 || delete < 0 || offset + delete > text.length()) {
+            throw new IllegalArgumentException("Edição fora do documento: posição " + offset + ", remoção "
+                    + delete + ", tamanho " + text.length());
+        }
+        String edited = text.substring(0, offset) + insert + text.substring(offset + delete);
+        int delta = insert.length() - delete;
+        if (!errors.isEmpty()) {
+            return rescan(edited, delta);
+        }
+        int editEnd = offset + insert.length();
+
+        // Recomeça no token anterior ao primeiro que termina na edição ou depois
+        // (o EOF sempre termina depois), de modo a cobrir junções de tokens e
+        // comentários no espaço entre eles
+        int first = firstEndingAtOrAfter(offset);
+        int from = Math.max(0, first - 1);
+        // Linha e coluna registradas só valem para o início de tokens de uma
+        // linha (strings com quebra de linha registram a linha final)
+        while (from > 0 && spansLines(from)) {
+            from--;
+        }
+        Lexer lexer = from == 0
+                ? new Lexer(edited)
+                : new Lexer(edited, starts[from], lines[from], columns[from]);
+
+        EditableTokens relexed = new EditableTokens();
+        int resync = first;
+        while (true) {
+            TokenType type = lexer.scanNext();
+            int start = lexer.lastStart();
+            if (start >= editEnd) {
+                // Depois da edição o texto é o mesmo: se um token antigo
+                // começava aqui, os seguintes também se repetem
+                int oldStart = start - delta;
+                while (resync < size && starts[resync] < oldStart) {
+                    resync++;
+                }
+                if (resync < size && starts[resync] == oldStart) {
+                    break;
+                }
+            }
+            relexed.add(type, lexer.lastLexeme(), start, lexer.lastEnd(), lexer.lastLine(), lexer.lastColumn());
+            if (type == TokenType.EOF) {
+                resync = size;
+                break;
+            }
+        }
+        if (!lexer.getErrors().isEmpty()) {
+            return rescan(edited, delta);
+        }
+
+        int removed = resync - from;
+        int inserted = relexed.size;
+        int tail = size - resync;
+        if (tail > 0) {
+            int lineDelta = lexer.lastLine() - lines[resync];
+            int columnDelta = lexer.lastColumn() - columns[resync];
+            int resyncLine = lines[resync];
+            for (int i = resync; i < size; i++) {
+                starts[i] += delta;
+                ends[i] += delta;
+                // Só os tokens na mesma linha do ponto de retomada mudam de coluna
+                if (lines[i] == resyncLine) {
+                    columns[i] += columnDelta;
+                }
+                lines[i] += lineDelta;
+            }
+        }
+        int newSize = from + inserted + tail;
+        ensureCapacity(newSize);
+        System.arraycopy(types, resync, types, from + inserted, tail);
+        System.arraycopy(lexemes, resync, lexemes, from + inserted, tail);
+        System.arraycopy(starts, resync, starts, from + inserted, tail);
+        System.arraycopy(ends, resync, ends, from + inserted, tail);
+        System.arraycopy(lines, resync, lines, from + inserted, tail);
+        System.arraycopy(columns, resync, columns, from + inserted, tail);
+        System.arraycopy(relexed.types, 0, types, from, inserted);
+        System.arraycopy(relexed.lexemes, 0, lexemes, from, inserted);
+        System.arraycopy(relexed.starts, 0, starts, from, inserted);
+        System.arraycopy(relexed.ends, 0, ends, from, inserted);
+        System.arraycopy(relexed.lines, 0, lines, from, inserted);
+        System.arraycopy(relexed.columns, 0, columns, from, inserted);
+        if (newSize < size) {
+            Arrays.fill(lexemes, newSize, size, null);
+        }
+        size = newSize;
+        text = edited;
+        return new Damage(from, removed, inserted);
+    }
+
+    /**
+     * @return Texto atual do documento.
+     */
+    public String text() {
+        return text;
+    }
+
+    /**
+     * @return Mensagens de erro léxico do texto atual.
+     */
+    public List<String> errors() {
+        return errors;
+    }
+
+    /**
+     * @return Maior índice consultado desde {@link #resetTouched()}, ou -1.
+     */
+    public int maxTouched() {
+        return touched;
+    }
+
+    /**
+     * Reinicia o registro de índices consultados.
+     */
+    public void resetTouched() {
+        touched = -1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public TokenType type(int index) {
+        return types[touch(index)];
+    }
+
+    @Override
+    public String lexeme(int index) {
+        return lexemes[touch(index)];
+    }
+
+    @Override
+    public int line(int index) {
+        return lines[touch(index)];
+    }
+
+    @Override
+    public int column(int index) {
+        return columns[touch(index)];
+    }
+
+    /**
+     * Posição inicial do texto do token (para strings, a aspa de abertura).
+     */
+    public int start(int index) {
+        return starts[checkIndex(index)];
+    }
+
+    /**
+     * Posição final (exclusiva) do texto do token.
+     */
+    public int end(int index) {
+        return ends[checkIndex(index)];
+    }
+
+    private int touch(int index) {
+        checkIndex(index);
+        if (index > touched) {
+            touched = index;
+        }
+        return index;
+    }
+
+    private int checkIndex(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Token " + index + " fora do intervalo [0, " + size + ")");
+        }
+        return index;
+    }
+
+    /**
+     * Reanalisa o texto inteiro. O trecho alterado devolvido exclui o maior
+     * prefixo de tokens idênticos aos anteriores e o maior sufixo de tokens
+     * iguais deslocados de {@code delta} caracteres (a linha pode mudar), para
+     * que o parser ainda possa reaproveitar declarações.
+     */
+    private Damage rescan(String source, int delta) {
+        EditableTokens old = new EditableTokens();
+        old.types = types;
+        old.lexemes = lexemes;
+        old.starts = starts;
+        old.lines = lines;
+        old.columns = columns;
+        old.size = size;
+        types = new TokenType[0];
+        lexemes = new String[0];
+        starts = new int[0];
+        ends = new int[0];
+        lines = new int[0];
+        columns = new int[0];
+        size = 0;
+
+        Lexer lexer = new Lexer(source);
+        TokenType type;
+        do {
+            type = lexer.scanNext();
+            add(type, lexer.lastLexeme(), lexer.lastStart(), lexer.lastEnd(), lexer.lastLine(), lexer.lastColumn());
+        } while (type != TokenType.EOF);
+        text = source;
+        errors = List.copyOf(lexer.getErrors());
+
+        int common = Math.min(old.size, size);
+        int prefix = 0;
+        while (prefix < common && sameToken(old, prefix, prefix, 0)
+                && old.lines[prefix] == lines[prefix] && old.columns[prefix] == columns[prefix]) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < common - prefix && sameToken(old, old.size - 1 - suffix, size - 1 - suffix, delta)) {
+            suffix++;
+        }
+        return new Damage(prefix, old.size - prefix - suffix, size - prefix - suffix);
+    }
+
+    private boolean sameToken(EditableTokens old, int oldIndex, int index, int delta) {
+        return old.types[oldIndex] == types[index]
+                && old.starts[oldIndex] + delta == starts[index]
+                && old.lexemes[oldIndex].equals(lexemes[index]);
+    }
+
+    private boolean spansLines(int index) {
+        if (types[index] != TokenType.STRING) {
+            return false;
+        }
+        int newline = text.indexOf('\n', starts[index]);
+        return newline >= 0 && newline < ends[index];
+    }
+
+    /**
+     * Primeiro token cujo texto termina na posição informada ou depois (os
+     * fins são crescentes).
+     */
+    private int firstEndingAtOrAfter(int offset) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void add(TokenType type, String lexeme, int start, int end, int line, int column) {
+        ensureCapacity(size + 1);
+        types[size] = type;
+        lexemes[size] = lexeme;
+        starts[size] = start;
+        ends[size] = end;
+        lines[size] = line;
+        columns[size] = column;
+        size++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= types.length) {
+            return;
+        }
+        int grown = Math.max(capacity, Math.max(16, types.length + (types.length >> 1)));
+        types = Arrays.copyOf(types, grown);
+        lexemes = Arrays.copyOf(lexemes, grown);
+        starts = Arrays.copyOf(starts, grown);
+        ends = Arrays.copyOf(ends, grown);
+        lines = Arrays.copyOf(lines, grown);
+        columns = Arrays.copyOf(columns, grown);
+    }
+}
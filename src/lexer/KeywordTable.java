@@ -0,0 +1,154 @@
+package lexer;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Tabela de palavras-chave com hash perfeito.
+ * <p>
+ * A semente do hash é escolhida na inicialização da classe de modo que cada
+ * palavra-chave ocupe uma posição distinta da tabela. Assim, a consulta de um
+ * trecho do código-fonte custa um cálculo de hash e uma comparação, sem criar
+ * substrings.
+ */
+final class KeywordTable {
+    private static final int SIZE = 128;
+    private static final int MASK = SIZE - 1;
+
+    private static final String[] WORDS = new String[SIZE];
+    private static final TokenType[] TYPES = new TokenType[SIZE];
+    private static final Map<TokenType, String> SPELLING = new EnumMap<>(TokenType.class);
+    private static final int SEED;
+    private static final int MIN_LENGTH;
+    private static final int MAX_LENGTH;
+
+    static {
+        // Palavras-chave de controle
+        SPELLING.put(TokenType.VAR, "var");
+        SPELLING.put(TokenType.FUNC, "func");
+        SPELLING.put(TokenType.PRINT, "print");
+        SPELLING.put(TokenType.PRINTLN, "println");
+        SPELLING.put(TokenType.INPUT, "input");
+        SPELLING.put(TokenType.READLN, "readln");
+        SPELLING.put(TokenType.READNUMBER, "readNumber");
+        SPELLING.put(TokenType.IF, "if");
+        SPELLING.put(TokenType.ELSE, "else");
+        SPELLING.put(TokenType.WHILE, "while");
+        SPELLING.put(TokenType.FOR, "for");
+        SPELLING.put(TokenType.DO, "do");
+        SPELLING.put(TokenType.RETURN, "return");
+        SPELLING.put(TokenType.BREAK, "break");
+        SPELLING.put(TokenType.CONTINUE, "continue");
+        SPELLING.put(TokenType.IN, "in");
+
+        // Palavras-chave OOP
+        SPELLING.put(TokenType.CLASS, "class");
+        SPELLING.put(TokenType.EXTENDS, "extends");
+        SPELLING.put(TokenType.NEW, "new");
+        SPELLING.put(TokenType.THIS, "this");
+        SPELLING.put(TokenType.SUPER, "super");
+
+        // Tipos
+        SPELLING.put(TokenType.TYPE_NUMBER, "number");
+        SPELLING.put(TokenType.TYPE_STRING, "string");
+        SPELLING.put(TokenType.TYPE_BOOL, "bool");
+        SPELLING.put(TokenType.TYPE_VOID, "void");
+        SPELLING.put(TokenType.TYPE_LIST, "list");
+        SPELLING.put(TokenType.TYPE_DICT, "dict");
+
+        // Literais booleanos
+        SPELLING.put(TokenType.TRUE, "true");
+        SPELLING.put(TokenType.FALSE, "false");
+
+        // Palavras-chave específicas do MiniPar
+        SPELLING.put(TokenType.SEQ, "seq");
+        SPELLING.put(TokenType.PAR, "par");
+        SPELLING.put(TokenType.C_CHANNEL, "c_channel");
+        SPELLING.put(TokenType.S_CHANNEL, "s_channel");
+        SPELLING.put(TokenType.SEND, "send");
+        SPELLING.put(TokenType.RECEIVE, "receive");
+
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (String word : SPELLING.values()) {
+            min = Math.min(min, word.length());
+            max = Math.max(max, word.length());
+        }
+        MIN_LENGTH = min;
+        MAX_LENGTH = max;
+
+        int seed = 0;
+        while (!fill(seed)) {
+            seed++;
+        }
+        SEED = seed;
+    }
+
+    private KeywordTable() {
+    }
+
+    /**
+     * Tenta distribuir as palavras-chave na tabela com a semente informada.
+     *
+     * @return false se houve colisão.
+     */
+    private static boolean fill(int seed) {
+        Arrays.fill(WORDS, null);
+        Arrays.fill(TYPES, null);
+        for (Map.Entry<TokenType, String> e : SPELLING.entrySet()) {
+            String word = e.getValue();
+            int slot = slot(seed, word, 0, word.length());
+            if (WORDS[slot] != null) {
+                return false;
+            }
+            WORDS[slot] = word;
+            TYPES[slot] = e.getKey();
+        }
+        return true;
+    }
+
+    private static int slot(int seed, CharSequence text, int start, int end) {
+        int h = seed;
+        for (int i = start; i < end; i++) {
+            h = h * 31 + text.charAt(i);
+        }
+        h *= 0x9E3779B9;
+        return (h ^ (h >>> 16)) & MASK;
+    }
+
+    /**
+     * Classifica o trecho {@code [start, end)} do texto como palavra-chave ou
+     * identificador.
+     *
+     * @param text  Código-fonte.
+     * @param start Início do identificador (inclusivo).
+     * @param end   Fim do identificador (exclusivo).
+     * @return Tipo da palavra-chave, ou {@link TokenType#ID}.
+     */
+    static TokenType lookup(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return TokenType.ID;
+        }
+        int slot = slot(SEED, text, start, end);
+        String word = WORDS[slot];
+        if (word == null || word.length() != length) {
+            return TokenType.ID;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(start + i) != word.charAt(i)) {
+                return TokenType.ID;
+            }
+        }
+        return TYPES[slot];
+    }
+
+    /**
+     * @param type Tipo de token.
+     * @return Grafia da palavra-chave, ou {@code null} se o tipo não for uma.
+     */
+    static String spelling(TokenType type) {
+        return SPELLING.get(type);
+    }
+}
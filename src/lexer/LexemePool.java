@@ -0,0 +1,87 @@
+package lexer;
+
+/**
+ * Pool de lexemas de um código-fonte.
+ * <p>
+ * Ocorrências repetidas do mesmo identificador ou literal passam a
+ * compartilhar uma única {@link String}. A busca compara diretamente o trecho
+ * do código-fonte, de modo que só é criada uma substring na primeira
+ * ocorrência de cada texto.
+ */
+final class LexemePool {
+    private final CharSequence source;
+    private String[] table = new String[64];
+    private int size = 0;
+
+    LexemePool(CharSequence source) {
+        this.source = source;
+    }
+
+    /**
+     * Retorna a string do trecho {@code [start, end)}, criando-a apenas se
+     * ainda não estiver no pool.
+     */
+    String intern(int start, int end) {
+        int length = end - start;
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + source.charAt(i);
+        }
+        int mask = table.length - 1;
+        int slot = mix(h) & mask;
+        while (true) {
+            String s = table[slot];
+            if (s == null) {
+                break;
+            }
+            if (s.length() == length && regionMatches(start, s)) {
+                return s;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        String created = source.subSequence(start, end).toString();
+        table[slot] = created;
+        if (++size * 2 > table.length) {
+            grow();
+        }
+        return created;
+    }
+
+    /**
+     * @return Quantidade de lexemas distintos no pool.
+     */
+    int size() {
+        return size;
+    }
+
+    private boolean regionMatches(int start, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (source.charAt(start + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void grow() {
+        String[] old = table;
+        table = new String[old.length * 2];
+        int mask = table.length - 1;
+        for (String s : old) {
+            if (s != null) {
+                // String.hashCode usa a mesma fórmula do laço em intern()
+                int slot = mix(s.hashCode()) & mask;
+                while (table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = s;
+            }
+        }
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,9 +1,8 @@
 package lexer;
 
+import java.io.Reader;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Classe responsável pela análise léxica do código-fonte da linguagem MiniPar OOP.
@@ -11,12 +10,41 @@ import java.util.Map;
  * operadores, delimitadores, literais e identificadores.
  * <p>
  * Utilizada como etapa inicial do processo de compilação/interpretação.
+ * <p>
+ * Há dois modos de saída: {@link #scanTokens()}, que produz uma lista de
+ * {@link Token}, e {@link #scanPacked()}, que produz os mesmos tokens em
+ * formato compacto ({@link PackedTokens}), sem criar objetos por token. Cada
+ * instância deve ser usada para uma única análise.
+ * <p>
+ * Para códigos-fonte muito grandes há ainda o modo sob demanda:
+ * {@link #nextToken()} reconhece um token por vez, e o lexer pode ler o texto
+ * de uma {@link CharWindow} (um {@link Reader} ou um arquivo mapeado em
+ * memória), mantendo em memória apenas o trecho ainda não analisado.
  */
 public class Lexer {
-    /** Código-fonte a ser analisado */
-    private final String source;
+    /** Máximo de lexemas distintos guardados no modo sob demanda */
+    private static final int STREAM_POOL_LIMIT = 1 << 16;
+
+    /** Código-fonte a ser analisado ({@link String} ou {@link CharWindow}) */
+    private final CharSequence source;
+    /** Janela de leitura, ou null se o código-fonte estiver todo em memória */
+    private final CharWindow window;
+    /** Quantidade de caracteres já disponíveis em {@link #source} */
+    private int end;
     /** Lista de tokens reconhecidos */
     private final List<Token> tokens = new ArrayList<>();
+    /** Destino dos tokens no modo compacto (null no modo lista) */
+    private PackedTokens packed;
+    /** Tipo do último token reconhecido no modo sob demanda (null se nenhum) */
+    private TokenType pendingType;
+    /** Lexema, linha, coluna e trecho [início, fim) do último token do modo sob demanda */
+    private String pendingLexeme;
+    private int pendingLine;
+    private int pendingColumn;
+    private int pendingStart;
+    private int pendingEnd;
+    /** Lexemas do modo sob demanda (null nos outros modos) */
+    private LexemePool pool;
     /** Índice do início do token atual */
     private int start = 0;
     /** Índice do caractere atual */
@@ -25,59 +53,8 @@ public class Lexer {
     private int line = 1;
     /** Número da coluna atual (inicia em 1) */
     private int column = 1;
-
-    /**
-     * Mapeamento de palavras-chave para seus respectivos tipos de token.
-     * Inclui comandos de controle, tipos, operadores e palavras reservadas da linguagem.
-     */
-    private static final Map<String, TokenType> keywords = new HashMap<>();
-
-    static {
-        // Palavras-chave de controle
-        keywords.put("var", TokenType.VAR);
-        keywords.put("func", TokenType.FUNC);
-        keywords.put("print", TokenType.PRINT);
-        keywords.put("println", TokenType.PRINTLN);
-        keywords.put("input", TokenType.INPUT);
-        keywords.put("readln", TokenType.READLN);
-        keywords.put("readNumber", TokenType.READNUMBER);
-        keywords.put("if", TokenType.IF);
-        keywords.put("else", TokenType.ELSE);
-        keywords.put("while", TokenType.WHILE);
-        keywords.put("for", TokenType.FOR);
-        keywords.put("do", TokenType.DO);
-        keywords.put("return", TokenType.RETURN);
-        keywords.put("break", TokenType.BREAK);
-        keywords.put("continue", TokenType.CONTINUE);
-        keywords.put("in", TokenType.IN);
-
-        // Palavras-chave OOP
-        keywords.put("class", TokenType.CLASS);
-        keywords.put("extends", TokenType.EXTENDS);
-        keywords.put("new", TokenType.NEW);
-        keywords.put("this", TokenType.THIS);
-        keywords.put("super", TokenType.SUPER);
-
-        // Tipos
-        keywords.put("number", TokenType.TYPE_NUMBER);
-        keywords.put("string", TokenType.TYPE_STRING);
-        keywords.put("bool", TokenType.TYPE_BOOL);
-        keywords.put("void", TokenType.TYPE_VOID);
-        keywords.put("list", TokenType.TYPE_LIST);
-        keywords.put("dict", TokenType.TYPE_DICT);
-
-        // Literais booleanos
-        keywords.put("true", TokenType.TRUE);
-        keywords.put("false", TokenType.FALSE);
-
-        // Palavras-chave específicas do MiniPar
-        keywords.put("seq", TokenType.SEQ);
-        keywords.put("par", TokenType.PAR);
-        keywords.put("c_channel", TokenType.C_CHANNEL);
-        keywords.put("s_channel", TokenType.S_CHANNEL);
-        keywords.put("send", TokenType.SEND);
-        keywords.put("receive", TokenType.RECEIVE);
-    }
+    /** Mensagens de erro léxico emitidas durante a análise */
+    private final List<String> errors = new ArrayList<>();
 
     /**
      * Construtor do analisador léxico.
@@ -85,6 +62,45 @@ public class Lexer {
      */
     public Lexer(String source) {
         this.source = source;
+        this.window = null;
+        this.end = source.length();
+    }
+
+    /**
+     * Construtor do analisador léxico que começa no meio do código-fonte,
+     * usado para reanalisar apenas o trecho alterado de um documento. A
+     * posição deve ser o início de um token (ou de espaço/comentário entre
+     * tokens).
+     * @param source Código-fonte completo
+     * @param offset Posição inicial da análise
+     * @param line Linha da posição inicial
+     * @param column Coluna da posição inicial
+     */
+    public Lexer(String source, int offset, int line, int column) {
+        this(source);
+        this.start = offset;
+        this.current = offset;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Construtor do analisador léxico sobre um texto lido aos poucos.
+     * Apenas {@link #nextToken()} e {@link #scanTokens()} estão disponíveis.
+     * @param window Janela sobre o código-fonte
+     */
+    public Lexer(CharWindow window) {
+        this.source = window;
+        this.window = window;
+        this.end = window.length();
+    }
+
+    /**
+     * Construtor do analisador léxico sobre um {@link Reader}.
+     * @param reader Código-fonte; não é fechado pelo lexer
+     */
+    public Lexer(Reader reader) {
+        this(CharWindow.of(reader));
     }
 
     /**
@@ -103,11 +119,99 @@ public class Lexer {
         return tokens;
     }
 
+    /**
+     * Realiza a análise léxica completa no modo compacto.
+     * Os tokens são idênticos aos de {@link #scanTokens()}, mas guardados em
+     * arrays paralelos; lexemas de identificadores e literais só são criados
+     * quando consultados.
+     * @return Tokens reconhecidos, terminados por EOF
+     */
+    public PackedTokens scanPacked() {
+        if (window != null) {
+            throw new IllegalStateException("scanPacked exige o código-fonte inteiro em memória");
+        }
+        packed = new PackedTokens((String) source);
+        while (!isAtEnd()) {
+            start = current;
+            scanToken();
+        }
+
+        // Adiciona token de fim de arquivo
+        packed.add(TokenType.EOF, current, current, line, column);
+        return packed;
+    }
+
+    /**
+     * Reconhece o próximo token, lendo do código-fonte apenas o necessário.
+     * Depois do fim do texto, devolve sempre um token EOF.
+     * @return Próximo token
+     */
+    public Token nextToken() {
+        TokenType type = scanNext();
+        return new Token(type, pendingLexeme, pendingLine, pendingColumn);
+    }
+
+    /**
+     * Reconhece o próximo token sem criar um {@link Token}; o lexema, a linha
+     * e a coluna ficam em {@link #lastLexeme()}, {@link #lastLine()} e
+     * {@link #lastColumn()}.
+     * @return Tipo do token reconhecido
+     */
+    TokenType scanNext() {
+        if (pool == null) {
+            pool = new LexemePool(source);
+        }
+        pendingType = null;
+        while (pendingType == null) {
+            if (isAtEnd()) {
+                start = current;
+                setPending(TokenType.EOF, "", line, column);
+                break;
+            }
+            start = current;
+            scanToken();
+        }
+        return pendingType;
+    }
+
+    String lastLexeme() {
+        return pendingLexeme;
+    }
+
+    int lastLine() {
+        return pendingLine;
+    }
+
+    int lastColumn() {
+        return pendingColumn;
+    }
+
+    /** Início do texto do último token (inclui as aspas de strings). */
+    int lastStart() {
+        return pendingStart;
+    }
+
+    /** Fim (exclusivo) do texto do último token. */
+    int lastEnd() {
+        return pendingEnd;
+    }
+
+    private void setPending(TokenType type, String lexeme, int tokenLine, int tokenColumn) {
+        pendingType = type;
+        pendingLexeme = lexeme;
+        pendingLine = tokenLine;
+        pendingColumn = tokenColumn;
+        pendingStart = start;
+        pendingEnd = current;
+    }
+
     /**
      * Reconhece e adiciona um único token à lista, de acordo com o caractere atual.
      * Utiliza switch para identificar delimitadores, operadores, literais, comentários e identificadores.
      */
     private void scanToken() {
+        // Nada antes do token atual será lido de novo
+        if (window != null) window.release(start);
         char c = advance();
 
         switch (c) {
@@ -247,8 +351,7 @@ public class Lexer {
         advance();
 
         // Remove as aspas
-        String value = source.substring(start + 1, current - 1);
-        addToken(TokenType.STRING, value);
+        addToken(TokenType.STRING, start + 1, current - 1);
     }
 
     /**
@@ -275,8 +378,7 @@ public class Lexer {
     private void identifier() {
         while (isAlphaNumeric(peek())) advance();
 
-        String text = source.substring(start, current);
-        TokenType type = keywords.getOrDefault(text, TokenType.ID);
+        TokenType type = KeywordTable.lookup(source, start, current);
         addToken(type);
     }
 
@@ -310,7 +412,7 @@ public class Lexer {
      * @return Próximo caractere ou '\0' se fim do texto
      */
     private char peekNext() {
-        if (current + 1 >= source.length()) return '\0';
+        if (current + 1 >= end && !refill(current + 1)) return '\0';
         return source.charAt(current + 1);
     }
 
@@ -348,7 +450,18 @@ public class Lexer {
      * @return true se fim do texto
      */
     private boolean isAtEnd() {
-        return current >= source.length();
+        return current >= end && !refill(current);
+    }
+
+    /**
+     * Lê mais texto da janela, se houver, até a posição informada.
+     * @param index Posição desejada
+     * @return true se a posição passou a estar disponível
+     */
+    private boolean refill(int index) {
+        if (window == null) return false;
+        end = window.ensure(index);
+        return index < end;
     }
 
     /**
@@ -362,22 +475,46 @@ public class Lexer {
     }
 
     /**
-     * Adiciona um token à lista, sem literal.
+     * Adiciona um token cujo lexema é o texto reconhecido.
      * @param type Tipo do token
      */
     private void addToken(TokenType type) {
-        addToken(type, null);
+        addToken(type, start, current);
     }
 
     /**
-     * Adiciona um token à lista, com literal opcional.
+     * Adiciona um token cujo lexema é o trecho [lexemeStart, lexemeEnd) do código-fonte.
+     * A coluna é calculada a partir do texto reconhecido completo (incluindo aspas).
      * @param type Tipo do token
-     * @param literal Valor literal do token (pode ser null)
+     * @param lexemeStart Início do lexema
+     * @param lexemeEnd Fim do lexema (exclusivo)
+     */
+    private void addToken(TokenType type, int lexemeStart, int lexemeEnd) {
+        int tokenColumn = column - (current - start);
+        if (packed != null) {
+            packed.add(type, lexemeStart, lexemeEnd, line, tokenColumn);
+            return;
+        }
+        String lexeme = PackedTokens.fixedLexeme(type);
+        if (pool != null) {
+            if (lexeme == null) {
+                // Limita a memória do pool em arquivos com muitos nomes distintos
+                if (pool.size() > STREAM_POOL_LIMIT) pool = new LexemePool(source);
+                lexeme = pool.intern(lexemeStart, lexemeEnd);
+            }
+            setPending(type, lexeme, line, tokenColumn);
+            return;
+        }
+        if (lexeme == null) lexeme = source.subSequence(lexemeStart, lexemeEnd).toString();
+        tokens.add(new Token(type, lexeme, line, tokenColumn));
+    }
+
+    /**
+     * Retorna as mensagens de erro léxico emitidas durante a análise.
+     * @return Lista de mensagens, na ordem em que foram emitidas
      */
-    private void addToken(TokenType type, String literal) {
-        String text = source.substring(start, current);
-        if (literal == null) literal = text;
-        tokens.add(new Token(type, literal, line, column - text.length()));
+    public List<String> getErrors() {
+        return errors;
     }
 
     /**
@@ -385,6 +522,8 @@ public class Lexer {
      * @param message Mensagem de erro
      */
     private void error(String message) {
-        System.err.println("[Erro Léxico] Linha " + line + ", Coluna " + column + ": " + message);
+        String error = "[Erro Léxico] Linha " + line + ", Coluna " + column + ": " + message;
+        errors.add(error);
+        System.err.println(error);
     }
 }
\ No newline at end of file
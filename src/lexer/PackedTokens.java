@@ -0,0 +1,190 @@
+package lexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tokens em formato compacto (estrutura de arrays), produzidos por
+ * {@link Lexer#scanPacked()}.
+ * <p>
+ * Cada token ocupa uma posição em arrays paralelos de tipo, início e fim do
+ * lexema no código-fonte, linha e coluna; nenhum objeto é criado por token.
+ * Pontuação e palavras-chave têm lexema fixo. Os lexemas de identificadores e
+ * literais só são criados quando pedidos, e ocorrências iguais compartilham a
+ * mesma {@link String} (ver {@link LexemePool}).
+ * <p>
+ * Não é seguro para uso concorrente.
+ */
+public final class PackedTokens implements TokenStream {
+    private static final TokenType[] TYPES = TokenType.values();
+    /** Lexema fixo de cada tipo, ou {@code null} se depender do código-fonte. */
+    private static final String[] FIXED = new String[TYPES.length];
+
+    static {
+        for (TokenType type : TYPES) {
+            FIXED[type.ordinal()] = KeywordTable.spelling(type);
+        }
+        fixed(TokenType.PLUS, "+");
+        fixed(TokenType.MINUS, "-");
+        fixed(TokenType.STAR, "*");
+        fixed(TokenType.SLASH, "/");
+        fixed(TokenType.MOD, "%");
+        fixed(TokenType.EQUAL, "=");
+        fixed(TokenType.EQUAL_EQUAL, "==");
+        fixed(TokenType.NOT_EQUAL, "!=");
+        fixed(TokenType.LESS, "<");
+        fixed(TokenType.LESS_EQUAL, "<=");
+        fixed(TokenType.GREATER, ">");
+        fixed(TokenType.GREATER_EQUAL, ">=");
+        fixed(TokenType.AND, "&&");
+        fixed(TokenType.OR, "||");
+        fixed(TokenType.BANG, "!");
+        fixed(TokenType.LEFT_PAREN, "(");
+        fixed(TokenType.RIGHT_PAREN, ")");
+        fixed(TokenType.LEFT_BRACE, "{");
+        fixed(TokenType.RIGHT_BRACE, "}");
+        fixed(TokenType.LEFT_BRACKET, "[");
+        fixed(TokenType.RIGHT_BRACKET, "]");
+        fixed(TokenType.COMMA, ",");
+        fixed(TokenType.DOT, ".");
+        fixed(TokenType.COLON, ":");
+        fixed(TokenType.SEMICOLON, ";");
+        fixed(TokenType.ARROW, "->");
+        fixed(TokenType.EOF, "");
+    }
+
+    private static void fixed(TokenType type, String lexeme) {
+        FIXED[type.ordinal()] = lexeme;
+    }
+
+    /**
+     * @return Lexema fixo do tipo (pontuação e palavras-chave), ou
+     *         {@code null} para identificadores e literais.
+     */
+    static String fixedLexeme(TokenType type) {
+        return FIXED[type.ordinal()];
+    }
+
+    private final String source;
+    private final LexemePool pool;
+    private byte[] types;
+    private int[] starts;
+    private int[] ends;
+    private int[] lines;
+    private int[] columns;
+    private int size = 0;
+    /** Lexemas já materializados (criado sob demanda). */
+    private String[] lexemes;
+
+    PackedTokens(String source) {
+        this.source = source;
+        this.pool = new LexemePool(source);
+        // Estimativa folgada (código típico tem um token a cada ~4 caracteres)
+        // para evitar cópias ao crescer
+        int capacity = Math.max(16, source.length() / 3);
+        types = new byte[capacity];
+        starts = new int[capacity];
+        ends = new int[capacity];
+        lines = new int[capacity];
+        columns = new int[capacity];
+    }
+
+    /**
+     * Acrescenta um token cujo lexema é o trecho {@code [start, end)} do
+     * código-fonte.
+     */
+    void add(TokenType type, int start, int end, int line, int column) {
+        if (size == types.length) {
+            int capacity = size + (size >> 1);
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        ends[size] = end;
+        lines[size] = line;
+        columns[size] = column;
+        size++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public TokenType type(int index) {
+        checkIndex(index);
+        return TYPES[types[index]];
+    }
+
+    @Override
+    public String lexeme(int index) {
+        checkIndex(index);
+        String fixed = FIXED[types[index]];
+        if (fixed != null) {
+            return fixed;
+        }
+        if (lexemes == null) {
+            lexemes = new String[size];
+        }
+        String lexeme = lexemes[index];
+        if (lexeme == null) {
+            lexeme = pool.intern(starts[index], ends[index]);
+            lexemes[index] = lexeme;
+        }
+        return lexeme;
+    }
+
+    @Override
+    public int line(int index) {
+        checkIndex(index);
+        return lines[index];
+    }
+
+    @Override
+    public int column(int index) {
+        checkIndex(index);
+        return columns[index];
+    }
+
+    /**
+     * Posição inicial do lexema no código-fonte.
+     */
+    public int start(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    /**
+     * Posição final (exclusiva) do lexema no código-fonte.
+     */
+    public int end(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    /**
+     * Materializa todos os tokens em uma lista, no formato de
+     * {@link Lexer#scanTokens()}.
+     *
+     * @return Lista de tokens.
+     */
+    public List<Token> toList() {
+        List<Token> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(token(i));
+        }
+        return list;
+    }
+
+    private void checkIndex(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Token " + index + " fora do intervalo [0, " + size + ")");
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package lexer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Tokens reconhecidos sob demanda por {@link Lexer#nextToken()}, à medida que
+ * o parser avança.
+ * <p>
+ * Só uma janela circular dos últimos {@value #CAPACITY} tokens fica em
+ * memória: o parser olha no máximo dois tokens à frente e só consulta tokens
+ * recém-consumidos (a posição de cada nó é lida quando o seu primeiro token
+ * ainda é o atual, não depois de analisar o nó inteiro), de modo que a memória
+ * usada pelos tokens não depende do tamanho do código-fonte. Consultar um
+ * token que já saiu da janela é erro.
+ * <p>
+ * {@link #size()} vale {@link Integer#MAX_VALUE} até o EOF ser reconhecido;
+ * posições depois do EOF devolvem o próprio EOF.
+ * <p>
+ * Com {@link #prefetching(Lexer)}, a análise léxica (e a leitura do arquivo)
+ * roda em outra thread, em lotes, em paralelo com o parser.
+ */
+public final class StreamingTokens implements TokenStream, AutoCloseable {
+    private static final int CAPACITY = 1024;
+    private static final int MASK = CAPACITY - 1;
+    /** Tokens por lote no modo com leitura antecipada. */
+    private static final int BATCH = 4096;
+    /** Lotes prontos que a thread de leitura pode acumular. */
+    private static final int QUEUED_BATCHES = 4;
+
+    private final TokenType[] types = new TokenType[CAPACITY];
+    private final String[] lexemes = new String[CAPACITY];
+    private final int[] lines = new int[CAPACITY];
+    private final int[] columns = new int[CAPACITY];
+    /** Quantidade de tokens já recebidos do lexer. */
+    private int produced = 0;
+    /** Total de tokens, conhecido depois do EOF. */
+    private int size = Integer.MAX_VALUE;
+
+    private final Lexer lexer;
+    private final Prefetcher prefetcher;
+
+    /**
+     * Tokens reconhecidos na mesma thread do parser.
+     *
+     * @param lexer Lexer ainda não usado.
+     */
+    public StreamingTokens(Lexer lexer) {
+        this.lexer = lexer;
+        this.prefetcher = null;
+    }
+
+    private StreamingTokens(Prefetcher prefetcher) {
+        this.lexer = null;
+        this.prefetcher = prefetcher;
+    }
+
+    /**
+     * Tokens reconhecidos por uma thread dedicada, que lê o código-fonte
+     * adiante enquanto o parser consome os lotes já prontos.
+     *
+     * @param lexer Lexer ainda não usado; passa a pertencer à thread de leitura.
+     * @return Sequência de tokens; feche-a se o parser parar antes do EOF.
+     */
+    public static StreamingTokens prefetching(Lexer lexer) {
+        Prefetcher prefetcher = new Prefetcher(lexer);
+        prefetcher.start();
+        return new StreamingTokens(prefetcher);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public TokenType type(int index) {
+        return types[slot(index)];
+    }
+
+    @Override
+    public String lexeme(int index) {
+        return lexemes[slot(index)];
+    }
+
+    @Override
+    public int line(int index) {
+        return lines[slot(index)];
+    }
+
+    @Override
+    public int column(int index) {
+        return columns[slot(index)];
+    }
+
+    /**
+     * Interrompe a thread de leitura antecipada, se houver.
+     */
+    @Override
+    public void close() {
+        if (prefetcher != null) {
+            prefetcher.interrupt();
+        }
+    }
+
+    private int slot(int index) {
+        while (produced <= index && produced < size) {
+            if (prefetcher != null) {
+                prefetcher.next(this);
+            } else {
+                TokenType type = lexer.scanNext();
+                store(type, lexer.lastLexeme(), lexer.lastLine(), lexer.lastColumn());
+            }
+        }
+        if (index >= size) {
+            index = size - 1;
+        }
+        if (index < produced - CAPACITY) {
+            throw new IllegalStateException("Token " + index + " já saiu da janela de leitura (atual: "
+                    + (produced - 1) + ")");
+        }
+        return index & MASK;
+    }
+
+    private void store(TokenType type, String lexeme, int line, int column) {
+        int slot = produced & MASK;
+        types[slot] = type;
+        lexemes[slot] = lexeme;
+        lines[slot] = line;
+        columns[slot] = column;
+        produced++;
+        if (type == TokenType.EOF) {
+            size = produced;
+        }
+    }
+
+    /**
+     * Lote de tokens em arrays paralelos.
+     */
+    private static final class Batch {
+        final TokenType[] types;
+        final String[] lexemes;
+        final int[] lines;
+        final int[] columns;
+        int count = 0;
+
+        Batch(int capacity) {
+            types = new TokenType[capacity];
+            lexemes = new String[capacity];
+            lines = new int[capacity];
+            columns = new int[capacity];
+        }
+    }
+
+    /**
+     * Thread que roda o lexer e entrega os tokens em lotes.
+     */
+    private static final class Prefetcher extends Thread {
+        /** Lote vazio: marca de falha na thread de leitura. */
+        private static final Batch FAILED = new Batch(0);
+
+        private final Lexer lexer;
+        private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+        private volatile RuntimeException failure;
+        private Batch batch = FAILED;
+        /** Próximo token do lote atual; negativo depois de uma falha. */
+        private int position = 0;
+
+        Prefetcher(Lexer lexer) {
+            super("minipar-lexer");
+            setDaemon(true);
+            this.lexer = lexer;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Batch tokens = new Batch(BATCH);
+                    boolean done = false;
+                    while (tokens.count < BATCH && !done) {
+                        TokenType type = lexer.scanNext();
+                        int n = tokens.count++;
+                        tokens.types[n] = type;
+                        tokens.lexemes[n] = lexer.lastLexeme();
+                        tokens.lines[n] = lexer.lastLine();
+                        tokens.columns[n] = lexer.lastColumn();
+                        done = type == TokenType.EOF;
+                    }
+                    queue.put(tokens);
+                    if (done) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Encerrada por close()
+            } catch (RuntimeException e) {
+                failure = e;
+                try {
+                    queue.put(FAILED);
+                } catch (InterruptedException ignored) {
+                    // Encerrada por close()
+                }
+            }
+        }
+
+        /**
+         * Copia o próximo token para a janela do consumidor.
+         */
+        void next(StreamingTokens target) {
+            if (position < 0) {
+                throw failed();
+            }
+            if (position == batch.count) {
+                try {
+                    batch = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Leitura do código-fonte interrompida");
+                }
+                position = 0;
+                if (batch == FAILED) {
+                    position = -1;
+                    throw failed();
+                }
+            }
+            int i = position++;
+            target.store(batch.types[i], batch.lexemes[i], batch.lines[i], batch.columns[i]);
+        }
+
+        private RuntimeException failed() {
+            return new RuntimeException("Erro na leitura do código-fonte: " + failure.getMessage(), failure);
+        }
+    }
+}
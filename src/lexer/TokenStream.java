@@ -0,0 +1,96 @@
+package lexer;
+
+import java.util.List;
+
+/**
+ * Sequência de tokens acessada por índice.
+ * <p>
+ * Permite que o parser consuma tanto a lista de {@link Token} produzida por
+ * {@link Lexer#scanTokens()} quanto a representação compacta de
+ * {@link Lexer#scanPacked()}, sem criar um objeto por token. O último token é
+ * sempre {@link TokenType#EOF}.
+ * <p>
+ * Em {@link StreamingTokens} os tokens são produzidos conforme consultados e
+ * o tamanho só é conhecido ao chegar no EOF.
+ */
+public interface TokenStream {
+    /**
+     * @return Número de tokens, incluindo o EOF ({@link Integer#MAX_VALUE}
+     *         se ainda não for conhecido).
+     */
+    int size();
+
+    /**
+     * @param index Posição do token.
+     * @return Tipo do token.
+     */
+    TokenType type(int index);
+
+    /**
+     * @param index Posição do token.
+     * @return Texto do token (para strings, sem as aspas).
+     */
+    String lexeme(int index);
+
+    /**
+     * @param index Posição do token.
+     * @return Linha onde o token foi encontrado.
+     */
+    int line(int index);
+
+    /**
+     * @param index Posição do token.
+     * @return Coluna onde o token foi encontrado.
+     */
+    int column(int index);
+
+    /**
+     * Materializa o token na posição informada.
+     *
+     * @param index Posição do token.
+     * @return Token correspondente.
+     */
+    default Token token(int index) {
+        return new Token(type(index), lexeme(index), line(index), column(index));
+    }
+
+    /**
+     * Adapta uma lista de tokens.
+     *
+     * @param tokens Lista terminada por EOF.
+     * @return Visão indexada da lista.
+     */
+    static TokenStream of(List<Token> tokens) {
+        return new TokenStream() {
+            @Override
+            public int size() {
+                return tokens.size();
+            }
+
+            @Override
+            public TokenType type(int index) {
+                return tokens.get(index).type();
+            }
+
+            @Override
+            public String lexeme(int index) {
+                return tokens.get(index).lexeme();
+            }
+
+            @Override
+            public int line(int index) {
+                return tokens.get(index).line();
+            }
+
+            @Override
+            public int column(int index) {
+                return tokens.get(index).column();
+            }
+
+            @Override
+            public Token token(int index) {
+                return tokens.get(index);
+            }
+        };
+    }
+}
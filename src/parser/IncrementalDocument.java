@@ -0,0 +1,222 @@
+package parser;
+
+import lexer.EditableTokens;
+import parser.ast.ASTNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Documento do editor web analisado de forma incremental.
+ * <p>
+ * O texto é mantido em {@link EditableTokens} e o programa como uma sequência
+ * de unidades de nível superior (cada iteração de {@link Parser#parse()}), com
+ * o trecho de tokens que cada uma ocupa e o maior índice que o parser
+ * consultou para reconhecê-la. Após uma edição, as unidades que não
+ * consultaram nenhum token alterado são reaproveitadas; as demais são
+ * reanalisadas até que o parser volte a começar onde começava uma unidade
+ * antiga posterior à edição. As unidades seguintes são reaproveitadas sem
+ * alteração; a posição guardada nos seus nós ({@link ASTNode#position()})
+ * continua a da versão que os analisou, o que não afeta a árvore exibida no
+ * editor, que não inclui posições.
+ * <p>
+ * Unidades com erro sintático posteriores à edição são reanalisadas, para que
+ * as mensagens tragam as linhas atualizadas.
+ */
+public class IncrementalDocument {
+    private final EditableTokens tokens;
+    private final Parser parser;
+    private final List<Unit> units = new ArrayList<>();
+    private int version = 0;
+
+    /**
+     * Unidade de nível superior: tokens {@code [start, end)}, dependente dos
+     * tokens até {@code lookEnd} (exclusivo).
+     */
+    private static final class Unit {
+        int start;
+        int end;
+        int lookEnd;
+        ASTNode node;
+        String error;
+    }
+
+    /**
+     * Trecho alterado por uma edição.
+     *
+     * @param version           Versão do documento após a edição.
+     * @param tokens            Tokens substituídos.
+     * @param statementStart    Primeira instrução de nível superior alterada.
+     * @param statementsRemoved Quantidade de instruções antigas removidas.
+     * @param statements        Instruções novas, na ordem.
+     */
+    public record Change(int version, EditableTokens.Damage tokens, int statementStart, int statementsRemoved,
+            List<ASTNode> statements) {
+    }
+
+    /**
+     * Analisa o texto inicial do documento.
+     *
+     * @param text Código-fonte.
+     */
+    public IncrementalDocument(String text) {
+        this.tokens = new EditableTokens(text);
+        this.parser = new Parser(tokens);
+        parser.seek(0);
+        while (!parser.isAtEnd()) {
+            units.add(parseUnit(parser.position()));
+        }
+    }
+
+    /**
+     * Aplica uma edição ao documento.
+     *
+     * @param offset Posição da edição no texto.
+     * @param delete Quantidade de caracteres removidos.
+     * @param insert Texto inserido.
+     * @return Alterações nos tokens e nas instruções de nível superior.
+     */
+    public synchronized Change edit(int offset, int delete, String insert) {
+        EditableTokens.Damage damage = tokens.edit(offset, delete, insert);
+        int damageEnd = damage.start() + damage.removed();
+        int shift = damage.inserted() - damage.removed();
+
+        // Unidades que não consultaram tokens alterados continuam válidas
+        int first = 0;
+        while (first < units.size() && units.get(first).lookEnd <= damage.start()) {
+            first++;
+        }
+        // Candidatas a ponto de retomada: unidades inteiramente após a edição
+        int next = first;
+        while (next < units.size() && units.get(next).start < damageEnd) {
+            next++;
+        }
+
+        List<Unit> reparsed = new ArrayList<>();
+        int position = first < units.size() ? units.get(first).start
+                : units.isEmpty() ? 0 : units.get(units.size() - 1).end;
+        boolean resynced = false;
+        parser.seek(position);
+        while (!parser.isAtEnd()) {
+            while (next < units.size() && units.get(next).start + shift < position) {
+                next++;
+            }
+            if (next < units.size() && units.get(next).start + shift == position
+                    && units.get(next).error == null) {
+                resynced = true;
+                break;
+            }
+            Unit unit = parseUnit(position);
+            reparsed.add(unit);
+            position = unit.end;
+        }
+
+        List<Unit> tail = resynced ? units.subList(next, units.size()) : List.of();
+        for (Unit unit : tail) {
+            unit.start += shift;
+            unit.end += shift;
+            unit.lookEnd += shift;
+            if (unit.error != null) {
+                Unit refreshed = parseUnit(unit.start);
+                unit.end = refreshed.end;
+                unit.lookEnd = refreshed.lookEnd;
+                unit.error = refreshed.error;
+            }
+        }
+
+        int statementStart = countStatements(units.subList(0, first));
+        int statementsRemoved = countStatements(units.subList(first, resynced ? next : units.size()));
+        List<ASTNode> statements = new ArrayList<>();
+        for (Unit unit : reparsed) {
+            if (unit.node != null) {
+                statements.add(unit.node);
+            }
+        }
+
+        List<Unit> updated = new ArrayList<>(first + reparsed.size() + tail.size());
+        updated.addAll(units.subList(0, first));
+        updated.addAll(reparsed);
+        updated.addAll(tail);
+        units.clear();
+        units.addAll(updated);
+        version++;
+        return new Change(version, damage, statementStart, statementsRemoved, statements);
+    }
+
+    /**
+     * @return Tokens atuais do documento.
+     */
+    public EditableTokens tokens() {
+        return tokens;
+    }
+
+    /**
+     * @return Versão do documento (número de edições aplicadas).
+     */
+    public synchronized int version() {
+        return version;
+    }
+
+    /**
+     * @return Texto atual do documento.
+     */
+    public synchronized String text() {
+        return tokens.text();
+    }
+
+    /**
+     * @return Programa com as instruções de nível superior atuais.
+     */
+    public synchronized Program program() {
+        List<ASTNode> statements = new ArrayList<>();
+        for (Unit unit : units) {
+            if (unit.node != null) {
+                statements.add(unit.node);
+            }
+        }
+        return new Program(statements);
+    }
+
+    /**
+     * @return Mensagens de erro léxico e sintático do texto atual.
+     */
+    public synchronized List<String> errors() {
+        List<String> errors = new ArrayList<>(tokens.errors());
+        for (Unit unit : units) {
+            if (unit.error != null) {
+                errors.add(unit.error);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Analisa uma unidade de nível superior a partir do token informado.
+     */
+    private Unit parseUnit(int start) {
+        tokens.resetTouched();
+        parser.seek(start);
+        Unit unit = new Unit();
+        unit.start = start;
+        unit.node = parser.parseDeclaration();
+        unit.end = parser.position();
+        unit.lookEnd = Math.max(unit.end, tokens.maxTouched() + 1);
+        // Cada unidade gera no máximo um erro; a lista do parser não acumula
+        List<String> errors = parser.getErrors();
+        if (!errors.isEmpty()) {
+            unit.error = errors.get(errors.size() - 1);
+            errors.clear();
+        }
+        return unit;
+    }
+
+    private static int countStatements(List<Unit> units) {
+        int count = 0;
+        for (Unit unit : units) {
+            if (unit.node != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
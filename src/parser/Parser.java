@@ -1,6 +1,7 @@
 package parser;
 
 import lexer.Token;
+import lexer.TokenStream;
 import lexer.TokenType;
 
 import java.util.ArrayList;
@@ -12,14 +13,46 @@ import parser.ast.*;
  * (AST)
  * com suporte a Programação Orientada a Objetos.
  * <p>
- * Responsável por analisar uma lista de tokens e construir a estrutura
+ * Responsável por analisar uma sequência de tokens e construir a estrutura
  * sintática
  * correspondente ao código-fonte, incluindo suporte a classes, funções,
  * variáveis,
  * blocos sequenciais e paralelos, expressões e instruções de controle de fluxo.
  */
 public class Parser {
-    private final List<Token> tokens;
+    /** Níveis de precedência dos operadores binários, do menor ao maior. */
+    private static final int PREC_OR = 1;
+    private static final int PREC_AND = 2;
+    private static final int PREC_EQUALITY = 3;
+    private static final int PREC_COMPARISON = 4;
+    private static final int PREC_TERM = 5;
+    private static final int PREC_FACTOR = 6;
+
+    /**
+     * Precedência de cada tipo de token como operador binário, indexada por
+     * {@link TokenType#ordinal()}; 0 para tokens que não são operadores
+     * binários (inclusive o EOF), o que encerra a expressão.
+     */
+    private static final int[] PRECEDENCE = new int[TokenType.values().length];
+
+    static {
+        PRECEDENCE[TokenType.OR.ordinal()] = PREC_OR;
+        PRECEDENCE[TokenType.AND.ordinal()] = PREC_AND;
+        PRECEDENCE[TokenType.EQUAL_EQUAL.ordinal()] = PREC_EQUALITY;
+        PRECEDENCE[TokenType.NOT_EQUAL.ordinal()] = PREC_EQUALITY;
+        PRECEDENCE[TokenType.GREATER.ordinal()] = PREC_COMPARISON;
+        PRECEDENCE[TokenType.GREATER_EQUAL.ordinal()] = PREC_COMPARISON;
+        PRECEDENCE[TokenType.LESS.ordinal()] = PREC_COMPARISON;
+        PRECEDENCE[TokenType.LESS_EQUAL.ordinal()] = PREC_COMPARISON;
+        PRECEDENCE[TokenType.PLUS.ordinal()] = PREC_TERM;
+        PRECEDENCE[TokenType.MINUS.ordinal()] = PREC_TERM;
+        PRECEDENCE[TokenType.STAR.ordinal()] = PREC_FACTOR;
+        PRECEDENCE[TokenType.SLASH.ordinal()] = PREC_FACTOR;
+        PRECEDENCE[TokenType.MOD.ordinal()] = PREC_FACTOR;
+    }
+
+    private final TokenStream tokens;
+    private final List<String> errors = new ArrayList<>();
     private int current = 0;
 
     /**
@@ -28,6 +61,18 @@ public class Parser {
      * @param tokens Lista de tokens a serem analisados.
      */
     public Parser(List<Token> tokens) {
+        this(TokenStream.of(tokens));
+    }
+
+    /**
+     * Construtor do Parser sobre uma sequência indexada de tokens (por exemplo,
+     * a produzida por {@link lexer.Lexer#scanPacked()} ou a lida sob demanda
+     * por {@link lexer.StreamingTokens}). O parser acessa apenas o token
+     * anterior e até dois tokens à frente do atual.
+     *
+     * @param tokens Tokens a serem analisados, terminados por EOF.
+     */
+    public Parser(TokenStream tokens) {
         this.tokens = tokens;
     }
 
@@ -41,28 +86,74 @@ public class Parser {
         List<ASTNode> statements = new ArrayList<>();
 
         while (!isAtEnd()) {
-            try {
-                ASTNode decl = declaration();
-                if (decl != null) {
-                    statements.add(decl);
-                }
-            } catch (ParseException e) {
-                System.err.println(e.getMessage());
-                synchronize();
+            ASTNode decl = parseDeclaration();
+            if (decl != null) {
+                statements.add(decl);
             }
         }
 
         return new Program(statements);
     }
 
+    /**
+     * Realiza o parsing de uma única unidade de nível superior a partir da
+     * posição atual (uma iteração de {@link #parse()}): uma declaração ou, em
+     * caso de erro, a recuperação até o próximo ponto seguro.
+     *
+     * @return Declaração reconhecida, ou null se houve erro.
+     */
+    public ASTNode parseDeclaration() {
+        try {
+            return declaration();
+        } catch (ParseException e) {
+            errors.add(e.getMessage());
+            System.err.println(e.getMessage());
+            synchronize();
+            return null;
+        }
+    }
+
+    /**
+     * @return Índice do próximo token a ser analisado.
+     */
+    public int position() {
+        return current;
+    }
+
+    /**
+     * Reposiciona o parser, por exemplo no início de uma declaração a ser
+     * reanalisada após uma edição.
+     *
+     * @param index Índice do token.
+     */
+    public void seek(int index) {
+        current = index;
+    }
+
+    /**
+     * Retorna as mensagens de erro sintático emitidas durante o parsing.
+     *
+     * @return Lista de mensagens, na ordem em que foram emitidas.
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
     /**
      * Realiza o parsing de uma declaração.
      * Pode ser uma declaração de instância, classe, função, variável ou uma
      * instrução.
      *
-     * @return ASTNode representando a declaração encontrada.
+     * @return ASTNode representando a declaração encontrada, com a posição do
+     *         seu primeiro token (em instruções que são expressões, a posição
+     *         da própria expressão).
      */
     private ASTNode declaration() {
+        int start = positionOf(current);
+        return at(start, declarationNode());
+    }
+
+    private ASTNode declarationNode() {
         if (match(TokenType.CLASS)) {
             return classDeclaration();
         }
@@ -87,14 +178,14 @@ public class Parser {
      * @throws ParseException se a sintaxe estiver incorreta.
      */
     private VarDecl instanceDeclaration() {
-        Token typeToken = advance(); // Tipo
-        String type = typeToken.lexeme();
-        Token nameToken = consume(TokenType.ID, "Esperado nome da variável após tipo");
-        String varName = nameToken.lexeme();
+        int typeToken = advance(); // Tipo
+        String type = lexeme(typeToken);
+        int nameToken = consume(TokenType.ID, "Esperado nome da variável após tipo");
+        String varName = lexeme(nameToken);
         consume(TokenType.EQUAL, "Esperado '=' após nome da variável");
         consume(TokenType.NEW, "Esperado 'new' para instanciar objeto");
-        Token classToken = consume(TokenType.ID, "Esperado nome da classe após 'new'");
-        String className = classToken.lexeme();
+        int classToken = consume(TokenType.ID, "Esperado nome da classe após 'new'");
+        String className = lexeme(classToken);
         consume(TokenType.LEFT_PAREN, "Esperado '(' após nome da classe");
         List<ASTNode> arguments = arguments();
         consume(TokenType.RIGHT_PAREN, "Esperado ')' após argumentos do construtor");
@@ -110,13 +201,13 @@ public class Parser {
      * @return ClassDecl representando a classe.
      */
     private ClassDecl classDeclaration() {
-        Token nameToken = consume(TokenType.ID, "Esperado nome da classe");
-        String className = nameToken.lexeme();
+        int nameToken = consume(TokenType.ID, "Esperado nome da classe");
+        String className = lexeme(nameToken);
 
         String superClass = null;
         if (match(TokenType.EXTENDS)) {
-            Token superToken = consume(TokenType.ID, "Esperado nome da superclasse");
-            superClass = superToken.lexeme();
+            int superToken = consume(TokenType.ID, "Esperado nome da superclasse");
+            superClass = lexeme(superToken);
         }
 
         consume(TokenType.LEFT_BRACE, "Esperado '{' após declaração da classe");
@@ -126,16 +217,17 @@ public class Parser {
 
         while (!check(TokenType.RIGHT_BRACE) && !isAtEnd()) {
             // Verifica primeiro atributos, depois construtor e métodos
+            int start = positionOf(current);
             if (isVarDeclStart()) {
                 // Atributo (declaração de variável)
-                attributes.add(varDeclaration());
+                attributes.add(at(start, varDeclaration()));
             } else if (isConstructorStart(className)) {
-                methods.add(constructorDeclaration(className));
+                methods.add(at(start, constructorDeclaration(className)));
             } else if (isMethodStart()) {
                 // Método: <tipo> <id>(...)
-                methods.add(methodDeclaration());
+                methods.add(at(start, methodDeclaration()));
             } else {
-                throw error(peek(), "Esperado declaração de método ou atributo");
+                throw error(current, "Esperado declaração de método ou atributo");
             }
         }
 
@@ -151,14 +243,13 @@ public class Parser {
     private boolean isConstructorStart(String className) {
         if (isAtEnd())
             return false;
-        Token t0 = peek();
-        if (t0.type() != TokenType.ID)
+        if (tokens.type(current) != TokenType.ID)
             return false;
-        if (!t0.lexeme().equals(className))
+        if (!lexeme(current).equals(className))
             return false;
         if (current + 1 >= tokens.size())
             return false;
-        return tokens.get(current + 1).type() == TokenType.LEFT_PAREN;
+        return tokens.type(current + 1) == TokenType.LEFT_PAREN;
     }
 
     /**
@@ -184,11 +275,11 @@ public class Parser {
      * @return MethodDecl representando o método.
      */
     private MethodDecl methodDeclaration() {
-        Token returnTypeToken = advance();
-        String returnType = returnTypeToken.lexeme();
+        int returnTypeToken = advance();
+        String returnType = lexeme(returnTypeToken);
 
-        Token nameToken = consume(TokenType.ID, "Esperado nome do método");
-        String methodName = nameToken.lexeme();
+        int nameToken = consume(TokenType.ID, "Esperado nome do método");
+        String methodName = lexeme(nameToken);
 
         consume(TokenType.LEFT_PAREN, "Esperado '(' após nome do método");
         List<Parameter> parameters = parameters();
@@ -207,16 +298,16 @@ public class Parser {
      * @return FuncDecl representando a função.
      */
     private FuncDecl functionDeclaration() {
-        Token nameToken = consume(TokenType.ID, "Esperado nome da função");
-        String funcName = nameToken.lexeme();
+        int nameToken = consume(TokenType.ID, "Esperado nome da função");
+        String funcName = lexeme(nameToken);
 
         consume(TokenType.LEFT_PAREN, "Esperado '(' após nome da função");
         List<Parameter> parameters = parameters();
         consume(TokenType.RIGHT_PAREN, "Esperado ')' após parâmetros");
 
         consume(TokenType.ARROW, "Esperado '->' após parâmetros da função");
-        Token returnTypeToken = advance();
-        String returnType = returnTypeToken.lexeme();
+        int returnTypeToken = advance();
+        String returnType = lexeme(returnTypeToken);
 
         consume(TokenType.LEFT_BRACE, "Esperado '{' antes do corpo da função");
         List<ASTNode> body = block();
@@ -237,9 +328,9 @@ public class Parser {
 
         if (!check(TokenType.RIGHT_PAREN)) {
             do {
-                Token typeToken = consumeTypeTokenOrId("Esperado tipo do parâmetro");
-                Token nameToken = consume(TokenType.ID, "Esperado nome do parâmetro");
-                params.add(new Parameter(nameToken.lexeme(), typeToken.lexeme()));
+                int typeToken = consumeTypeTokenOrId("Esperado tipo do parâmetro");
+                int nameToken = consume(TokenType.ID, "Esperado nome do parâmetro");
+                params.add(new Parameter(lexeme(nameToken), lexeme(typeToken)));
             } while (match(TokenType.COMMA));
         }
 
@@ -247,14 +338,13 @@ public class Parser {
     }
 
     /** Consome um token de tipo embutido ou um identificador (tipo customizado). */
-    private Token consumeTypeTokenOrId(String message) {
+    private int consumeTypeTokenOrId(String message) {
         if (isAtEnd())
-            throw error(peek(), message);
-        Token t = peek();
-        if (isTypeTokenOrId(t.type())) {
+            throw error(current, message);
+        if (isTypeTokenOrId(tokens.type(current))) {
             return advance();
         }
-        throw error(t, message);
+        throw error(current, message);
     }
 
     /**
@@ -264,10 +354,10 @@ public class Parser {
      */
     private VarDecl varDeclaration() {
         // <tipo> <identificador> [= <expressao>] ;
-        Token typeToken = advance();
-        String type = typeToken.lexeme();
-        Token nameToken = consume(TokenType.ID, "Esperado nome da variável");
-        String varName = nameToken.lexeme();
+        int typeToken = advance();
+        String type = lexeme(typeToken);
+        int nameToken = consume(TokenType.ID, "Esperado nome da variável");
+        String varName = lexeme(nameToken);
 
         ASTNode initializer = null;
         if (match(TokenType.EQUAL)) {
@@ -287,19 +377,19 @@ public class Parser {
         if (match(TokenType.LEFT_PAREN)) {
             if (!check(TokenType.RIGHT_PAREN)) {
                 do {
-                    Token nameToken = consume(TokenType.ID, "Esperado nome do canal");
-                    nomes.add(nameToken.lexeme());
+                    int nameToken = consume(TokenType.ID, "Esperado nome do canal");
+                    nomes.add(lexeme(nameToken));
                 } while (match(TokenType.COMMA));
             }
             consume(TokenType.RIGHT_PAREN, "Esperado ')' após nomes dos canais");
         } else {
             // Sintaxe alternativa: c_channel canal comp1 comp2
-            Token canal = consume(TokenType.ID, "Esperado nome do canal");
-            Token comp1 = consume(TokenType.ID, "Esperado identificador do primeiro componente");
-            Token comp2 = consume(TokenType.ID, "Esperado identificador do segundo componente");
-            nomes.add(canal.lexeme());
-            nomes.add(comp1.lexeme());
-            nomes.add(comp2.lexeme());
+            int canal = consume(TokenType.ID, "Esperado nome do canal");
+            int comp1 = consume(TokenType.ID, "Esperado identificador do primeiro componente");
+            int comp2 = consume(TokenType.ID, "Esperado identificador do segundo componente");
+            nomes.add(lexeme(canal));
+            nomes.add(lexeme(comp1));
+            nomes.add(lexeme(comp2));
         }
         consume(TokenType.SEMICOLON, "Esperado ';' ao final da declaração de canal");
         return new CanalDecl(nomes);
@@ -359,9 +449,10 @@ public class Parser {
         List<ASTNode> elseBranch = null;
 
         if (match(TokenType.ELSE)) {
+            int start = positionOf(current);
             if (match(TokenType.IF)) {
                 // else if: encadeia outro IfStmt
-                elseBranch = List.of(ifStatement()); // Encapsula IfStmt em uma lista
+                elseBranch = List.of(at(start, ifStatement())); // Encapsula IfStmt em uma lista
             } else {
                 consume(TokenType.LEFT_BRACE, "Esperado '{' após else");
                 elseBranch = block();
@@ -411,9 +502,9 @@ public class Parser {
     private ForStmt forStatement() {
         consume(TokenType.LEFT_PAREN, "Esperado '(' após 'for'");
         // Forma: <tipo> <id> in expr
-        Token typeToken = consumeTypeTokenOrId("Esperado tipo no for");
-        Token nameToken = consume(TokenType.ID, "Esperado nome da variável do for");
-        VarDecl variable = new VarDecl(nameToken.lexeme(), typeToken.lexeme(), null);
+        int typeToken = consumeTypeTokenOrId("Esperado tipo no for");
+        int nameToken = consume(TokenType.ID, "Esperado nome da variável do for");
+        VarDecl variable = at(positionOf(typeToken), new VarDecl(lexeme(nameToken), lexeme(typeToken), null));
         consume(TokenType.IN, "Esperado 'in' no for");
         ASTNode iterable = expression();
         consume(TokenType.RIGHT_PAREN, "Esperado ')' após cláusula do for");
@@ -523,129 +614,55 @@ public class Parser {
      * @return ASTNode da atribuição.
      */
     private ASTNode assignment() {
-        ASTNode expr = logicOr();
+        ASTNode expr = binary(PREC_OR);
 
         if (match(TokenType.EQUAL)) {
             ASTNode value = assignment();
 
             if (expr instanceof Identifier) {
                 String name = ((Identifier) expr).name;
-                return new Assignment(name, value);
+                return samePosition(expr, new Assignment(name, value));
             }
 
             if (expr instanceof PropertyAccess) {
                 PropertyAccess pa = (PropertyAccess) expr;
-                return new PropertyAssign(pa.object, pa.propertyName, value);
+                return samePosition(expr, new PropertyAssign(pa.object, pa.propertyName, value));
             }
 
             if (expr instanceof IndexExpr) {
                 IndexExpr ie = (IndexExpr) expr;
-                return new IndexAssign(ie.target, ie.index, value);
+                return samePosition(expr, new IndexAssign(ie.target, ie.index, value));
             }
 
-            throw error(previous(), "Alvo de atribuição inválido");
-        }
-
-        return expr;
-    }
-
-    /**
-     * Realiza o parsing de uma expressão lógica OR.
-     *
-     * @return ASTNode da expressão lógica OR.
-     */
-    private ASTNode logicOr() {
-        ASTNode expr = logicAnd();
-
-        while (match(TokenType.OR)) {
-            String operator = previous().lexeme();
-            ASTNode right = logicAnd();
-            expr = new BinaryExpr(expr, operator, right);
-        }
-
-        return expr;
-    }
-
-    /**
-     * Realiza o parsing de uma expressão lógica AND.
-     *
-     * @return ASTNode da expressão lógica AND.
-     */
-    private ASTNode logicAnd() {
-        ASTNode expr = equality();
-
-        while (match(TokenType.AND)) {
-            String operator = previous().lexeme();
-            ASTNode right = equality();
-            expr = new BinaryExpr(expr, operator, right);
-        }
-
-        return expr;
-    }
-
-    /**
-     * Realiza o parsing de uma expressão de igualdade.
-     *
-     * @return ASTNode da expressão de igualdade.
-     */
-    private ASTNode equality() {
-        ASTNode expr = comparison();
-
-        while (match(TokenType.EQUAL_EQUAL, TokenType.NOT_EQUAL)) {
-            String operator = previous().lexeme();
-            ASTNode right = comparison();
-            expr = new BinaryExpr(expr, operator, right);
+            throw error(current - 1, "Alvo de atribuição inválido");
         }
 
         return expr;
     }
 
     /**
-     * Realiza o parsing de uma expressão de comparação.
+     * Realiza o parsing de uma expressão binária por precedência (Pratt):
+     * consome operandos unários enquanto o operador seguinte tiver precedência
+     * de pelo menos {@code minPrecedence}. Todos os operadores binários são
+     * associativos à esquerda, por isso o operando direito exige precedência
+     * estritamente maior.
      *
-     * @return ASTNode da expressão de comparação.
+     * @param minPrecedence Menor precedência aceita (ver {@link #PRECEDENCE}).
+     * @return ASTNode da expressão binária.
      */
-    private ASTNode comparison() {
-        ASTNode expr = term();
-
-        while (match(TokenType.GREATER, TokenType.GREATER_EQUAL, TokenType.LESS, TokenType.LESS_EQUAL)) {
-            String operator = previous().lexeme();
-            ASTNode right = term();
-            expr = new BinaryExpr(expr, operator, right);
-        }
-
-        return expr;
-    }
-
-    /**
-     * Realiza o parsing de uma expressão de termo (adição/subtração).
-     *
-     * @return ASTNode da expressão de termo.
-     */
-    private ASTNode term() {
-        ASTNode expr = factor();
-
-        while (match(TokenType.PLUS, TokenType.MINUS)) {
-            String operator = previous().lexeme();
-            ASTNode right = factor();
-            expr = new BinaryExpr(expr, operator, right);
-        }
-
-        return expr;
-    }
-
-    /**
-     * Realiza o parsing de uma expressão de fator (multiplicação/divisão/módulo).
-     *
-     * @return ASTNode da expressão de fator.
-     */
-    private ASTNode factor() {
+    private ASTNode binary(int minPrecedence) {
         ASTNode expr = unary();
 
-        while (match(TokenType.STAR, TokenType.SLASH, TokenType.MOD)) {
-            String operator = previous().lexeme();
-            ASTNode right = unary();
-            expr = new BinaryExpr(expr, operator, right);
+        while (true) {
+            int precedence = PRECEDENCE[tokens.type(current).ordinal()];
+            if (precedence < minPrecedence) {
+                break;
+            }
+            int operatorToken = advance();
+            int position = positionOf(operatorToken);
+            String operator = lexeme(operatorToken);
+            ASTNode right = binary(precedence + 1);
+            expr = at(position, new BinaryExpr(expr, operator, right));
         }
 
         return expr;
@@ -657,10 +674,13 @@ public class Parser {
      * @return ASTNode da expressão unária.
      */
     private ASTNode unary() {
-        if (match(TokenType.BANG, TokenType.MINUS)) {
-            String operator = previous().lexeme();
+        TokenType type = tokens.type(current);
+        if (type == TokenType.BANG || type == TokenType.MINUS) {
+            int operatorToken = advance();
+            int position = positionOf(operatorToken);
+            String operator = lexeme(operatorToken);
             ASTNode right = unary();
-            return new UnaryExpr(operator, right);
+            return at(position, new UnaryExpr(operator, right));
         }
 
         return call();
@@ -678,37 +698,42 @@ public class Parser {
             if (match(TokenType.LEFT_PAREN)) {
                 expr = finishCall(expr);
             } else if (match(TokenType.DOT)) {
-                Token name;
-                // Aceita ID, SEND ou RECEIVE como nome do método/propriedade
-                if (match(TokenType.ID, TokenType.SEND, TokenType.RECEIVE)) {
-                    name = previous();
+                int position = positionOf(current);
+                String name;
+                // Aceita ID, SEND ou RECEIVE como nome do método/propriedade.
+                // O lexema é lido já: os argumentos podem ser longos e, com
+                // StreamingTokens, o token sairia da janela
+                TokenType type = tokens.type(current);
+                if (type == TokenType.ID || type == TokenType.SEND || type == TokenType.RECEIVE) {
+                    name = lexeme(advance());
                 } else {
-                    throw error(peek(),
-                            "Esperado nome do método/propriedade após '.' (encontrado: '" + peek().lexeme() + "')");
+                    throw error(current,
+                            "Esperado nome do método/propriedade após '.' (encontrado: '" + lexeme(current) + "')");
                 }
                 // send/receive como nós específicos
-                if (name.lexeme().equals("send") || name.lexeme().equals("receive")) {
-                    consume(TokenType.LEFT_PAREN, "Esperado '(' após '" + name.lexeme() + "'");
+                if (name.equals("send") || name.equals("receive")) {
+                    consume(TokenType.LEFT_PAREN, "Esperado '(' após '" + name + "'");
                     List<ASTNode> args = arguments();
                     consume(TokenType.RIGHT_PAREN, "Esperado ')' após argumentos");
-                    if (name.lexeme().equals("send")) {
-                        expr = new SendStmt(expr, args);
+                    if (name.equals("send")) {
+                        expr = at(position, new SendStmt(expr, args));
                     } else {
-                        expr = new ReceiveStmt(expr, args);
+                        expr = at(position, new ReceiveStmt(expr, args));
                     }
                 } else if (match(TokenType.LEFT_PAREN)) {
                     // chamada de método comum
                     List<ASTNode> arguments = arguments();
                     consume(TokenType.RIGHT_PAREN, "Esperado ')' após argumentos");
-                    expr = new MethodCall(expr, name.lexeme(), arguments);
+                    expr = at(position, new MethodCall(expr, name, arguments));
                 } else {
                     // acesso a propriedade
-                    expr = new PropertyAccess(expr, name.lexeme());
+                    expr = at(position, new PropertyAccess(expr, name));
                 }
             } else if (match(TokenType.LEFT_BRACKET)) {
+                int position = positionOf(current - 1);
                 ASTNode indexExpr = expression();
                 consume(TokenType.RIGHT_BRACKET, "Esperado ']' após índice");
-                expr = new IndexExpr(expr, indexExpr);
+                expr = at(position, new IndexExpr(expr, indexExpr));
             } else {
                 break;
             }
@@ -729,10 +754,10 @@ public class Parser {
         consume(TokenType.RIGHT_PAREN, "Esperado ')' após argumentos");
 
         if (callee instanceof Identifier) {
-            return new FunctionCall(((Identifier) callee).name, arguments);
+            return samePosition(callee, new FunctionCall(((Identifier) callee).name, arguments));
         }
 
-        throw error(previous(), "Chamada inválida");
+        throw error(current - 1, "Chamada inválida");
     }
 
     /**
@@ -755,10 +780,16 @@ public class Parser {
     /**
      * Realiza o parsing de uma expressão primária.
      *
-     * @return ASTNode da expressão primária.
+     * @return ASTNode da expressão primária, com a posição do seu primeiro
+     *         token (ou a da expressão interna, se entre parênteses).
      * @throws ParseException se não encontrar expressão válida.
      */
     private ASTNode primary() {
+        int start = positionOf(current);
+        return at(start, primaryNode());
+    }
+
+    private ASTNode primaryNode() {
         if (match(TokenType.TRUE)) {
             return new Literal(true);
         }
@@ -779,16 +810,20 @@ public class Parser {
         }
 
         if (match(TokenType.NUMBER)) {
-            String lexeme = previous().lexeme();
+            String lexeme = lexeme(current - 1);
             if (lexeme.contains(".")) {
                 return new Literal(Double.parseDouble(lexeme));
-            } else {
-                return new Literal(Integer.parseInt(lexeme));
+            }
+            try {
+                return new Literal(Long.parseLong(lexeme));
+            } catch (NumberFormatException e) {
+                // Além de 64 bits: mantém o valor aproximado
+                return new Literal(Double.parseDouble(lexeme));
             }
         }
 
         if (match(TokenType.STRING)) {
-            return new Literal(previous().lexeme());
+            return new Literal(lexeme(current - 1));
         }
 
         if (match(TokenType.INPUT)) {
@@ -818,11 +853,11 @@ public class Parser {
         }
 
         if (match(TokenType.NEW)) {
-            Token className = consume(TokenType.ID, "Esperado nome da classe após 'new'");
+            String className = lexeme(consume(TokenType.ID, "Esperado nome da classe após 'new'"));
             consume(TokenType.LEFT_PAREN, "Esperado '(' após nome da classe");
             List<ASTNode> arguments = arguments();
             consume(TokenType.RIGHT_PAREN, "Esperado ')' após argumentos do construtor");
-            return new NewInstance(className.lexeme(), arguments);
+            return new NewInstance(className, arguments);
         }
 
         if (match(TokenType.LEFT_BRACKET)) {
@@ -853,7 +888,7 @@ public class Parser {
         }
 
         if (match(TokenType.ID)) {
-            return new Identifier(previous().lexeme());
+            return new Identifier(lexeme(current - 1));
         }
 
         if (match(TokenType.LEFT_PAREN)) {
@@ -862,24 +897,21 @@ public class Parser {
             return expr;
         }
 
-        throw error(peek(), "Esperado expressão");
+        throw error(current, "Esperado expressão");
     }
 
     // ===== Métodos auxiliares =====
 
     /**
-     * Verifica se o próximo token corresponde a algum dos tipos informados e
-     * avança.
+     * Verifica se o próximo token corresponde ao tipo informado e avança.
      *
-     * @param types Tipos de token a verificar.
-     * @return true se algum tipo corresponde, false caso contrário.
+     * @param type Tipo de token a verificar.
+     * @return true se corresponde, false caso contrário.
      */
-    private boolean match(TokenType... types) {
-        for (TokenType type : types) {
-            if (check(type)) {
-                advance();
-                return true;
-            }
+    private boolean match(TokenType type) {
+        if (check(type)) {
+            advance();
+            return true;
         }
         return false;
     }
@@ -893,7 +925,7 @@ public class Parser {
     private boolean check(TokenType type) {
         if (isAtEnd())
             return false;
-        return peek().type() == type;
+        return tokens.type(current) == type;
     }
 
     /**
@@ -906,8 +938,8 @@ public class Parser {
     private boolean checkSequence(TokenType type1, TokenType type2) {
         // Simplificado para refletir o comportamento esperado
         return current + 1 < tokens.size() &&
-                tokens.get(current).type() == TokenType.ID &&
-                tokens.get(current + 1).type() == TokenType.ID;
+                tokens.type(current) == TokenType.ID &&
+                tokens.type(current + 1) == TokenType.ID;
     }
 
     /**
@@ -920,7 +952,7 @@ public class Parser {
         if (isAtEnd())
             return false;
 
-        TokenType currentType = peek().type();
+        TokenType currentType = tokens.type(current);
 
         // Verifica se é um tipo de retorno válido (void, string, number, bool ou ID
         // customizado)
@@ -934,10 +966,10 @@ public class Parser {
 
         // Verifica se o próximo token é um ID (nome do método) e o seguinte é '('
         if (isReturnType && current + 1 < tokens.size()) {
-            if (tokens.get(current + 1).type() != TokenType.ID)
+            if (tokens.type(current + 1) != TokenType.ID)
                 return false;
             if (current + 2 < tokens.size()) {
-                return tokens.get(current + 2).type() == TokenType.LEFT_PAREN;
+                return tokens.type(current + 2) == TokenType.LEFT_PAREN;
             }
         }
 
@@ -951,17 +983,17 @@ public class Parser {
     private boolean isVarDeclStart() {
         if (isAtEnd())
             return false;
-        TokenType t0 = peek().type();
+        TokenType t0 = tokens.type(current);
         if (!isTypeTokenOrId(t0))
             return false;
         if (current + 1 >= tokens.size())
             return false;
-        TokenType t1 = tokens.get(current + 1).type();
+        TokenType t1 = tokens.type(current + 1);
         if (t1 != TokenType.ID)
             return false;
         // Heurística: se depois do nome vier '=' ou ';', tratamos como declaração
         if (current + 2 < tokens.size()) {
-            TokenType t2 = tokens.get(current + 2).type();
+            TokenType t2 = tokens.type(current + 2);
             if (t2 == TokenType.EQUAL || t2 == TokenType.SEMICOLON)
                 return true;
         }
@@ -980,41 +1012,70 @@ public class Parser {
     }
 
     /**
-     * Avança para o próximo token.
+     * Posição compactada (linha e coluna) do token informado. Deve ser obtida
+     * enquanto o token ainda está próximo do atual: com
+     * {@link lexer.StreamingTokens}, tokens antigos saem da janela de leitura.
      *
-     * @return Token anterior ao avanço.
+     * @param index Índice do token.
+     * @return Posição compactada por {@link ASTNode#packPosition(int, int)}.
      */
-    private Token advance() {
-        if (!isAtEnd())
-            current++;
-        return previous();
+    private int positionOf(int index) {
+        return ASTNode.packPosition(tokens.line(index), tokens.column(index));
     }
 
     /**
-     * Verifica se chegou ao final da lista de tokens.
+     * Registra no nó a posição em que ele começa, se ainda não registrada
+     * (prevalece a do nó mais interno, por exemplo a de uma expressão entre
+     * parênteses ou a do nome de um método chamado como instrução).
      *
-     * @return true se está no final, false caso contrário.
+     * @param position Posição compactada obtida com {@link #positionOf(int)}.
+     * @return O próprio nó.
      */
-    private boolean isAtEnd() {
-        return peek().type() == TokenType.EOF;
+    private <T extends ASTNode> T at(int position, T node) {
+        if (node.position() == 0)
+            node.setPosition(position);
+        return node;
     }
 
     /**
-     * Retorna o token atual.
+     * Registra no nó a mesma posição de outro nó (por exemplo, a atribuição
+     * na posição do seu alvo).
      *
-     * @return Token atual.
+     * @return O nó informado.
+     */
+    private static <T extends ASTNode> T samePosition(ASTNode from, T node) {
+        node.setPosition(from.position());
+        return node;
+    }
+
+    /**
+     * Avança para o próximo token.
+     *
+     * @return Índice do token anterior ao avanço.
+     */
+    private int advance() {
+        if (!isAtEnd())
+            current++;
+        return current - 1;
+    }
+
+    /**
+     * Verifica se chegou ao final da lista de tokens.
+     *
+     * @return true se está no final, false caso contrário.
      */
-    private Token peek() {
-        return tokens.get(current);
+    public boolean isAtEnd() {
+        return tokens.type(current) == TokenType.EOF;
     }
 
     /**
-     * Retorna o token anterior.
+     * Retorna o texto do token na posição informada.
      *
-     * @return Token anterior.
+     * @param index Índice do token.
+     * @return Lexema do token.
      */
-    private Token previous() {
-        return tokens.get(current - 1);
+    private String lexeme(int index) {
+        return tokens.lexeme(index);
     }
 
     /**
@@ -1022,26 +1083,26 @@ public class Parser {
      *
      * @param type    Tipo esperado.
      * @param message Mensagem de erro caso não corresponda.
-     * @return Token consumido.
+     * @return Índice do token consumido.
      * @throws ParseException se o tipo não corresponder.
      */
-    private Token consume(TokenType type, String message) {
+    private int consume(TokenType type, String message) {
         if (check(type))
             return advance();
-        throw error(peek(), message);
+        throw error(current, message);
     }
 
     /**
      * Cria uma exceção de erro sintático.
      *
-     * @param token   Token onde ocorreu o erro.
+     * @param index   Índice do token onde ocorreu o erro.
      * @param message Mensagem de erro.
      * @return ParseException criada.
      */
-    private ParseException error(Token token, String message) {
-        String error = "[Erro Sintático] Linha " + token.line() +
-                ", Coluna " + token.column() + ": " + message +
-                " (encontrado: '" + token.lexeme() + "')";
+    private ParseException error(int index, String message) {
+        String error = "[Erro Sintático] Linha " + tokens.line(index) +
+                ", Coluna " + tokens.column(index) + ": " + message +
+                " (encontrado: '" + tokens.lexeme(index) + "')";
         return new ParseException(error);
     }
 
@@ -1052,10 +1113,10 @@ public class Parser {
         advance();
 
         while (!isAtEnd()) {
-            if (previous().type() == TokenType.NEWLINE)
+            if (tokens.type(current - 1) == TokenType.NEWLINE)
                 return;
 
-            switch (peek().type()) {
+            switch (tokens.type(current)) {
                 case CLASS:
                 case FUNC:
                 case VAR:
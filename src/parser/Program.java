@@ -1,6 +1,7 @@
 package parser;
 
 import parser.ast.ASTNode;
+import parser.ast.ASTVisitor;
 
 import java.util.List;
 
@@ -8,14 +9,19 @@ import java.util.List;
  * Programa completo
  */
 public class Program extends ASTNode {
-    public List<ASTNode> statements;
+    public final List<ASTNode> statements;
 
     /**
      * Construtor do nó Program.
      * @param statements Lista de nós AST representando as instruções do programa.
      */
     public Program(List<ASTNode> statements) {
-        this.statements = statements;
+        this.statements = List.copyOf(statements);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitProgram(this);
     }
 
     /**
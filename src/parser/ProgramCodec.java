@@ -0,0 +1,750 @@
+package parser;
+
+import parser.ast.*;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato binário do programa pré-compilado ({@code .miniparc}): a AST
+ * serializada, para executar um programa sem repetir as análises léxica e
+ * sintática.
+ * <p>
+ * Estrutura do arquivo:
+ * <ul>
+ * <li>assinatura {@code MPRC} e versão do formato (2 bytes);</li>
+ * <li>hash SHA-256 do código-fonte (32 bytes), usado para saber se o arquivo
+ * ainda corresponde à fonte;</li>
+ * <li>tabela de strings: quantidade e, para cada uma, o tamanho e os bytes em
+ * UTF-8 (nomes, tipos, operadores e literais aparecem uma única vez);</li>
+ * <li>a árvore em pré-ordem: cada nó é uma etiqueta de 1 byte seguida da
+ * posição em que começa no código-fonte ({@link ASTNode#position()}) e dos
+ * seus campos, na ordem de declaração.</li>
+ * </ul>
+ * Inteiros sem sinal são gravados em varint (7 bits por byte); referências a
+ * strings e tamanhos de listas que podem ser nulos são gravados somados de 1,
+ * com 0 representando {@code null}. A etiqueta 0 representa um nó nulo.
+ */
+public final class ProgramCodec {
+    /** Extensão dos arquivos pré-compilados. */
+    public static final String EXTENSION = ".miniparc";
+
+    private static final byte[] MAGIC = { 'M', 'P', 'R', 'C' };
+    /** Incrementar a cada mudança no formato ou na AST. */
+    private static final int VERSION = 4;
+    private static final int HASH_LENGTH = 32;
+    private static final int HEADER_LENGTH = MAGIC.length + 2 + HASH_LENGTH;
+
+    private static final int NULL = 0;
+    private static final int PROGRAM = 1;
+    private static final int ASSIGNMENT = 2;
+    private static final int BINARY = 3;
+    private static final int BREAK = 4;
+    private static final int CANAL = 5;
+    private static final int CLASS = 6;
+    private static final int CONTINUE = 7;
+    private static final int DICT = 8;
+    private static final int DO_WHILE = 9;
+    private static final int FOR = 10;
+    private static final int FUNC = 11;
+    private static final int FUNCTION_CALL = 12;
+    private static final int IDENTIFIER = 13;
+    private static final int IF = 14;
+    private static final int INDEX_ASSIGN = 15;
+    private static final int INDEX = 16;
+    private static final int INPUT = 17;
+    private static final int LIST = 18;
+    private static final int LITERAL_INT = 19;
+    private static final int LITERAL_DOUBLE = 20;
+    private static final int LITERAL_STRING = 21;
+    private static final int LITERAL_TRUE = 22;
+    private static final int LITERAL_FALSE = 23;
+    private static final int METHOD_CALL = 24;
+    private static final int METHOD = 25;
+    private static final int NEW = 26;
+    private static final int PAR = 27;
+    private static final int PRINT = 28;
+    private static final int PROPERTY_ACCESS = 29;
+    private static final int PROPERTY_ASSIGN = 30;
+    private static final int READ_NUMBER = 31;
+    private static final int READLN = 32;
+    private static final int RECEIVE = 33;
+    private static final int RETURN = 34;
+    private static final int SEND = 35;
+    private static final int SEQ = 36;
+    private static final int SUPER = 37;
+    private static final int THIS = 38;
+    private static final int UNARY = 39;
+    private static final int VAR = 40;
+    private static final int WHILE = 41;
+
+    private ProgramCodec() {
+    }
+
+    /**
+     * Calcula o hash SHA-256 do código-fonte.
+     *
+     * @param source Bytes do código-fonte.
+     * @return Hash de 32 bytes.
+     */
+    public static byte[] hash(byte[] source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Serializa o programa.
+     *
+     * @param program Programa analisado.
+     * @param source  Bytes do código-fonte de onde o programa veio.
+     * @return Conteúdo do arquivo {@code .miniparc}.
+     */
+    public static byte[] encode(Program program, byte[] source) {
+        Encoder tree = new Encoder();
+        tree.node(program);
+
+        Output out = new Output(HEADER_LENGTH + tree.strings.size() * 8 + tree.out.size);
+        out.bytes(MAGIC, MAGIC.length);
+        out.u8(VERSION >>> 8);
+        out.u8(VERSION);
+        out.bytes(hash(source), HASH_LENGTH);
+        out.varint(tree.strings.size());
+        for (String s : tree.strings) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            out.varint(utf8.length);
+            out.bytes(utf8, utf8.length);
+        }
+        out.bytes(tree.out.buffer, tree.out.size);
+        return Arrays.copyOf(out.buffer, out.size);
+    }
+
+    /**
+     * Desserializa o programa, se o arquivo corresponder ao código-fonte.
+     *
+     * @param data   Conteúdo do arquivo {@code .miniparc}.
+     * @param source Bytes do código-fonte atual.
+     * @return Programa, ou {@code null} se o arquivo foi gerado a partir de
+     *         outro código-fonte ou por outra versão do formato.
+     * @throws IllegalArgumentException se o arquivo estiver corrompido.
+     */
+    public static Program decode(byte[] data, byte[] source) {
+        if (!isFresh(data, source)) {
+            return null;
+        }
+        ByteBuffer in = ByteBuffer.wrap(data);
+        in.position(HEADER_LENGTH);
+        try {
+            String[] strings = new String[count(in)];
+            for (int i = 0; i < strings.length; i++) {
+                int length = varint(in);
+                strings[i] = new String(data, in.position(), length, StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+            }
+            ASTNode node = new Decoder(in, strings).node();
+            if (!(node instanceof Program) || in.hasRemaining()) {
+                throw new IllegalArgumentException("Arquivo pré-compilado inválido: conteúdo inesperado");
+            }
+            return (Program) node;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NullPointerException
+                | ClassCastException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("Arquivo pré-compilado truncado ou corrompido", e);
+        }
+    }
+
+    /**
+     * Verifica, só pelo cabeçalho, se o arquivo está na versão atual do
+     * formato e foi gerado a partir do código-fonte informado.
+     *
+     * @param data   Conteúdo do arquivo {@code .miniparc}.
+     * @param source Bytes do código-fonte atual.
+     * @return true se o arquivo pode ser usado no lugar da fonte.
+     */
+    public static boolean isFresh(byte[] data, byte[] source) {
+        if (data.length < HEADER_LENGTH || !Arrays.equals(data, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            return false;
+        }
+        int version = (data[MAGIC.length] & 0xFF) << 8 | data[MAGIC.length + 1] & 0xFF;
+        int hashAt = MAGIC.length + 2;
+        return version == VERSION
+                && Arrays.equals(data, hashAt, hashAt + HASH_LENGTH, hash(source), 0, HASH_LENGTH);
+    }
+
+    /**
+     * Buffer de bytes crescente.
+     */
+    private static final class Output {
+        byte[] buffer;
+        int size = 0;
+
+        Output(int capacity) {
+            buffer = new byte[Math.max(16, capacity)];
+        }
+
+        void u8(int value) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void varint(int value) {
+            while ((value & ~0x7F) != 0) {
+                u8(value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            u8(value);
+        }
+
+        void varlong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                u8((int) (value & 0x7F | 0x80));
+                value >>>= 7;
+            }
+            u8((int) value);
+        }
+
+        void bytes(byte[] bytes, int length) {
+            if (size + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(size + length, buffer.length * 2));
+            }
+            System.arraycopy(bytes, 0, buffer, size, length);
+            size += length;
+        }
+    }
+
+    private static int varint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Arquivo pré-compilado inválido: inteiro mal formado");
+    }
+
+    /**
+     * Lê uma contagem de elementos, rejeitando valores negativos ou maiores
+     * que o restante do arquivo (cada elemento ocupa ao menos um byte) antes
+     * que sejam usados para alocar.
+     */
+    private static int count(ByteBuffer in) {
+        int count = varint(in);
+        if (count < 0 || count - 1 > in.remaining()) {
+            throw new IllegalArgumentException("Arquivo pré-compilado inválido: contagem " + count);
+        }
+        return count;
+    }
+
+    private static long varlong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Arquivo pré-compilado inválido: inteiro mal formado");
+    }
+
+    /**
+     * Grava a árvore, montando a tabela de strings.
+     */
+    private static final class Encoder implements ASTVisitor<Void> {
+        final Output out = new Output(4096);
+        final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>();
+        /** Posição do nó sendo visitado, gravada logo após a etiqueta. */
+        private int position;
+
+        void node(ASTNode node) {
+            if (node == null) {
+                out.u8(NULL);
+            } else {
+                position = node.position();
+                node.accept(this);
+            }
+        }
+
+        void nodes(List<? extends ASTNode> nodes) {
+            if (nodes == null) {
+                out.varint(0);
+                return;
+            }
+            out.varint(nodes.size() + 1);
+            for (ASTNode node : nodes) {
+                node(node);
+            }
+        }
+
+        void string(String s) {
+            if (s == null) {
+                out.varint(0);
+                return;
+            }
+            Integer index = indexes.get(s);
+            if (index == null) {
+                index = strings.size();
+                strings.add(s);
+                indexes.put(s, index);
+            }
+            out.varint(index + 1);
+        }
+
+        void parameters(List<Parameter> parameters) {
+            out.varint(parameters.size());
+            for (Parameter parameter : parameters) {
+                string(parameter.name);
+                string(parameter.type);
+            }
+        }
+
+        private Void tag(int tag) {
+            out.u8(tag);
+            out.varint(position);
+            return null;
+        }
+
+        @Override
+        public Void visitProgram(Program node) {
+            tag(PROGRAM);
+            nodes(node.statements);
+            return null;
+        }
+
+        @Override
+        public Void visitAssignment(Assignment node) {
+            tag(ASSIGNMENT);
+            string(node.varName);
+            node(node.value);
+            return null;
+        }
+
+        @Override
+        public Void visitBinaryExpr(BinaryExpr node) {
+            tag(BINARY);
+            node(node.left);
+            string(node.operator);
+            node(node.right);
+            return null;
+        }
+
+        @Override
+        public Void visitBreakStmt(BreakStmt node) {
+            return tag(BREAK);
+        }
+
+        @Override
+        public Void visitCanalDecl(CanalDecl node) {
+            tag(CANAL);
+            out.varint(node.nomes.size());
+            for (String nome : node.nomes) {
+                string(nome);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitClassDecl(ClassDecl node) {
+            tag(CLASS);
+            string(node.name);
+            string(node.superClass);
+            nodes(node.attributes);
+            nodes(node.methods);
+            return null;
+        }
+
+        @Override
+        public Void visitContinueStmt(ContinueStmt node) {
+            return tag(CONTINUE);
+        }
+
+        @Override
+        public Void visitDictLiteral(DictLiteral node) {
+            tag(DICT);
+            out.varint(node.entries.size());
+            for (DictEntry entry : node.entries) {
+                node(entry.key);
+                node(entry.value);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitDoWhileStmt(DoWhileStmt node) {
+            tag(DO_WHILE);
+            nodes(node.body);
+            node(node.condition);
+            return null;
+        }
+
+        @Override
+        public Void visitForStmt(ForStmt node) {
+            tag(FOR);
+            node(node.variable);
+            node(node.iterable);
+            nodes(node.body);
+            return null;
+        }
+
+        @Override
+        public Void visitFuncDecl(FuncDecl node) {
+            tag(FUNC);
+            string(node.name);
+            string(node.returnType);
+            parameters(node.parameters);
+            nodes(node.body);
+            return null;
+        }
+
+        @Override
+        public Void visitFunctionCall(FunctionCall node) {
+            tag(FUNCTION_CALL);
+            string(node.functionName);
+            nodes(node.arguments);
+            return null;
+        }
+
+        @Override
+        public Void visitIdentifier(Identifier node) {
+            tag(IDENTIFIER);
+            string(node.name);
+            return null;
+        }
+
+        @Override
+        public Void visitIfStmt(IfStmt node) {
+            tag(IF);
+            node(node.condition);
+            nodes(node.thenBranch);
+            nodes(node.elseBranch);
+            return null;
+        }
+
+        @Override
+        public Void visitIndexAssign(IndexAssign node) {
+            tag(INDEX_ASSIGN);
+            node(node.target);
+            node(node.index);
+            node(node.value);
+            return null;
+        }
+
+        @Override
+        public Void visitIndexExpr(IndexExpr node) {
+            tag(INDEX);
+            node(node.target);
+            node(node.index);
+            return null;
+        }
+
+        @Override
+        public Void visitInputExpr(InputExpr node) {
+            tag(INPUT);
+            node(node.prompt);
+            return null;
+        }
+
+        @Override
+        public Void visitListLiteral(ListLiteral node) {
+            tag(LIST);
+            nodes(node.elements);
+            return null;
+        }
+
+        @Override
+        public Void visitLiteral(Literal node) {
+            Object value = node.value;
+            if (value instanceof Long) {
+                tag(LITERAL_INT);
+                long n = (Long) value;
+                out.varlong(n << 1 ^ n >> 63);
+            } else if (value instanceof Double) {
+                tag(LITERAL_DOUBLE);
+                long bits = Double.doubleToRawLongBits((Double) value);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    out.u8((int) (bits >>> shift));
+                }
+            } else if (value instanceof String) {
+                tag(LITERAL_STRING);
+                string((String) value);
+            } else if (value instanceof Boolean) {
+                tag((Boolean) value ? LITERAL_TRUE : LITERAL_FALSE);
+            } else {
+                throw new IllegalArgumentException("Literal não suportado no formato pré-compilado: " + value);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitMethodCall(MethodCall node) {
+            tag(METHOD_CALL);
+            node(node.object);
+            string(node.methodName);
+            nodes(node.arguments);
+            return null;
+        }
+
+        @Override
+        public Void visitMethodDecl(MethodDecl node) {
+            tag(METHOD);
+            string(node.returnType);
+            string(node.name);
+            parameters(node.parameters);
+            nodes(node.body);
+            return null;
+        }
+
+        @Override
+        public Void visitNewInstance(NewInstance node) {
+            tag(NEW);
+            string(node.className);
+            nodes(node.arguments);
+            return null;
+        }
+
+        @Override
+        public Void visitParBlock(ParBlock node) {
+            tag(PAR);
+            nodes(node.statements);
+            return null;
+        }
+
+        @Override
+        public Void visitPrintStmt(PrintStmt node) {
+            tag(PRINT);
+            nodes(node.arguments);
+            out.u8(node.newline ? 1 : 0);
+            return null;
+        }
+
+        @Override
+        public Void visitPropertyAccess(PropertyAccess node) {
+            tag(PROPERTY_ACCESS);
+            node(node.object);
+            string(node.propertyName);
+            return null;
+        }
+
+        @Override
+        public Void visitPropertyAssign(PropertyAssign node) {
+            tag(PROPERTY_ASSIGN);
+            node(node.object);
+            string(node.propertyName);
+            node(node.value);
+            return null;
+        }
+
+        @Override
+        public Void visitReadNumberExpr(ReadNumberExpr node) {
+            return tag(READ_NUMBER);
+        }
+
+        @Override
+        public Void visitReadlnExpr(ReadlnExpr node) {
+            return tag(READLN);
+        }
+
+        @Override
+        public Void visitReceiveStmt(ReceiveStmt node) {
+            tag(RECEIVE);
+            node(node.channel);
+            nodes(node.arguments);
+            return null;
+        }
+
+        @Override
+        public Void visitReturnStmt(ReturnStmt node) {
+            tag(RETURN);
+            node(node.value);
+            return null;
+        }
+
+        @Override
+        public Void visitSendStmt(SendStmt node) {
+            tag(SEND);
+            node(node.channel);
+            nodes(node.arguments);
+            return null;
+        }
+
+        @Override
+        public Void visitSeqBlock(SeqBlock node) {
+            tag(SEQ);
+            nodes(node.statements);
+            return null;
+        }
+
+        @Override
+        public Void visitSuperCall(SuperCall node) {
+            tag(SUPER);
+            nodes(node.arguments);
+            return null;
+        }
+
+        @Override
+        public Void visitThisExpr(ThisExpr node) {
+            return tag(THIS);
+        }
+
+        @Override
+        public Void visitUnaryExpr(UnaryExpr node) {
+            tag(UNARY);
+            string(node.operator);
+            node(node.operand);
+            return null;
+        }
+
+        @Override
+        public Void visitVarDecl(VarDecl node) {
+            tag(VAR);
+            string(node.name);
+            string(node.type);
+            node(node.initializer);
+            return null;
+        }
+
+        @Override
+        public Void visitWhileStmt(WhileStmt node) {
+            tag(WHILE);
+            node(node.condition);
+            nodes(node.body);
+            return null;
+        }
+    }
+
+    /**
+     * Reconstrói a árvore gravada pelo {@link Encoder}.
+     */
+    private static final class Decoder {
+        private final ByteBuffer in;
+        private final String[] strings;
+
+        Decoder(ByteBuffer in, String[] strings) {
+            this.in = in;
+            this.strings = strings;
+        }
+
+        ASTNode node() {
+            int tag = in.get() & 0xFF;
+            if (tag == NULL) {
+                return null;
+            }
+            int position = varint(in);
+            ASTNode node = switch (tag) {
+                case PROGRAM -> new Program(nodes());
+                case ASSIGNMENT -> new Assignment(string(), node());
+                case BINARY -> new BinaryExpr(node(), string(), node());
+                case BREAK -> new BreakStmt();
+                case CANAL -> {
+                    List<String> nomes = new ArrayList<>();
+                    for (int i = count(in); i > 0; i--) {
+                        nomes.add(string());
+                    }
+                    yield new CanalDecl(nomes);
+                }
+                case CLASS -> new ClassDecl(string(), string(), nodes(VarDecl.class), nodes(MethodDecl.class));
+                case CONTINUE -> new ContinueStmt();
+                case DICT -> {
+                    List<DictEntry> entries = new ArrayList<>();
+                    for (int i = count(in); i > 0; i--) {
+                        entries.add(new DictEntry(node(), node()));
+                    }
+                    yield new DictLiteral(entries);
+                }
+                case DO_WHILE -> new DoWhileStmt(nodes(), node());
+                case FOR -> new ForStmt(node(VarDecl.class), node(), nodes());
+                case FUNC -> new FuncDecl(string(), string(), parameters(), nodes());
+                case FUNCTION_CALL -> new FunctionCall(string(), nodes());
+                case IDENTIFIER -> new Identifier(string());
+                case IF -> new IfStmt(node(), nodes(), nodes());
+                case INDEX_ASSIGN -> new IndexAssign(node(), node(), node());
+                case INDEX -> new IndexExpr(node(), node());
+                case INPUT -> new InputExpr(node());
+                case LIST -> new ListLiteral(nodes());
+                case LITERAL_INT -> {
+                    long n = varlong(in);
+                    yield new Literal(n >>> 1 ^ -(n & 1));
+                }
+                case LITERAL_DOUBLE -> new Literal(Double.longBitsToDouble(in.getLong()));
+                case LITERAL_STRING -> new Literal(string());
+                case LITERAL_TRUE -> new Literal(true);
+                case LITERAL_FALSE -> new Literal(false);
+                case METHOD_CALL -> new MethodCall(node(), string(), nodes());
+                case METHOD -> new MethodDecl(string(), string(), parameters(), nodes());
+                case NEW -> new NewInstance(string(), nodes());
+                case PAR -> new ParBlock(nodes());
+                case PRINT -> new PrintStmt(nodes(), in.get() != 0);
+                case PROPERTY_ACCESS -> new PropertyAccess(node(), string());
+                case PROPERTY_ASSIGN -> new PropertyAssign(node(), string(), node());
+                case READ_NUMBER -> new ReadNumberExpr();
+                case READLN -> new ReadlnExpr();
+                case RECEIVE -> new ReceiveStmt(node(), nodes());
+                case RETURN -> new ReturnStmt(node());
+                case SEND -> new SendStmt(node(), nodes());
+                case SEQ -> new SeqBlock(nodes());
+                case SUPER -> new SuperCall(nodes());
+                case THIS -> new ThisExpr();
+                case UNARY -> new UnaryExpr(string(), node());
+                case VAR -> new VarDecl(string(), string(), node());
+                case WHILE -> new WhileStmt(node(), nodes());
+                default -> throw new IllegalArgumentException(
+                        "Arquivo pré-compilado inválido: etiqueta de nó desconhecida " + tag);
+            };
+            node.setPosition(position);
+            return node;
+        }
+
+        private <T extends ASTNode> T node(Class<T> type) {
+            ASTNode node = node();
+            if (node != null && !type.isInstance(node)) {
+                throw new IllegalArgumentException("Arquivo pré-compilado inválido: esperado "
+                        + type.getSimpleName() + ", encontrado " + node.getClass().getSimpleName());
+            }
+            return type.cast(node);
+        }
+
+        private List<ASTNode> nodes() {
+            return nodes(ASTNode.class);
+        }
+
+        private <T extends ASTNode> List<T> nodes(Class<T> type) {
+            int count = count(in);
+            if (count == 0) {
+                return null;
+            }
+            List<T> nodes = new ArrayList<>(count - 1);
+            for (int i = 1; i < count; i++) {
+                nodes.add(node(type));
+            }
+            return nodes;
+        }
+
+        private List<Parameter> parameters() {
+            int count = count(in);
+            List<Parameter> parameters = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                parameters.add(new Parameter(string(), string()));
+            }
+            return parameters;
+        }
+
+        private String string() {
+            int index = varint(in);
+            return index == 0 ? null : strings[index - 1];
+        }
+    }
+}
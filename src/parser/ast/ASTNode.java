@@ -2,8 +2,84 @@ package parser.ast;
 
 /**
  * Classe abstrata base para todos os nós da AST.
+ * <p>
+ * Os nós são imutáveis após a construção (campos {@code final} e listas não
+ * modificáveis), o que permite que a mesma árvore seja compartilhada entre
+ * várias execuções, por exemplo pelo cache de programas do servidor web. A
+ * única exceção é a posição no código-fonte, registrada uma única vez por
+ * quem constrói a árvore, logo após criar o nó e antes de compartilhá-la.
+ * <p>
+ * A posição ocupa um único {@code int}: a linha nos 22 bits superiores e a
+ * coluna nos 10 inferiores, ambas saturadas no máximo representável (linhas
+ * além de 4 milhões ou colunas além de 1023 ficam no limite). O valor 0
+ * indica posição desconhecida (nós criados fora do parser).
  */
 public abstract class ASTNode {
+    private static final int COLUMN_BITS = 10;
+    private static final int MAX_COLUMN = (1 << COLUMN_BITS) - 1;
+    private static final int MAX_LINE = (1 << (32 - COLUMN_BITS)) - 1;
+
+    /** Posição compactada (ver {@link #packPosition(int, int)}); 0 se desconhecida. */
+    private int position;
+
+    /**
+     * Compacta linha e coluna em um {@code int}.
+     *
+     * @param line   Linha, a partir de 1.
+     * @param column Coluna, a partir de 1.
+     * @return Posição compactada.
+     */
+    public static int packPosition(int line, int column) {
+        int l = Math.min(Math.max(line, 0), MAX_LINE);
+        int c = Math.min(Math.max(column, 0), MAX_COLUMN);
+        return (l << COLUMN_BITS) | c;
+    }
+
+    /**
+     * @return Posição compactada em que o nó começa, ou 0 se desconhecida.
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * @return Linha em que o nó começa no código-fonte, ou 0 se desconhecida.
+     */
+    public int line() {
+        return position >>> COLUMN_BITS;
+    }
+
+    /**
+     * @return Coluna em que o nó começa no código-fonte, ou 0 se desconhecida.
+     */
+    public int column() {
+        return position & MAX_COLUMN;
+    }
+
+    /**
+     * Registra a posição em que o nó começa no código-fonte. Usado pelo parser
+     * e pela leitura de programas pré-compilados. A posição só pode ser
+     * registrada uma vez, de modo que uma árvore já compartilhada não muda.
+     *
+     * @param position Posição compactada por {@link #packPosition(int, int)}.
+     * @throws IllegalStateException se o nó já tem posição.
+     */
+    public void setPosition(int position) {
+        if (this.position != 0) {
+            throw new IllegalStateException("Posição do nó já registrada");
+        }
+        this.position = position;
+    }
+
+    /**
+     * Despacha este nó para o método correspondente do visitante.
+     *
+     * @param visitor Visitante.
+     * @param <R>     Tipo do resultado.
+     * @return Resultado da visita.
+     */
+    public abstract <R> R accept(ASTVisitor<R> visitor);
+
     /**
      * Retorna uma representação em string do nó da AST.
      * 
@@ -0,0 +1,86 @@
+package parser.ast;
+
+/**
+ * Visitante da AST.
+ * <p>
+ * Cada nó concreto chama o método {@code visitX} correspondente em
+ * {@link ASTNode#accept(ASTVisitor)}, permitindo percorrer a árvore sem
+ * reflexão nem cadeias de {@code instanceof}.
+ *
+ * @param <R> Tipo do resultado produzido por cada visita.
+ */
+public interface ASTVisitor<R> {
+    R visitAssignment(Assignment node);
+
+    R visitBinaryExpr(BinaryExpr node);
+
+    R visitBreakStmt(BreakStmt node);
+
+    R visitCanalDecl(CanalDecl node);
+
+    R visitClassDecl(ClassDecl node);
+
+    R visitContinueStmt(ContinueStmt node);
+
+    R visitDictLiteral(DictLiteral node);
+
+    R visitDoWhileStmt(DoWhileStmt node);
+
+    R visitForStmt(ForStmt node);
+
+    R visitFuncDecl(FuncDecl node);
+
+    R visitFunctionCall(FunctionCall node);
+
+    R visitIdentifier(Identifier node);
+
+    R visitIfStmt(IfStmt node);
+
+    R visitIndexAssign(IndexAssign node);
+
+    R visitIndexExpr(IndexExpr node);
+
+    R visitInputExpr(InputExpr node);
+
+    R visitListLiteral(ListLiteral node);
+
+    R visitLiteral(Literal node);
+
+    R visitMethodCall(MethodCall node);
+
+    R visitMethodDecl(MethodDecl node);
+
+    R visitNewInstance(NewInstance node);
+
+    R visitParBlock(ParBlock node);
+
+    R visitPrintStmt(PrintStmt node);
+
+    R visitProgram(parser.Program node);
+
+    R visitPropertyAccess(PropertyAccess node);
+
+    R visitPropertyAssign(PropertyAssign node);
+
+    R visitReadNumberExpr(ReadNumberExpr node);
+
+    R visitReadlnExpr(ReadlnExpr node);
+
+    R visitReceiveStmt(ReceiveStmt node);
+
+    R visitReturnStmt(ReturnStmt node);
+
+    R visitSendStmt(SendStmt node);
+
+    R visitSeqBlock(SeqBlock node);
+
+    R visitSuperCall(SuperCall node);
+
+    R visitThisExpr(ThisExpr node);
+
+    R visitUnaryExpr(UnaryExpr node);
+
+    R visitVarDecl(VarDecl node);
+
+    R visitWhileStmt(WhileStmt node);
+}
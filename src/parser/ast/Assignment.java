@@ -4,8 +4,8 @@ package parser.ast;
  * Atribuição
  */
 public class Assignment extends ASTNode {
-    public String varName;
-    public ASTNode value;
+    public final String varName;
+    public final ASTNode value;
 
     /**
      * Construtor do nó Assignment.
@@ -18,6 +18,11 @@ public class Assignment extends ASTNode {
         this.value = value;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitAssignment(this);
+    }
+
     /**
      * Retorna uma representação em string do nó Assignment.
      * 
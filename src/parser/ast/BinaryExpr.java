@@ -4,9 +4,9 @@ package parser.ast;
  * Expressões binárias
  */
 public class BinaryExpr extends ASTNode {
-    public ASTNode left;
-    public String operator;
-    public ASTNode right;
+    public final ASTNode left;
+    public final String operator;
+    public final ASTNode right;
 
     /**
      * Construtor do nó BinaryExpr.
@@ -21,6 +21,11 @@ public class BinaryExpr extends ASTNode {
         this.right = right;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitBinaryExpr(this);
+    }
+
     /**
      * Retorna uma representação em string do nó BinaryExpr.
      * 
@@ -4,6 +4,11 @@ package parser.ast;
  * Break statement
  */
 public class BreakStmt extends ASTNode {
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitBreakStmt(this);
+    }
+
     /**
      * Retorna uma representação em string do nó BreakStmt.
      * 
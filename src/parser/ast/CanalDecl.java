@@ -6,10 +6,15 @@ import java.util.List;
  * Declaração de canal
  */
 public class CanalDecl extends ASTNode {
-    public List<String> nomes;
+    public final List<String> nomes;
 
     public CanalDecl(List<String> nomes) {
-        this.nomes = nomes;
+        this.nomes = List.copyOf(nomes);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitCanalDecl(this);
     }
 
     @Override
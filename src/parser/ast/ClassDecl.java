@@ -6,10 +6,10 @@ import java.util.List;
  * Declaração de classe
  */
 public class ClassDecl extends ASTNode {
-    public String name;
-    public String superClass;
-    public List<VarDecl> attributes;
-    public List<MethodDecl> methods;
+    public final String name;
+    public final String superClass;
+    public final List<VarDecl> attributes;
+    public final List<MethodDecl> methods;
 
     /**
      * Construtor do nó ClassDecl.
@@ -22,8 +22,13 @@ public class ClassDecl extends ASTNode {
     public ClassDecl(String name, String superClass, List<VarDecl> attributes, List<MethodDecl> methods) {
         this.name = name;
         this.superClass = superClass;
-        this.attributes = attributes;
-        this.methods = methods;
+        this.attributes = List.copyOf(attributes);
+        this.methods = List.copyOf(methods);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitClassDecl(this);
     }
 
     /**
@@ -4,6 +4,11 @@ package parser.ast;
  * Continue statement
  */
 public class ContinueStmt extends ASTNode {
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitContinueStmt(this);
+    }
+
     /**
      * Retorna uma representação em string do nó ContinueStmt.
      * 
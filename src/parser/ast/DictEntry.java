@@ -4,8 +4,8 @@ package parser.ast;
  * Par chave:valor para dicionário
  */
 public class DictEntry {
-    public ASTNode key;
-    public ASTNode value;
+    public final ASTNode key;
+    public final ASTNode value;
 
     public DictEntry(ASTNode key, ASTNode value) {
         this.key = key;
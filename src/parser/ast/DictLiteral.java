@@ -6,10 +6,15 @@ import java.util.List;
  * Literal de dicionário: { key: value, ... }
  */
 public class DictLiteral extends ASTNode {
-    public List<DictEntry> entries;
+    public final List<DictEntry> entries;
 
     public DictLiteral(List<DictEntry> entries) {
-        this.entries = entries;
+        this.entries = List.copyOf(entries);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitDictLiteral(this);
     }
 
     @Override
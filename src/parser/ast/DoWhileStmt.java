@@ -6,14 +6,19 @@ import java.util.List;
  * Do-While statement
  */
 public class DoWhileStmt extends ASTNode {
-    public List<ASTNode> body;
-    public ASTNode condition;
+    public final List<ASTNode> body;
+    public final ASTNode condition;
 
     public DoWhileStmt(List<ASTNode> body, ASTNode condition) {
-        this.body = body;
+        this.body = List.copyOf(body);
         this.condition = condition;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitDoWhileStmt(this);
+    }
+
     @Override
     public String toString() {
         return "do { ... } while (" + condition.toString() + ");";
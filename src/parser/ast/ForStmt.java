@@ -6,14 +6,19 @@ import java.util.List;
  * For-in statement
  */
 public class ForStmt extends ASTNode {
-    public VarDecl variable; // variável de iteração (nome e tipo)
-    public ASTNode iterable; // expressão iterável
-    public List<ASTNode> body;
+    public final VarDecl variable; // variável de iteração (nome e tipo)
+    public final ASTNode iterable; // expressão iterável
+    public final List<ASTNode> body;
 
     public ForStmt(VarDecl variable, ASTNode iterable, List<ASTNode> body) {
         this.variable = variable;
         this.iterable = iterable;
-        this.body = body;
+        this.body = List.copyOf(body);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitForStmt(this);
     }
 
     @Override
@@ -6,10 +6,10 @@ import java.util.List;
  * Declaração de função
  */
 public class FuncDecl extends ASTNode {
-    public String name;
-    public String returnType;
-    public List<Parameter> parameters;
-    public List<ASTNode> body;
+    public final String name;
+    public final String returnType;
+    public final List<Parameter> parameters;
+    public final List<ASTNode> body;
 
     /**
      * Construtor do nó FuncDecl.
@@ -22,8 +22,13 @@ public class FuncDecl extends ASTNode {
     public FuncDecl(String name, String returnType, List<Parameter> parameters, List<ASTNode> body) {
         this.name = name;
         this.returnType = returnType;
-        this.parameters = parameters;
-        this.body = body;
+        this.parameters = List.copyOf(parameters);
+        this.body = List.copyOf(body);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitFuncDecl(this);
     }
 
     /**
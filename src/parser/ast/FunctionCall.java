@@ -6,8 +6,8 @@ import java.util.List;
  * Chamada de função
  */
 public class FunctionCall extends ASTNode {
-    public String functionName;
-    public List<ASTNode> arguments;
+    public final String functionName;
+    public final List<ASTNode> arguments;
 
     /**
      * Construtor do nó FunctionCall.
@@ -17,7 +17,12 @@ public class FunctionCall extends ASTNode {
      */
     public FunctionCall(String functionName, List<ASTNode> arguments) {
         this.functionName = functionName;
-        this.arguments = arguments;
+        this.arguments = List.copyOf(arguments);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitFunctionCall(this);
     }
 
     /**
@@ -4,7 +4,7 @@ package parser.ast;
  * Identificador (variável)
  */
 public class Identifier extends ASTNode {
-    public String name;
+    public final String name;
 
     /**
      * Construtor do nó Identifier.
@@ -15,6 +15,11 @@ public class Identifier extends ASTNode {
         this.name = name;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitIdentifier(this);
+    }
+
     /**
      * Retorna uma representação em string do nó Identifier.
      * 
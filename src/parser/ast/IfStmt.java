@@ -6,9 +6,9 @@ import java.util.List;
  * If statement
  */
 public class IfStmt extends ASTNode {
-    public ASTNode condition;
-    public List<ASTNode> thenBranch;
-    public List<ASTNode> elseBranch;
+    public final ASTNode condition;
+    public final List<ASTNode> thenBranch;
+    public final List<ASTNode> elseBranch;
 
     /**
      * Construtor do nó IfStmt.
@@ -19,8 +19,13 @@ public class IfStmt extends ASTNode {
      */
     public IfStmt(ASTNode condition, List<ASTNode> thenBranch, List<ASTNode> elseBranch) {
         this.condition = condition;
-        this.thenBranch = thenBranch;
-        this.elseBranch = elseBranch;
+        this.thenBranch = List.copyOf(thenBranch);
+        this.elseBranch = elseBranch != null ? List.copyOf(elseBranch) : null;
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitIfStmt(this);
     }
 
     /**
@@ -4,9 +4,9 @@ package parser.ast;
  * Atribuição em índice: alvo[índice] = valor
  */
 public class IndexAssign extends ASTNode {
-    public ASTNode target;
-    public ASTNode index;
-    public ASTNode value;
+    public final ASTNode target;
+    public final ASTNode index;
+    public final ASTNode value;
 
     public IndexAssign(ASTNode target, ASTNode index, ASTNode value) {
         this.target = target;
@@ -14,6 +14,11 @@ public class IndexAssign extends ASTNode {
         this.value = value;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitIndexAssign(this);
+    }
+
     @Override
     public String toString() {
         return target.toString() + "[" + index.toString() + "] = " + value.toString() + ";";
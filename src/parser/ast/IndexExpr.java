@@ -4,14 +4,19 @@ package parser.ast;
  * Indexação: alvo[índice]
  */
 public class IndexExpr extends ASTNode {
-    public ASTNode target;
-    public ASTNode index;
+    public final ASTNode target;
+    public final ASTNode index;
 
     public IndexExpr(ASTNode target, ASTNode index) {
         this.target = target;
         this.index = index;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitIndexExpr(this);
+    }
+
     @Override
     public String toString() {
         return target.toString() + "[" + index.toString() + "]";
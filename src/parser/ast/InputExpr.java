@@ -4,12 +4,17 @@ package parser.ast;
  * Expressão de entrada: input([prompt])
  */
 public class InputExpr extends ASTNode {
-    public ASTNode prompt; // pode ser null
+    public final ASTNode prompt; // pode ser null
 
     public InputExpr(ASTNode prompt) {
         this.prompt = prompt;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitInputExpr(this);
+    }
+
     @Override
     public String toString() {
         if (prompt != null) {
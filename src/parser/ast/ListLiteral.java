@@ -6,10 +6,15 @@ import java.util.List;
  * Literal de lista: [expr, expr, ...]
  */
 public class ListLiteral extends ASTNode {
-    public List<ASTNode> elements;
+    public final List<ASTNode> elements;
 
     public ListLiteral(List<ASTNode> elements) {
-        this.elements = elements;
+        this.elements = List.copyOf(elements);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitListLiteral(this);
     }
 
     @Override
@@ -4,7 +4,7 @@ package parser.ast;
  * Literal (número, string, boolean)
  */
 public class Literal extends ASTNode {
-    public Object value;
+    public final Object value;
 
     /**
      * Construtor do nó Literal.
@@ -15,6 +15,11 @@ public class Literal extends ASTNode {
         this.value = value;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitLiteral(this);
+    }
+
     /**
      * Retorna uma representação em string do nó Literal.
      * 
@@ -6,9 +6,9 @@ import java.util.List;
  * Chamada de método
  */
 public class MethodCall extends ASTNode {
-    public ASTNode object;
-    public String methodName;
-    public List<ASTNode> arguments;
+    public final ASTNode object;
+    public final String methodName;
+    public final List<ASTNode> arguments;
 
     /**
      * Construtor do nó MethodCall.
@@ -20,7 +20,12 @@ public class MethodCall extends ASTNode {
     public MethodCall(ASTNode object, String methodName, List<ASTNode> arguments) {
         this.object = object;
         this.methodName = methodName;
-        this.arguments = arguments;
+        this.arguments = List.copyOf(arguments);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitMethodCall(this);
     }
 
     /**
@@ -6,10 +6,10 @@ import java.util.List;
  * Declaração de método
  */
 public class MethodDecl extends ASTNode {
-    public String returnType;
-    public String name;
-    public List<Parameter> parameters;
-    public List<ASTNode> body;
+    public final String returnType;
+    public final String name;
+    public final List<Parameter> parameters;
+    public final List<ASTNode> body;
 
     /**
      * Construtor do nó MethodDecl.
@@ -22,8 +22,13 @@ public class MethodDecl extends ASTNode {
     public MethodDecl(String returnType, String name, List<Parameter> parameters, List<ASTNode> body) {
         this.returnType = returnType;
         this.name = name;
-        this.parameters = parameters;
-        this.body = body;
+        this.parameters = List.copyOf(parameters);
+        this.body = List.copyOf(body);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitMethodDecl(this);
     }
 
     /**
@@ -6,8 +6,8 @@ import java.util.List;
  * Instanciação de objeto
  */
 public class NewInstance extends ASTNode {
-    public String className;
-    public List<ASTNode> arguments;
+    public final String className;
+    public final List<ASTNode> arguments;
 
     /**
      * Construtor do nó NewInstance.
@@ -17,7 +17,12 @@ public class NewInstance extends ASTNode {
      */
     public NewInstance(String className, List<ASTNode> arguments) {
         this.className = className;
-        this.arguments = arguments;
+        this.arguments = List.copyOf(arguments);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitNewInstance(this);
     }
 
     /**
@@ -6,7 +6,7 @@ import java.util.List;
  * Bloco PAR
  */
 public class ParBlock extends ASTNode {
-    public List<ASTNode> statements;
+    public final List<ASTNode> statements;
 
     /**
      * Construtor do nó ParBlock.
@@ -14,7 +14,12 @@ public class ParBlock extends ASTNode {
      * @param statements Lista de instruções do bloco paralelo.
      */
     public ParBlock(List<ASTNode> statements) {
-        this.statements = statements;
+        this.statements = List.copyOf(statements);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitParBlock(this);
     }
 
     /**
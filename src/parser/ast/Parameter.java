@@ -4,8 +4,8 @@ package parser.ast;
  * Parâmetro de método/função
  */
 public class Parameter {
-    public String name;
-    public String type;
+    public final String name;
+    public final String type;
 
     /**
      * Construtor do nó Parameter.
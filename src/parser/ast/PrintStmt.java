@@ -6,14 +6,19 @@ import java.util.List;
  * Comando de impressão: print(arg1, arg2, ...)
  */
 public class PrintStmt extends ASTNode {
-    public List<ASTNode> arguments;
-    public boolean newline;
+    public final List<ASTNode> arguments;
+    public final boolean newline;
 
     public PrintStmt(List<ASTNode> arguments, boolean newline) {
-        this.arguments = arguments;
+        this.arguments = List.copyOf(arguments);
         this.newline = newline;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitPrintStmt(this);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
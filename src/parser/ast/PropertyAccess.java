@@ -4,14 +4,19 @@ package parser.ast;
  * Acesso a propriedade: alvo.propriedade
  */
 public class PropertyAccess extends ASTNode {
-    public ASTNode object;
-    public String propertyName;
+    public final ASTNode object;
+    public final String propertyName;
 
     public PropertyAccess(ASTNode object, String propertyName) {
         this.object = object;
         this.propertyName = propertyName;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitPropertyAccess(this);
+    }
+
     @Override
     public String toString() {
         return object.toString() + "." + propertyName;
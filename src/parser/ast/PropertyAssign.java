@@ -4,9 +4,9 @@ package parser.ast;
  * Atribuição a propriedade: alvo.propriedade = valor
  */
 public class PropertyAssign extends ASTNode {
-    public ASTNode object;
-    public String propertyName;
-    public ASTNode value;
+    public final ASTNode object;
+    public final String propertyName;
+    public final ASTNode value;
 
     public PropertyAssign(ASTNode object, String propertyName, ASTNode value) {
         this.object = object;
@@ -14,6 +14,11 @@ public class PropertyAssign extends ASTNode {
         this.value = value;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitPropertyAssign(this);
+    }
+
     @Override
     public String toString() {
         return object.toString() + "." + propertyName + " = " + value.toString() + ";";
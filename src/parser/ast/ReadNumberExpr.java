@@ -7,6 +7,11 @@ public class ReadNumberExpr extends ASTNode {
     public ReadNumberExpr() {
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitReadNumberExpr(this);
+    }
+
     @Override
     public String toString() {
         return "readNumber()";
@@ -7,6 +7,11 @@ public class ReadlnExpr extends ASTNode {
     public ReadlnExpr() {
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitReadlnExpr(this);
+    }
+
     @Override
     public String toString() {
         return "readln()";
@@ -6,12 +6,17 @@ import java.util.List;
  * Recepção via canal: canal.receive(...)
  */
 public class ReceiveStmt extends ASTNode {
-    public ASTNode channel;
-    public List<ASTNode> arguments;
+    public final ASTNode channel;
+    public final List<ASTNode> arguments;
 
     public ReceiveStmt(ASTNode channel, List<ASTNode> arguments) {
         this.channel = channel;
-        this.arguments = arguments;
+        this.arguments = List.copyOf(arguments);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitReceiveStmt(this);
     }
 
     @Override
@@ -4,7 +4,7 @@ package parser.ast;
  * Return statement
  */
 public class ReturnStmt extends ASTNode {
-    public ASTNode value;
+    public final ASTNode value;
 
     /**
      * Construtor do nó ReturnStmt.
@@ -15,6 +15,11 @@ public class ReturnStmt extends ASTNode {
         this.value = value;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitReturnStmt(this);
+    }
+
     /**
      * Retorna uma representação em string do nó ReturnStmt.
      * 
@@ -6,7 +6,7 @@ import java.util.List;
  * Bloco SEQ
  */
 public class SeqBlock extends ASTNode {
-    public List<ASTNode> statements;
+    public final List<ASTNode> statements;
 
     /**
      * Construtor do nó SeqBlock.
@@ -14,7 +14,12 @@ public class SeqBlock extends ASTNode {
      * @param statements Lista de instruções do bloco sequencial.
      */
     public SeqBlock(List<ASTNode> statements) {
-        this.statements = statements;
+        this.statements = List.copyOf(statements);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitSeqBlock(this);
     }
 
     /**
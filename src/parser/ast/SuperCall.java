@@ -6,10 +6,15 @@ import java.util.List;
  * Chamada explícita ao construtor da superclasse: super(args)
  */
 public class SuperCall extends ASTNode {
-    public List<ASTNode> arguments;
+    public final List<ASTNode> arguments;
 
     public SuperCall(List<ASTNode> arguments) {
-        this.arguments = arguments;
+        this.arguments = List.copyOf(arguments);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitSuperCall(this);
     }
 
     @Override
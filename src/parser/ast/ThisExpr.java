@@ -7,6 +7,11 @@ public class ThisExpr extends ASTNode {
     public ThisExpr() {
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitThisExpr(this);
+    }
+
     @Override
     public String toString() {
         return "this";
@@ -4,8 +4,8 @@ package parser.ast;
  * Expressões unárias
  */
 public class UnaryExpr extends ASTNode {
-    public String operator;
-    public ASTNode operand;
+    public final String operator;
+    public final ASTNode operand;
 
     /**
      * Construtor do nó UnaryExpr.
@@ -18,6 +18,11 @@ public class UnaryExpr extends ASTNode {
         this.operand = operand;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitUnaryExpr(this);
+    }
+
     /**
      * Retorna uma representação em string do nó UnaryExpr.
      * 
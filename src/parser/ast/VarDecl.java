@@ -4,9 +4,9 @@ package parser.ast;
  * Declaração de variável
  */
 public class VarDecl extends ASTNode {
-    public String name;
-    public String type;
-    public ASTNode initializer;
+    public final String name;
+    public final String type;
+    public final ASTNode initializer;
 
     /**
      * Construtor do nó VarDecl.
@@ -21,6 +21,11 @@ public class VarDecl extends ASTNode {
         this.initializer = initializer;
     }
 
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitVarDecl(this);
+    }
+
     /**
      * Retorna uma representação em string do nó VarDecl.
      * 
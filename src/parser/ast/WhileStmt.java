@@ -6,8 +6,8 @@ import java.util.List;
  * While statement
  */
 public class WhileStmt extends ASTNode {
-    public ASTNode condition;
-    public List<ASTNode> body;
+    public final ASTNode condition;
+    public final List<ASTNode> body;
 
     /**
      * Construtor do nó WhileStmt.
@@ -17,7 +17,12 @@ public class WhileStmt extends ASTNode {
      */
     public WhileStmt(ASTNode condition, List<ASTNode> body) {
         this.condition = condition;
-        this.body = body;
+        this.body = List.copyOf(body);
+    }
+
+    @Override
+    public <R> R accept(ASTVisitor<R> visitor) {
+        return visitor.visitWhileStmt(this);
     }
 
     /**
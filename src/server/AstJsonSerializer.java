@@ -0,0 +1,384 @@
+package server;
+
+import parser.Program;
+import parser.ast.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Serializa a AST no formato JSON usado pelo {@code /analyze}.
+ * <p>
+ * Cada nó vira {@code {"type": ..., "label": ..., "children": [...]}}. O rótulo
+ * contém até dois campos de texto, número ou booleano do nó (na ordem de
+ * declaração, ignorando os nulos) e os filhos seguem a ordem dos campos.
+ * Percorre a árvore por {@link ASTVisitor}, sem reflexão.
+ */
+public class AstJsonSerializer implements ASTVisitor<Void> {
+    private final JsonWriter json;
+
+    private AstJsonSerializer(JsonWriter json) {
+        this.json = json;
+    }
+
+    /**
+     * Escreve a árvore enraizada em {@code node} (ou {@code null}).
+     *
+     * @param json Escritor de destino.
+     * @param node Nó raiz; pode ser {@code null}.
+     */
+    public static void write(JsonWriter json, ASTNode node) throws IOException {
+        try {
+            new AstJsonSerializer(json).node(node);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public Void visitAssignment(Assignment node) {
+        begin(node, label("Assignment", "varName", node.varName));
+        node(node.value);
+        return end();
+    }
+
+    @Override
+    public Void visitBinaryExpr(BinaryExpr node) {
+        begin(node, label("BinaryExpr", "operator", node.operator));
+        node(node.left);
+        node(node.right);
+        return end();
+    }
+
+    @Override
+    public Void visitBreakStmt(BreakStmt node) {
+        begin(node, "BreakStmt");
+        return end();
+    }
+
+    @Override
+    public Void visitCanalDecl(CanalDecl node) {
+        begin(node, "CanalDecl");
+        return end();
+    }
+
+    @Override
+    public Void visitClassDecl(ClassDecl node) {
+        begin(node, label("ClassDecl", "name", node.name, "superClass", node.superClass));
+        nodes(node.attributes);
+        nodes(node.methods);
+        return end();
+    }
+
+    @Override
+    public Void visitContinueStmt(ContinueStmt node) {
+        begin(node, "ContinueStmt");
+        return end();
+    }
+
+    @Override
+    public Void visitDictLiteral(DictLiteral node) {
+        begin(node, "DictLiteral");
+        for (DictEntry entry : node.entries) {
+            try {
+                json.beginObject()
+                        .name("type").value("DictEntry")
+                        .name("label").value("entry")
+                        .name("children").beginArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            node(entry.key);
+            node(entry.value);
+            end();
+        }
+        return end();
+    }
+
+    @Override
+    public Void visitDoWhileStmt(DoWhileStmt node) {
+        begin(node, "DoWhileStmt");
+        nodes(node.body);
+        node(node.condition);
+        return end();
+    }
+
+    @Override
+    public Void visitForStmt(ForStmt node) {
+        begin(node, "ForStmt");
+        child(node.variable);
+        child(node.iterable);
+        nodes(node.body);
+        return end();
+    }
+
+    @Override
+    public Void visitFuncDecl(FuncDecl node) {
+        begin(node, label("FuncDecl", "name", node.name, "returnType", node.returnType));
+        nodes(node.body);
+        return end();
+    }
+
+    @Override
+    public Void visitFunctionCall(FunctionCall node) {
+        begin(node, label("FunctionCall", "functionName", node.functionName));
+        nodes(node.arguments);
+        return end();
+    }
+
+    @Override
+    public Void visitIdentifier(Identifier node) {
+        begin(node, label("Identifier", "name", node.name));
+        return end();
+    }
+
+    @Override
+    public Void visitIfStmt(IfStmt node) {
+        begin(node, "IfStmt");
+        child(node.condition);
+        nodes(node.thenBranch);
+        nodes(node.elseBranch);
+        return end();
+    }
+
+    @Override
+    public Void visitIndexAssign(IndexAssign node) {
+        begin(node, "IndexAssign");
+        child(node.target);
+        child(node.index);
+        child(node.value);
+        return end();
+    }
+
+    @Override
+    public Void visitIndexExpr(IndexExpr node) {
+        begin(node, "IndexExpr");
+        child(node.target);
+        child(node.index);
+        return end();
+    }
+
+    @Override
+    public Void visitInputExpr(InputExpr node) {
+        begin(node, "InputExpr");
+        child(node.prompt);
+        return end();
+    }
+
+    @Override
+    public Void visitListLiteral(ListLiteral node) {
+        begin(node, "ListLiteral");
+        nodes(node.elements);
+        return end();
+    }
+
+    @Override
+    public Void visitLiteral(Literal node) {
+        // value é Object: não entra no rótulo
+        begin(node, "Literal");
+        return end();
+    }
+
+    @Override
+    public Void visitMethodCall(MethodCall node) {
+        begin(node, label("MethodCall", "methodName", node.methodName));
+        child(node.object);
+        nodes(node.arguments);
+        return end();
+    }
+
+    @Override
+    public Void visitMethodDecl(MethodDecl node) {
+        begin(node, label("MethodDecl", "returnType", node.returnType, "name", node.name));
+        nodes(node.body);
+        return end();
+    }
+
+    @Override
+    public Void visitNewInstance(NewInstance node) {
+        begin(node, label("NewInstance", "className", node.className));
+        nodes(node.arguments);
+        return end();
+    }
+
+    @Override
+    public Void visitParBlock(ParBlock node) {
+        begin(node, "ParBlock");
+        nodes(node.statements);
+        return end();
+    }
+
+    @Override
+    public Void visitPrintStmt(PrintStmt node) {
+        begin(node, node.newline ? "PrintStmt(newline=true)" : "PrintStmt(newline=false)");
+        nodes(node.arguments);
+        return end();
+    }
+
+    @Override
+    public Void visitProgram(Program node) {
+        begin(node, "Program");
+        nodes(node.statements);
+        return end();
+    }
+
+    @Override
+    public Void visitPropertyAccess(PropertyAccess node) {
+        begin(node, label("PropertyAccess", "propertyName", node.propertyName));
+        child(node.object);
+        return end();
+    }
+
+    @Override
+    public Void visitPropertyAssign(PropertyAssign node) {
+        begin(node, label("PropertyAssign", "propertyName", node.propertyName));
+        child(node.object);
+        child(node.value);
+        return end();
+    }
+
+    @Override
+    public Void visitReadNumberExpr(ReadNumberExpr node) {
+        begin(node, "ReadNumberExpr");
+        return end();
+    }
+
+    @Override
+    public Void visitReadlnExpr(ReadlnExpr node) {
+        begin(node, "ReadlnExpr");
+        return end();
+    }
+
+    @Override
+    public Void visitReceiveStmt(ReceiveStmt node) {
+        begin(node, "ReceiveStmt");
+        child(node.channel);
+        nodes(node.arguments);
+        return end();
+    }
+
+    @Override
+    public Void visitReturnStmt(ReturnStmt node) {
+        begin(node, "ReturnStmt");
+        child(node.value);
+        return end();
+    }
+
+    @Override
+    public Void visitSendStmt(SendStmt node) {
+        begin(node, "SendStmt");
+        child(node.channel);
+        nodes(node.arguments);
+        return end();
+    }
+
+    @Override
+    public Void visitSeqBlock(SeqBlock node) {
+        begin(node, "SeqBlock");
+        nodes(node.statements);
+        return end();
+    }
+
+    @Override
+    public Void visitSuperCall(SuperCall node) {
+        begin(node, "SuperCall");
+        nodes(node.arguments);
+        return end();
+    }
+
+    @Override
+    public Void visitThisExpr(ThisExpr node) {
+        begin(node, "ThisExpr");
+        return end();
+    }
+
+    @Override
+    public Void visitUnaryExpr(UnaryExpr node) {
+        begin(node, label("UnaryExpr", "operator", node.operator));
+        child(node.operand);
+        return end();
+    }
+
+    @Override
+    public Void visitVarDecl(VarDecl node) {
+        begin(node, label("VarDecl", "name", node.name, "type", node.type));
+        child(node.initializer);
+        return end();
+    }
+
+    @Override
+    public Void visitWhileStmt(WhileStmt node) {
+        begin(node, "WhileStmt");
+        child(node.condition);
+        nodes(node.body);
+        return end();
+    }
+
+    /**
+     * Escreve um nó, ou {@code null} se ele não existir.
+     */
+    private void node(ASTNode node) {
+        if (node == null) {
+            try {
+                json.nullValue();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+        node.accept(this);
+    }
+
+    /**
+     * Escreve um filho opcional: campos nulos não aparecem em {@code children}.
+     */
+    private void child(ASTNode node) {
+        if (node != null) {
+            node.accept(this);
+        }
+    }
+
+    private void nodes(List<? extends ASTNode> list) {
+        if (list == null) {
+            return;
+        }
+        for (ASTNode item : list) {
+            child(item);
+        }
+    }
+
+    private void begin(ASTNode node, String label) {
+        try {
+            json.beginObject()
+                    .name("type").value(node.getClass().getSimpleName())
+                    .name("label").value(label)
+                    .name("children").beginArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Void end() {
+        try {
+            json.endArray().endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    private static String label(String type, String name, String value) {
+        return value == null ? type : type + "(" + name + "=" + value + ")";
+    }
+
+    private static String label(String type, String name1, String value1, String name2, String value2) {
+        if (value1 == null) {
+            return label(type, name2, value2);
+        }
+        if (value2 == null) {
+            return label(type, name1, value1);
+        }
+        return type + "(" + name1 + "=" + value1 + ", " + name2 + "=" + value2 + ")";
+    }
+}
@@ -0,0 +1,237 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Escritor de JSON em fluxo, usado por todos os handlers do {@link WebServer}.
+ * <p>
+ * Os valores são escapados e escritos diretamente no {@link Writer} de destino,
+ * sem montar a resposta completa em memória. Para respostas HTTP, use
+ * {@link #forExchange(HttpExchange, int)}, que envia o corpo em UTF-8 com
+ * transferência chunked.
+ */
+public class JsonWriter implements Closeable {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    /** Capacidade inicial da pilha de aninhamento; cresce conforme necessário. */
+    private static final int INITIAL_DEPTH = 32;
+
+    private final Writer out;
+    /** Indica, por nível de aninhamento, se o próximo valor é o primeiro do contêiner. */
+    private boolean[] first = new boolean[INITIAL_DEPTH];
+    private int depth = 0;
+    /** Indica que um nome acabou de ser escrito e o próximo valor não leva vírgula. */
+    private boolean afterName = false;
+
+    /**
+     * Cria um escritor de JSON sobre o destino informado.
+     *
+     * @param out Destino dos caracteres.
+     */
+    public JsonWriter(Writer out) {
+        this.out = out;
+        this.first[0] = true;
+    }
+
+    /**
+     * Prepara uma resposta JSON para a troca HTTP: define os cabeçalhos, envia
+     * o status com corpo chunked e retorna um escritor sobre o corpo.
+     *
+     * @param exchange Troca HTTP.
+     * @param status   Código de status HTTP.
+     * @return Escritor que deve ser fechado ao final da resposta.
+     */
+    public static JsonWriter forExchange(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.sendResponseHeaders(status, 0);
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 8192);
+        return new JsonWriter(writer);
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        out.write('{');
+        push();
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException {
+        depth--;
+        out.write('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        beforeValue();
+        out.write('[');
+        push();
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException {
+        depth--;
+        out.write(']');
+        return this;
+    }
+
+    /**
+     * Escreve o nome de um campo; deve ser seguido por um valor.
+     *
+     * @param name Nome do campo.
+     */
+    public JsonWriter name(String name) throws IOException {
+        beforeValue();
+        writeString(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Escreve uma string (ou {@code null}) escapada.
+     *
+     * @param value Valor a escrever.
+     */
+    public JsonWriter value(CharSequence value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    /**
+     * Escreve um trecho de JSON já renderizado, sem escapar.
+     *
+     * @param json JSON válido (por exemplo, vindo do cache de programas).
+     */
+    public JsonWriter rawValue(String json) throws IOException {
+        beforeValue();
+        out.write(json);
+        return this;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void push() {
+        if (depth + 1 == first.length) {
+            first = Arrays.copyOf(first, first.length * 2);
+        }
+        first[++depth] = true;
+    }
+
+    /**
+     * Escreve a vírgula separadora, se necessário, antes de um valor ou nome.
+     */
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (first[depth]) {
+            first[depth] = false;
+        } else {
+            out.write(',');
+        }
+    }
+
+    /**
+     * Escreve a string entre aspas, escapando os caracteres especiais.
+     * Trechos sem caracteres especiais são copiados de uma só vez.
+     */
+    private void writeString(CharSequence s) throws IOException {
+        out.write('"');
+        int len = s.length();
+        int runStart = 0;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c >= ' ' && c != '"' && c != '\\') {
+                continue;
+            }
+            if (i > runStart) {
+                writeRun(s, runStart, i);
+            }
+            runStart = i + 1;
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\b':
+                    out.write("\\b");
+                    break;
+                case '\f':
+                    out.write("\\f");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    out.write("\\u00");
+                    out.write(HEX[c >> 4]);
+                    out.write(HEX[c & 0xF]);
+            }
+        }
+        if (len > runStart) {
+            writeRun(s, runStart, len);
+        }
+        out.write('"');
+    }
+
+    /**
+     * Copia um trecho sem caracteres especiais; para {@link String} evita a
+     * criação de substrings.
+     */
+    private void writeRun(CharSequence s, int from, int to) throws IOException {
+        if (s instanceof String str) {
+            out.write(str, from, to - from);
+        } else {
+            for (int i = from; i < to; i++) {
+                out.write(s.charAt(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package server;
+
+import lexer.Lexer;
+import lexer.PackedTokens;
+import lexer.Token;
+import parser.Parser;
+import parser.Program;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache LRU de programas já analisados, compartilhado por todos os handlers do
+ * {@link WebServer}.
+ * <p>
+ * A chave é o hash SHA-256 do código-fonte; cada entrada guarda a lista
+ * imutável de tokens, a AST ({@link Program}), as mensagens de erro
+ * léxico/sintático e, sob demanda, o JSON pré-renderizado do {@code /analyze}.
+ * O cache é limitado tanto pelo número de entradas quanto por uma estimativa
+ * do tamanho em bytes de cada entrada.
+ * <p>
+ * O compartilhamento da AST entre execuções é seguro porque os nós de
+ * {@code parser.ast} são imutáveis (campos {@code final} e listas não
+ * modificáveis).
+ */
+public class ProgramCache {
+    /** Estimativa de bytes ocupados por um token (record + referências). */
+    private static final int TOKEN_OVERHEAD = 56;
+    /** Estimativa de bytes de AST gerados por token. */
+    private static final int AST_BYTES_PER_TOKEN = 64;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    /** Entradas em ordem de acesso (a mais antiga é a primeira a ser removida). */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Cria um cache de programas.
+     *
+     * @param maxEntries Número máximo de entradas.
+     * @param maxBytes   Tamanho máximo estimado (em bytes) de todas as entradas.
+     */
+    public ProgramCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Obtém o programa analisado correspondente ao código-fonte, executando o
+     * lexer e o parser apenas se ele ainda não estiver no cache.
+     * <p>
+     * Em caso de acerto, as mensagens de erro léxico/sintático registradas na
+     * análise original são reemitidas em {@code System.err}, de modo que o
+     * chamador observe a mesma saída de uma análise nova.
+     *
+     * @param code Código-fonte MiniPar.
+     * @return Entrada com tokens, AST e diagnósticos.
+     */
+    public Entry get(String code) {
+        String key = hash(code);
+        Entry cached;
+        synchronized (this) {
+            cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+
+        if (cached != null) {
+            cached.printDiagnostics(System.err);
+            return cached;
+        }
+
+        Entry compiled = compile(key, code);
+        synchronized (this) {
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                // Outra requisição compilou o mesmo código concorrentemente
+                return existing;
+            }
+            entries.put(key, compiled);
+            currentBytes += compiled.weight;
+            evictIfNeeded();
+        }
+        return compiled;
+    }
+
+    /**
+     * Retorna o JSON do {@code /analyze} da entrada, renderizando-o apenas na
+     * primeira vez.
+     *
+     * @param entry    Entrada obtida por {@link #get(String)}.
+     * @param renderer Função que gera o JSON a partir da entrada.
+     * @return JSON pré-renderizado.
+     */
+    public String analyzeJson(Entry entry, Function<Entry, String> renderer) {
+        String json = entry.analyzeJson;
+        if (json != null) {
+            return json;
+        }
+
+        json = renderer.apply(entry);
+        synchronized (this) {
+            if (entry.analyzeJson == null) {
+                entry.analyzeJson = json;
+                long extra = (long) json.length() * 2;
+                entry.weight += extra;
+                if (entries.get(entry.key) == entry) {
+                    currentBytes += extra;
+                    evictIfNeeded();
+                }
+            }
+        }
+        return json;
+    }
+
+    /**
+     * Retorna um retrato das estatísticas do cache.
+     *
+     * @return Estatísticas atuais.
+     */
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), currentBytes, maxEntries, maxBytes);
+    }
+
+    /**
+     * Remove as entradas menos recentemente usadas até respeitar os limites.
+     * Deve ser chamado com o monitor do cache adquirido.
+     */
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || currentBytes > maxBytes) && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            currentBytes -= eldest.weight;
+            evictions++;
+        }
+    }
+
+    /**
+     * Executa as fases léxica e sintática para um código ainda não visto.
+     */
+    private static Entry compile(String key, String code) {
+        Lexer lexer = new Lexer(code);
+        PackedTokens packed = lexer.scanPacked();
+
+        Parser parser = new Parser(packed);
+        Program program = parser.parse();
+        // Lexemas repetidos compartilham a mesma String (pool do PackedTokens)
+        List<Token> tokens = List.copyOf(packed.toList());
+
+        List<String> diagnostics = new ArrayList<>(lexer.getErrors());
+        diagnostics.addAll(parser.getErrors());
+
+        long weight = (long) code.length() * 2 + (long) tokens.size() * (TOKEN_OVERHEAD + AST_BYTES_PER_TOKEN);
+        for (Token t : tokens) {
+            weight += (long) t.lexeme().length() * 2;
+        }
+        return new Entry(key, tokens, program, List.copyOf(diagnostics), weight);
+    }
+
+    /**
+     * Calcula o hash SHA-256 (em hexadecimal) do código-fonte.
+     */
+    private static String hash(String code) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(code.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Programa analisado armazenado no cache.
+     */
+    public static class Entry {
+        private final String key;
+        private final List<Token> tokens;
+        private final Program program;
+        private final List<String> diagnostics;
+        private volatile String analyzeJson;
+        private long weight;
+
+        Entry(String key, List<Token> tokens, Program program, List<String> diagnostics, long weight) {
+            this.key = key;
+            this.tokens = tokens;
+            this.program = program;
+            this.diagnostics = diagnostics;
+            this.weight = weight;
+        }
+
+        /** Lista imutável de tokens (inclui o EOF). */
+        public List<Token> tokens() {
+            return tokens;
+        }
+
+        /** AST do programa. */
+        public Program program() {
+            return program;
+        }
+
+        /** Mensagens de erro léxico e sintático da análise original. */
+        public List<String> diagnostics() {
+            return diagnostics;
+        }
+
+        /** Reemite as mensagens de erro no fluxo informado. */
+        void printDiagnostics(PrintStream err) {
+            for (String d : diagnostics) {
+                err.println(d);
+            }
+        }
+    }
+
+    /**
+     * Estatísticas do cache.
+     *
+     * @param hits       Número de acertos.
+     * @param misses     Número de falhas (programas compilados).
+     * @param evictions  Número de entradas removidas por falta de espaço.
+     * @param entries    Número de entradas atuais.
+     * @param bytes      Tamanho estimado atual, em bytes.
+     * @param maxEntries Limite de entradas.
+     * @param maxBytes   Limite de tamanho estimado, em bytes.
+     */
+    public record Stats(long hits, long misses, long evictions, int entries, long bytes, int maxEntries,
+            long maxBytes) {
+    }
+}
@@ -0,0 +1,439 @@
+package server;
+
+import interpreter.ExecutionSession;
+import interpreter.LineCounters;
+import io.SessionListener;
+import parser.Program;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Servidor WebSocket mínimo (RFC 6455) para sessões interativas.
+ * <p>
+ * O {@code HttpServer} do JDK não permite assumir a conexão após o
+ * {@code Upgrade}, por isso este servidor escuta em uma porta própria.
+ * Protocolo em {@code /session/ws}, uma sessão por conexão:
+ * <ul>
+ * <li>cliente → servidor: a primeira mensagem de texto é o código-fonte; as
+ * seguintes são linhas de entrada para {@code readln}/{@code readNumber};</li>
+ * <li>servidor → cliente: mensagens JSON
+ * {@code {"type":"output","text":...}}, {@code {"type":"error","text":...}},
+ * {@code {"type":"input"}} e, ao final, {@code {"type":"exit","success":...}},
+ * seguida do fechamento da conexão.</li>
+ * </ul>
+ * Com {@code /session/ws?lines=1}, a mensagem {@code exit} traz também
+ * {@code lineCounts}, as execuções de cada linha (ver {@link LineCounters}).
+ * Fechar a conexão cancela a execução.
+ */
+public class SessionWebSocketServer {
+    private static final String PATH = "/session/ws";
+    private static final String GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    /** Tamanho máximo de uma mensagem recebida (código-fonte ou entrada). */
+    private static final int MAX_MESSAGE = 1024 * 1024;
+    private static final int MAX_HEADER_LINE = 8192;
+
+    private static final int OP_CONTINUATION = 0x0;
+    private static final int OP_TEXT = 0x1;
+    private static final int OP_BINARY = 0x2;
+    private static final int OP_CLOSE = 0x8;
+    private static final int OP_PING = 0x9;
+    private static final int OP_PONG = 0xA;
+
+    private static final int CLOSE_NORMAL = 1000;
+    private static final int CLOSE_PROTOCOL_ERROR = 1002;
+    private static final int CLOSE_UNSUPPORTED = 1003;
+    private static final int CLOSE_TOO_BIG = 1009;
+
+    private final Function<String, Program> frontEnd;
+    private final ExecutorService connections = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "ws-connection");
+        t.setDaemon(true);
+        return t;
+    });
+    private ServerSocket serverSocket;
+
+    /**
+     * @param frontEnd Função que executa (ou reaproveita do cache) as fases
+     *                 léxica e sintática
+     */
+    public SessionWebSocketServer(Function<String, Program> frontEnd) {
+        this.frontEnd = frontEnd;
+    }
+
+    /**
+     * Começa a aceitar conexões na porta informada.
+     *
+     * @param port Porta TCP (0 para escolher uma livre).
+     */
+    public void start(int port) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port));
+        Thread acceptor = new Thread(this::acceptLoop, "ws-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /** Porta em que o servidor está escutando. */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** Encerra o servidor; conexões abertas terminam com suas sessões. */
+    public void stop() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.execute(() -> new Connection(socket).run());
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("[ws] erro ao aceitar conexão: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Conexão WebSocket ligada a uma {@link ExecutionSession}.
+     */
+    private class Connection implements SessionListener {
+        private final Socket socket;
+        private InputStream in;
+        private OutputStream out;
+        private ExecutionSession session;
+        private boolean countLines = false;
+        private boolean closeSent = false;
+
+        Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        void run() {
+            try (socket) {
+                in = new BufferedInputStream(socket.getInputStream());
+                out = new BufferedOutputStream(socket.getOutputStream());
+                if (!handshake()) {
+                    return;
+                }
+                readLoop();
+            } catch (SocketException | SocketTimeoutException | EOFException e) {
+                // conexão encerrada pelo cliente
+            } catch (IOException e) {
+                System.err.println("[ws] erro na conexão: " + e.getMessage());
+            } finally {
+                if (session != null && session.isRunning()) {
+                    session.cancel();
+                }
+            }
+        }
+
+        // ---------------------------------------------------------------
+        // Handshake HTTP
+        // ---------------------------------------------------------------
+
+        private boolean handshake() throws IOException {
+            String requestLine = readHeaderLine();
+            Map<String, String> headers = new HashMap<>();
+            String line;
+            while (!(line = readHeaderLine()).isEmpty()) {
+                int colon = line.indexOf(':');
+                if (colon > 0) {
+                    headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT),
+                            line.substring(colon + 1).trim());
+                }
+            }
+
+            String[] parts = requestLine.split(" ");
+            if (parts.length != 3 || !parts[0].equals("GET")) {
+                rejectHandshake("405 Method Not Allowed");
+                return false;
+            }
+            String path = parts[1];
+            int query = path.indexOf('?');
+            if (query >= 0) {
+                countLines = path.substring(query + 1).matches("(.*&)?lines=1(&.*)?");
+                path = path.substring(0, query);
+            }
+            if (!path.equals(PATH)) {
+                rejectHandshake("404 Not Found");
+                return false;
+            }
+
+            String key = headers.get("sec-websocket-key");
+            String upgrade = headers.getOrDefault("upgrade", "");
+            String connection = headers.getOrDefault("connection", "").toLowerCase(Locale.ROOT);
+            if (key == null || !upgrade.equalsIgnoreCase("websocket") || !connection.contains("upgrade")
+                    || !"13".equals(headers.get("sec-websocket-version"))) {
+                rejectHandshake("400 Bad Request");
+                return false;
+            }
+
+            String response = "HTTP/1.1 101 Switching Protocols\r\n"
+                    + "Upgrade: websocket\r\n"
+                    + "Connection: Upgrade\r\n"
+                    + "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n";
+            out.write(response.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return true;
+        }
+
+        private void rejectHandshake(String status) throws IOException {
+            out.write(("HTTP/1.1 " + status + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        private String readHeaderLine() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while ((c = in.read()) != '\n') {
+                if (c < 0) {
+                    throw new EOFException();
+                }
+                if (c != '\r') {
+                    if (sb.length() >= MAX_HEADER_LINE) {
+                        throw new IOException("Cabeçalho HTTP muito longo");
+                    }
+                    sb.append((char) c);
+                }
+            }
+            return sb.toString();
+        }
+
+        // ---------------------------------------------------------------
+        // Leitura de frames
+        // ---------------------------------------------------------------
+
+        private void readLoop() throws IOException {
+            ByteArrayOutputStream message = new ByteArrayOutputStream();
+            int messageOpcode = -1;
+
+            while (true) {
+                int b0 = in.read();
+                int b1 = in.read();
+                if (b0 < 0 || b1 < 0) {
+                    return;
+                }
+                boolean fin = (b0 & 0x80) != 0;
+                int opcode = b0 & 0x0F;
+                boolean masked = (b1 & 0x80) != 0;
+                long length = b1 & 0x7F;
+                if (length == 126) {
+                    length = readBytes(2);
+                } else if (length == 127) {
+                    length = readBytes(8);
+                }
+
+                if ((b0 & 0x70) != 0 || !masked || length < 0) {
+                    // Extensões não negociadas, frame do cliente sem máscara ou
+                    // tamanho de 64 bits com o bit mais significativo ligado
+                    close(CLOSE_PROTOCOL_ERROR);
+                    return;
+                }
+                boolean control = opcode >= 0x8;
+                if (control && (!fin || length > 125)) {
+                    close(CLOSE_PROTOCOL_ERROR);
+                    return;
+                }
+                if (length > MAX_MESSAGE || message.size() + length > MAX_MESSAGE) {
+                    close(CLOSE_TOO_BIG);
+                    return;
+                }
+
+                byte[] mask = in.readNBytes(4);
+                byte[] payload = in.readNBytes((int) length);
+                if (mask.length < 4 || payload.length < length) {
+                    return;
+                }
+                for (int i = 0; i < payload.length; i++) {
+                    payload[i] ^= mask[i & 3];
+                }
+
+                switch (opcode) {
+                    case OP_CLOSE:
+                        close(CLOSE_NORMAL);
+                        return;
+                    case OP_PING:
+                        sendFrame(OP_PONG, payload);
+                        continue;
+                    case OP_PONG:
+                        continue;
+                    case OP_TEXT:
+                    case OP_BINARY:
+                        if (messageOpcode != -1) {
+                            close(CLOSE_PROTOCOL_ERROR);
+                            return;
+                        }
+                        messageOpcode = opcode;
+                        break;
+                    case OP_CONTINUATION:
+                        if (messageOpcode == -1) {
+                            close(CLOSE_PROTOCOL_ERROR);
+                            return;
+                        }
+                        break;
+                    default:
+                        close(CLOSE_PROTOCOL_ERROR);
+                        return;
+                }
+
+                message.write(payload);
+                if (!fin) {
+                    continue;
+                }
+                if (messageOpcode != OP_TEXT) {
+                    close(CLOSE_UNSUPPORTED);
+                    return;
+                }
+                onMessage(message.toString(StandardCharsets.UTF_8));
+                message.reset();
+                messageOpcode = -1;
+            }
+        }
+
+        private long readBytes(int n) throws IOException {
+            long value = 0;
+            for (int i = 0; i < n; i++) {
+                int b = in.read();
+                if (b < 0) {
+                    throw new EOFException();
+                }
+                value = (value << 8) | b;
+            }
+            return value;
+        }
+
+        private void onMessage(String text) throws IOException {
+            if (session == null) {
+                session = new ExecutionSession(text, frontEnd);
+                session.setListener(this);
+                if (countLines) {
+                    session.enableLineCounts();
+                }
+                session.start();
+            } else if (session.isRunning()) {
+                session.provideInput(text);
+            }
+        }
+
+        // ---------------------------------------------------------------
+        // SessionListener: eventos da sessão enviados ao cliente
+        // ---------------------------------------------------------------
+
+        @Override
+        public void onOutput(String text) {
+            sendEvent("output", text);
+        }
+
+        @Override
+        public void onError(String text) {
+            sendEvent("error", text);
+        }
+
+        @Override
+        public void onInputRequested() {
+            sendEvent("input", null);
+        }
+
+        @Override
+        public void onFinished(boolean success) {
+            StringWriter sw = new StringWriter();
+            try {
+                JsonWriter json = new JsonWriter(sw).beginObject().name("type").value("exit")
+                        .name("success").value(success);
+                LineCounters counters = session.getLineCounts();
+                if (counters != null) {
+                    WebServer.writeLineCounts(json, counters);
+                }
+                json.endObject();
+                sendFrame(OP_TEXT, sw.toString().getBytes(StandardCharsets.UTF_8));
+                close(CLOSE_NORMAL);
+            } catch (IOException ignored) {
+                // cliente já desconectou
+            }
+        }
+
+        private void sendEvent(String type, String text) {
+            StringWriter sw = new StringWriter();
+            try {
+                JsonWriter json = new JsonWriter(sw).beginObject().name("type").value(type);
+                if (text != null) {
+                    json.name("text").value(text);
+                }
+                json.endObject();
+                sendFrame(OP_TEXT, sw.toString().getBytes(StandardCharsets.UTF_8));
+            } catch (IOException ignored) {
+                // cliente já desconectou; a sessão é cancelada pela thread de leitura
+            }
+        }
+
+        // ---------------------------------------------------------------
+        // Escrita de frames (thread da sessão e thread de leitura)
+        // ---------------------------------------------------------------
+
+        private synchronized void sendFrame(int opcode, byte[] payload) throws IOException {
+            if (closeSent) {
+                return;
+            }
+            out.write(0x80 | opcode);
+            if (payload.length < 126) {
+                out.write(payload.length);
+            } else if (payload.length <= 0xFFFF) {
+                out.write(126);
+                out.write(payload.length >>> 8);
+                out.write(payload.length);
+            } else {
+                out.write(127);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    out.write((int) ((long) payload.length >>> shift));
+                }
+            }
+            out.write(payload);
+            out.flush();
+        }
+
+        private synchronized void close(int code) throws IOException {
+            if (closeSent) {
+                return;
+            }
+            sendFrame(OP_CLOSE, new byte[] { (byte) (code >>> 8), (byte) code });
+            closeSent = true;
+            // Não esperar indefinidamente pela confirmação do cliente
+            socket.setSoTimeout(5000);
+        }
+    }
+
+    /**
+     * Calcula o {@code Sec-WebSocket-Accept} correspondente à chave do cliente.
+     */
+    private static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            byte[] digest = sha1.digest((key + GUID).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 indisponível", e);
+        }
+    }
+}
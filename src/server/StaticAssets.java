@@ -0,0 +1,197 @@
+package server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache em memória dos arquivos estáticos da interface web ({@code web/}).
+ * <p>
+ * Os arquivos são lidos uma única vez, na inicialização, junto com uma cópia
+ * comprimida em gzip e um ETag forte calculado pelo SHA-256 do conteúdo. O
+ * conjunto carregado é imutável; no modo de desenvolvimento
+ * ({@link #watch()}), alterações no diretório fazem o conjunto inteiro ser
+ * recarregado e substituído atomicamente.
+ */
+public class StaticAssets {
+    /** Arquivos menores que isso não compensam a compressão. */
+    private static final int MIN_GZIP_SIZE = 256;
+
+    private final Path root;
+    private volatile Map<String, Asset> assets;
+
+    private StaticAssets(Path root, Map<String, Asset> assets) {
+        this.root = root;
+        this.assets = assets;
+    }
+
+    /**
+     * Carrega todos os arquivos do diretório informado.
+     *
+     * @param root Diretório raiz dos arquivos estáticos.
+     * @return Cache carregado.
+     */
+    public static StaticAssets load(Path root) throws IOException {
+        return new StaticAssets(root, scan(root));
+    }
+
+    /**
+     * Procura um arquivo pelo caminho da requisição (por exemplo
+     * {@code /app.js}).
+     *
+     * @param path Caminho da URL, começando com {@code /}.
+     * @return O arquivo ou {@code null} se não existir.
+     */
+    public Asset get(String path) {
+        return assets.get(path);
+    }
+
+    /**
+     * Número de arquivos carregados.
+     */
+    public int size() {
+        return assets.size();
+    }
+
+    /**
+     * Inicia uma thread daemon que recarrega os arquivos sempre que o
+     * diretório raiz for modificado. Destinado apenas ao desenvolvimento da
+     * interface web.
+     */
+    public void watch() throws IOException {
+        WatchService watcher = root.getFileSystem().newWatchService();
+        root.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+
+        Thread thread = new Thread(() -> {
+            while (true) {
+                WatchKey key;
+                try {
+                    key = watcher.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                key.pollEvents();
+                try {
+                    assets = scan(root);
+                    System.out.println("[web] arquivos estáticos recarregados (" + assets.size() + ")");
+                } catch (IOException e) {
+                    System.err.println("[web] falha ao recarregar arquivos estáticos: " + e.getMessage());
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        }, "static-assets-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static Map<String, Asset> scan(Path root) throws IOException {
+        Map<String, Asset> map = new HashMap<>();
+        if (!Files.isDirectory(root)) {
+            return Map.of();
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String path = "/" + root.relativize(file).toString().replace('\\', '/');
+                map.put(path, Asset.of(path, Files.readAllBytes(file)));
+            }
+        }
+        return Map.copyOf(map);
+    }
+
+    /**
+     * Arquivo estático carregado em memória.
+     *
+     * @param contentType Tipo MIME enviado no {@code Content-Type}.
+     * @param identity    Conteúdo original.
+     * @param gzip        Conteúdo comprimido em gzip, ou {@code null} se a
+     *                    compressão não reduzir o tamanho.
+     * @param etag        ETag forte (entre aspas) do conteúdo original.
+     * @param gzipEtag    ETag forte da representação gzip.
+     */
+    public record Asset(String contentType, byte[] identity, byte[] gzip, String etag, String gzipEtag) {
+
+        static Asset of(String path, byte[] content) throws IOException {
+            String contentType = contentType(path);
+            byte[] gzip = null;
+            if (content.length >= MIN_GZIP_SIZE && !contentType.startsWith("image/")) {
+                byte[] compressed = gzip(content);
+                if (compressed.length < content.length) {
+                    gzip = compressed;
+                }
+            }
+            String tag = hash(content);
+            return new Asset(contentType, content, gzip, "\"" + tag + "\"", "\"" + tag + "-gz\"");
+        }
+
+        /**
+         * Indica se o cabeçalho {@code If-None-Match} corresponde a este
+         * arquivo, em qualquer uma das representações.
+         *
+         * @param ifNoneMatch Valor do cabeçalho (pode ser {@code null}).
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String contentType(String path) {
+            if (path.endsWith(".html"))
+                return "text/html; charset=utf-8";
+            if (path.endsWith(".css"))
+                return "text/css; charset=utf-8";
+            if (path.endsWith(".js"))
+                return "application/javascript; charset=utf-8";
+            if (path.endsWith(".json"))
+                return "application/json; charset=utf-8";
+            if (path.endsWith(".svg"))
+                return "image/svg+xml";
+            if (path.endsWith(".png"))
+                return "image/png";
+            if (path.endsWith(".ico"))
+                return "image/x-icon";
+            return "text/plain; charset=utf-8";
+        }
+
+        private static byte[] gzip(byte[] content) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 2);
+            try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+                out.write(content);
+            }
+            return bytes.toByteArray();
+        }
+
+        private static String hash(byte[] content) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+                StringBuilder sb = new StringBuilder(32);
+                for (int i = 0; i < 16; i++) {
+                    sb.append(Character.forDigit((digest[i] >> 4) & 0xF, 16))
+                            .append(Character.forDigit(digest[i] & 0xF, 16));
+                }
+                return sb.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 indisponível", e);
+            }
+        }
+    }
+}
@@ -1,22 +1,30 @@
 package server;
 
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpServer;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpExchange;
 import interpreter.ExecutionSession;
 import interpreter.Interpreter;
+import interpreter.LineCounters;
+import interpreter.SamplingProfiler;
+import lexer.EditableTokens;
 import lexer.Lexer;
 import lexer.Token;
-import parser.Parser;
+import lexer.TokenStream;
+import parser.IncrementalDocument;
 import parser.Program;
 import parser.ast.ASTNode;
 
 import java.io.*;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
@@ -26,7 +34,36 @@ import java.util.stream.Collectors;
  */
 public class WebServer {
     private static final int PORT = 8080;
+    /** Porta do WebSocket das sessões interativas (ver {@link SessionWebSocketServer}) */
+    private static final int WS_PORT = Integer.getInteger("minipar.ws.port", 8081);
     private static final Map<String, ExecutionSession> sessions = new ConcurrentHashMap<>();
+    /** Cache de programas analisados, compartilhado por /execute, /analyze e sessões */
+    private static final ProgramCache programCache = new ProgramCache(
+            Integer.getInteger("minipar.cache.maxEntries", 128),
+            Long.getLong("minipar.cache.maxBytes", 64L * 1024 * 1024));
+    /** Máximo de documentos abertos para análise incremental (os menos usados saem primeiro) */
+    private static final int MAX_DOCUMENTS = Integer.getInteger("minipar.docs.maxEntries", 64);
+    /** Documentos do editor abertos em /analyze/open */
+    private static final Map<String, IncrementalDocument> documents = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, IncrementalDocument> eldest) {
+                    return size() > MAX_DOCUMENTS;
+                }
+            });
+    /** Máximo de perfis de sessões guardados (os menos consultados saem primeiro) */
+    private static final int MAX_PROFILES = Integer.getInteger("minipar.profiles.maxEntries", 32);
+    /**
+     * Perfis das sessões iniciadas com {@code profile=1}, mantidos depois que
+     * a sessão termina e sai de {@link #sessions}
+     */
+    private static final Map<String, SamplingProfiler> profiles = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, SamplingProfiler> eldest) {
+                    return size() > MAX_PROFILES;
+                }
+            });
 
     /**
      * Encontra o diretório web, verificando se estamos em build/ ou na raiz
@@ -49,10 +86,42 @@ public class WebServer {
     }
 
     public static void main(String[] args) throws IOException {
-        HttpServer server = HttpServer.create(new InetSocketAddress(PORT), 0);
+        start(PORT);
+        new SessionWebSocketServer(code -> programCache.get(code).program()).start(WS_PORT);
+
+        System.out.println("=".repeat(70));
+        System.out.println("  SERVIDOR WEB MINIPAR");
+        System.out.println("=".repeat(70));
+        System.out.println("\n🌐 Servidor rodando em: http://localhost:" + PORT);
+        System.out.println("🔌 Sessões interativas via WebSocket: ws://localhost:" + WS_PORT + "/session/ws");
+        System.out.println("📝 Acesse a interface web no navegador");
+        System.out.println("\nPressione Ctrl+C para encerrar o servidor\n");
+    }
+
+    /**
+     * Cria e inicia o servidor na porta informada.
+     * <p>
+     * Os arquivos de {@code web/} são carregados uma única vez aqui; com
+     * {@code -Dminipar.web.dev=true} eles são recarregados a cada alteração.
+     *
+     * @param port Porta TCP (0 para escolher uma livre).
+     * @return Servidor em execução.
+     */
+    public static HttpServer start(int port) throws IOException {
+        // Sem TCP_NODELAY, cabeçalhos e corpo enviados em escritas separadas
+        // esperam o ACK atrasado do cliente (~40 ms por resposta)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+
+        StaticAssets assets = StaticAssets.load(Paths.get(findWebDirectory()));
+        if (Boolean.getBoolean("minipar.web.dev")) {
+            assets.watch();
+        }
 
         // Endpoint para servir a página HTML
-        server.createContext("/", new StaticFileHandler());
+        server.createContext("/", new StaticFileHandler(assets));
 
         // Endpoint para executar código MiniPar
         server.createContext("/execute", new ExecuteHandler());
@@ -61,19 +130,76 @@ public class WebServer {
         server.createContext("/session/start", new StartSessionHandler());
         server.createContext("/session/status", new SessionStatusHandler());
         server.createContext("/session/input", new ProvideInputHandler());
+        server.createContext("/session/profile", new SessionProfileHandler());
 
         // Endpoint para análise (tokens e AST)
         server.createContext("/analyze", new AnalyzeHandler());
 
+        // Endpoints para análise incremental no editor
+        server.createContext("/analyze/open", new OpenDocumentHandler());
+        server.createContext("/analyze/edit", new EditDocumentHandler());
+        server.createContext("/analyze/close", new CloseDocumentHandler());
+
+        // Endpoint com estatísticas do cache de programas
+        server.createContext("/cache/stats", new CacheStatsHandler());
+
         server.setExecutor(null); // usa executor padrão
         server.start();
+        return server;
+    }
 
-        System.out.println("=".repeat(70));
-        System.out.println("  SERVIDOR WEB MINIPAR");
-        System.out.println("=".repeat(70));
-        System.out.println("\n🌐 Servidor rodando em: http://localhost:" + PORT);
-        System.out.println("📝 Acesse a interface web no navegador");
-        System.out.println("\nPressione Ctrl+C para encerrar o servidor\n");
+    /**
+     * Lê o corpo da requisição como texto UTF-8.
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        InputStreamReader isr = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8);
+        BufferedReader br = new BufferedReader(isr);
+        return br.lines().collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Lê o corpo da requisição exatamente como enviado (sem normalizar quebras
+     * de linha), necessário quando posições no texto importam.
+     */
+    private static String readRawBody(HttpExchange exchange) throws IOException {
+        return new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Obtém um parâmetro da query string, ou null se ausente.
+     */
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                String[] pair = param.split("=");
+                if (pair.length == 2 && pair[0].equals(name)) {
+                    return pair[1];
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Escreve um token no formato do /analyze.
+     */
+    private static void writeToken(JsonWriter json, TokenStream tokens, int index) throws IOException {
+        json.beginObject()
+                .name("type").value(tokens.type(index).name())
+                .name("lexeme").value(tokens.lexeme(index))
+                .name("line").value(tokens.line(index))
+                .name("column").value(tokens.column(index))
+                .endObject();
+    }
+
+    /**
+     * Envia uma resposta de erro 400 no formato {"error": "..."}.
+     */
+    private static void sendError(HttpExchange exchange, String message) throws IOException {
+        try (JsonWriter json = JsonWriter.forExchange(exchange, 400)) {
+            json.beginObject().name("error").value(message).endObject();
+        }
     }
 
     /**
@@ -88,265 +214,337 @@ public class WebServer {
             }
 
             // Ler o código do corpo da requisição
-            InputStreamReader isr = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8);
-            BufferedReader br = new BufferedReader(isr);
-            String code = br.lines().collect(Collectors.joining("\n"));
+            String code = readBody(exchange);
 
-            String jsonResponse;
+            String analysis = null;
+            Exception failure = null;
             try {
-                Lexer lexer = new Lexer(code);
-                java.util.List<Token> tokens = lexer.scanTokens();
-
-                Parser parser = new Parser(tokens);
-                Program program = parser.parse();
-
-                // Montar JSON
-                String tokensJson = tokensToJson(tokens);
-                String astStr = program != null ? program.toString() : "";
-                String astTree = program != null ? astToJson(program) : "null";
-                jsonResponse = String.format(
-                        "{\"success\": true, \"tokens\": %s, \"ast\": %s, \"astTree\": %s, \"error\": \"\"}",
-                        tokensJson, escapeJson(astStr), astTree);
+                ProgramCache.Entry entry = programCache.get(code);
+                analysis = programCache.analyzeJson(entry, this::renderAnalysis);
             } catch (Exception e) {
+                failure = e;
+            }
+
+            try (JsonWriter json = JsonWriter.forExchange(exchange, 200)) {
+                if (failure == null) {
+                    json.rawValue(analysis);
+                    return;
+                }
+
                 // Em caso de erro, ainda podemos tentar retornar os tokens (se possível)
-                String tokensJson = "[]";
+                List<Token> partialTokens = List.of();
                 try {
-                    Lexer lexer = new Lexer(code);
-                    java.util.List<Token> partialTokens = lexer.scanTokens();
-                    tokensJson = tokensToJson(partialTokens);
+                    partialTokens = new Lexer(code).scanTokens();
                 } catch (Exception ignored) {
                 }
 
                 StringWriter sw = new StringWriter();
-                e.printStackTrace(new PrintWriter(sw));
-                String err = e.getMessage() != null ? ("Erro: " + e.getMessage() + "\n\n" + sw) : sw.toString();
-                jsonResponse = String.format(
-                        "{\"success\": false, \"tokens\": %s, \"ast\": \"\", \"astTree\": null, \"error\": %s}",
-                        tokensJson, escapeJson(err));
+                failure.printStackTrace(new PrintWriter(sw));
+                String err = failure.getMessage() != null ? ("Erro: " + failure.getMessage() + "\n\n" + sw)
+                        : sw.toString();
+
+                json.beginObject().name("success").value(false).name("tokens");
+                writeTokens(json, partialTokens);
+                json.name("ast").value("")
+                        .name("astTree").nullValue()
+                        .name("error").value(err)
+                        .endObject();
             }
+        }
 
-            byte[] response = jsonResponse.getBytes(StandardCharsets.UTF_8);
-            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
-            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-            exchange.sendResponseHeaders(200, response.length);
-            try (OutputStream os = exchange.getResponseBody()) {
-                os.write(response);
+        /**
+         * Monta o JSON de sucesso do /analyze para um programa analisado.
+         * O resultado é guardado no cache de programas.
+         */
+        private String renderAnalysis(ProgramCache.Entry entry) {
+            Program program = entry.program();
+            StringWriter sw = new StringWriter();
+            try {
+                JsonWriter json = new JsonWriter(sw);
+                json.beginObject().name("success").value(true).name("tokens");
+                writeTokens(json, entry.tokens());
+                json.name("ast").value(program != null ? program.toString() : "").name("astTree");
+                AstJsonSerializer.write(json, program);
+                json.name("error").value("").endObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+            return sw.toString();
         }
 
-        private String astToJson(ASTNode node) {
-            if (node == null)
-                return "null";
-            StringBuilder sb = new StringBuilder();
-            sb.append('{');
-            String type = node.getClass().getSimpleName();
-            sb.append("\"type\":\"").append(escapeForJsonRaw(type)).append("\",");
-            // label básico: inclui até 2 campos String/number/bool
-            String label = buildLabel(node);
-            sb.append("\"label\":").append(escapeJson(label)).append(",");
-            // children
-            sb.append("\"children\":");
-            sb.append('[');
-            boolean first = true;
-            try {
-                java.lang.reflect.Field[] fields = node.getClass().getFields();
-                for (java.lang.reflect.Field f : fields) {
-                    Object v = f.get(node);
-                    if (v == null)
-                        continue;
-                    if (v instanceof ASTNode) {
-                        if (!first)
-                            sb.append(',');
-                        sb.append(astToJson((ASTNode) v));
-                        first = false;
-                    } else if (v instanceof java.util.List<?>) {
-                        java.util.List<?> list = (java.util.List<?>) v;
-                        for (Object item : list) {
-                            if (item instanceof ASTNode) {
-                                if (!first)
-                                    sb.append(',');
-                                sb.append(astToJson((ASTNode) item));
-                                first = false;
-                            } else if (item != null && item.getClass().getSimpleName().equals("DictEntry")) {
-                                // DictEntry: tem campos key e value (ASTNode)
-                                try {
-                                    java.lang.reflect.Field keyF = item.getClass().getField("key");
-                                    java.lang.reflect.Field valF = item.getClass().getField("value");
-                                    Object key = keyF.get(item);
-                                    Object val = valF.get(item);
-                                    if (!first)
-                                        sb.append(',');
-                                    sb.append('{')
-                                            .append("\"type\":\"DictEntry\",")
-                                            .append("\"label\":\"entry\",")
-                                            .append("\"children\":[")
-                                            .append(key instanceof ASTNode ? astToJson((ASTNode) key)
-                                                    : "null")
-                                            .append(',')
-                                            .append(val instanceof ASTNode ? astToJson((ASTNode) val)
-                                                    : "null")
-                                            .append("]}");
-                                    first = false;
-                                } catch (Exception ignored) {
-                                }
-                            }
-                        }
+        private void writeTokens(JsonWriter json, List<Token> tokens) throws IOException {
+            json.beginArray();
+            TokenStream stream = TokenStream.of(tokens);
+            for (int i = 0; i < tokens.size(); i++) {
+                writeToken(json, stream, i);
+            }
+            json.endArray();
+        }
+    }
+
+    /**
+     * Handler que abre um documento para análise incremental: recebe o código
+     * e devolve o identificador do documento com tokens, AST e erros.
+     */
+    static class OpenDocumentHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            IncrementalDocument document = new IncrementalDocument(readRawBody(exchange));
+            String id = UUID.randomUUID().toString();
+            documents.put(id, document);
+
+            try (JsonWriter json = JsonWriter.forExchange(exchange, 200)) {
+                synchronized (document) {
+                    EditableTokens tokens = document.tokens();
+                    json.beginObject()
+                            .name("doc").value(id)
+                            .name("version").value(document.version())
+                            .name("tokens").beginArray();
+                    for (int i = 0; i < tokens.size(); i++) {
+                        writeToken(json, tokens, i);
                     }
+                    json.endArray().name("astTree");
+                    AstJsonSerializer.write(json, document.program());
+                    writeErrors(json, document.errors());
+                    json.endObject();
                 }
-            } catch (Exception ignored) {
             }
-            sb.append(']');
-            sb.append('}');
-            return sb.toString();
         }
+    }
+
+    /**
+     * Handler que aplica uma edição a um documento aberto.
+     * <p>
+     * Parâmetros: {@code doc}, {@code offset} e {@code delete} (caracteres
+     * removidos a partir de {@code offset}); o corpo é o texto inserido. A
+     * resposta traz só o trecho alterado: os tokens {@code [start, start +
+     * deleteCount)} e as instruções de nível superior {@code [start, start +
+     * deleteCount)} antigas são substituídos pelos de {@code insert}.
+     */
+    static class EditDocumentHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
 
-        private String buildLabel(Object node) {
+            String insert = readRawBody(exchange);
+            IncrementalDocument document = documents.get(String.valueOf(queryParam(exchange, "doc")));
+            if (document == null) {
+                sendError(exchange, "Documento não encontrado");
+                return;
+            }
+            int offset;
+            int delete;
             try {
-                java.lang.reflect.Field[] fields = node.getClass().getFields();
-                java.util.List<String> parts = new java.util.ArrayList<>();
-                for (java.lang.reflect.Field f : fields) {
-                    Class<?> t = f.getType();
-                    if (t == String.class || Number.class.isAssignableFrom(t) || t == boolean.class
-                            || t == Boolean.class) {
-                        Object v = f.get(node);
-                        if (v != null) {
-                            parts.add(f.getName() + "=" + v.toString());
-                            if (parts.size() >= 2)
-                                break;
-                        }
+                offset = Integer.parseInt(String.valueOf(queryParam(exchange, "offset")));
+                delete = Integer.parseInt(String.valueOf(queryParam(exchange, "delete")));
+            } catch (NumberFormatException e) {
+                sendError(exchange, "offset e delete devem ser números inteiros");
+                return;
+            }
+
+            synchronized (document) {
+                long start = System.nanoTime();
+                IncrementalDocument.Change change;
+                try {
+                    change = document.edit(offset, delete, insert);
+                } catch (IllegalArgumentException e) {
+                    sendError(exchange, e.getMessage());
+                    return;
+                }
+                long micros = (System.nanoTime() - start) / 1000;
+
+                try (JsonWriter json = JsonWriter.forExchange(exchange, 200)) {
+                    EditableTokens tokens = document.tokens();
+                    EditableTokens.Damage damage = change.tokens();
+                    json.beginObject()
+                            .name("version").value(change.version())
+                            .name("tokens").beginObject()
+                            .name("start").value(damage.start())
+                            .name("deleteCount").value(damage.removed())
+                            .name("insert").beginArray();
+                    for (int i = damage.start(); i < damage.start() + damage.inserted(); i++) {
+                        writeToken(json, tokens, i);
+                    }
+                    json.endArray().endObject()
+                            .name("statements").beginObject()
+                            .name("start").value(change.statementStart())
+                            .name("deleteCount").value(change.statementsRemoved())
+                            .name("insert").beginArray();
+                    for (ASTNode statement : change.statements()) {
+                        AstJsonSerializer.write(json, statement);
                     }
+                    json.endArray().endObject();
+                    writeErrors(json, document.errors());
+                    json.name("micros").value(micros).endObject();
                 }
-                String base = node.getClass().getSimpleName();
-                if (parts.isEmpty())
-                    return base;
-                return base + "(" + String.join(", ", parts) + ")";
-            } catch (Exception e) {
-                return node.getClass().getSimpleName();
             }
         }
+    }
 
-        private String escapeForJsonRaw(String s) {
-            if (s == null)
-                return "";
-            StringBuilder sb = new StringBuilder();
-            for (char c : s.toCharArray()) {
-                switch (c) {
-                    case '"':
-                        sb.append("\\\"");
-                        break;
-                    case '\\':
-                        sb.append("\\\\");
-                        break;
-                    default:
-                        sb.append(c);
-                }
+    /**
+     * Handler que descarta um documento aberto.
+     */
+    static class CloseDocumentHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+            boolean removed = documents.remove(String.valueOf(queryParam(exchange, "doc"))) != null;
+            try (JsonWriter json = JsonWriter.forExchange(exchange, 200)) {
+                json.beginObject().name("success").value(removed).endObject();
             }
-            return sb.toString();
         }
+    }
 
-        private String tokensToJson(java.util.List<Token> tokens) {
-            StringBuilder sb = new StringBuilder();
-            sb.append("[");
-            for (int i = 0; i < tokens.size(); i++) {
-                Token t = tokens.get(i);
-                sb.append("{\"type\":\"").append(t.type()).append("\",")
-                        .append("\"lexeme\":").append(escapeJson(t.lexeme())).append(",")
-                        .append("\"line\":").append(t.line()).append(",")
-                        .append("\"column\":").append(t.column()).append("}");
-                if (i < tokens.size() - 1)
-                    sb.append(",");
-            }
-            sb.append("]");
-            return sb.toString();
+    /**
+     * Escreve o campo {@code errors} com as mensagens de erro léxico e sintático.
+     */
+    private static void writeErrors(JsonWriter json, List<String> errors) throws IOException {
+        json.name("errors").beginArray();
+        for (String error : errors) {
+            json.value(error);
         }
+        json.endArray();
+    }
 
-        private String escapeJson(String str) {
-            if (str == null || str.isEmpty())
-                return "\"\"";
-            StringBuilder sb = new StringBuilder();
-            sb.append('"');
-            for (char c : str.toCharArray()) {
-                switch (c) {
-                    case '"':
-                        sb.append("\\\"");
-                        break;
-                    case '\\':
-                        sb.append("\\\\");
-                        break;
-                    case '\b':
-                        sb.append("\\b");
-                        break;
-                    case '\f':
-                        sb.append("\\f");
-                        break;
-                    case '\n':
-                        sb.append("\\n");
-                        break;
-                    case '\r':
-                        sb.append("\\r");
-                        break;
-                    case '\t':
-                        sb.append("\\t");
-                        break;
-                    default:
-                        if (c < ' ')
-                            sb.append(String.format("\\u%04x", (int) c));
-                        else
-                            sb.append(c);
-                }
+    /**
+     * Handler para consultar as estatísticas do cache de programas
+     */
+    static class CacheStatsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            ProgramCache.Stats stats = programCache.stats();
+            try (JsonWriter json = JsonWriter.forExchange(exchange, 200)) {
+                json.beginObject()
+                        .name("hits").value(stats.hits())
+                        .name("misses").value(stats.misses())
+                        .name("evictions").value(stats.evictions())
+                        .name("entries").value(stats.entries())
+                        .name("bytes").value(stats.bytes())
+                        .name("maxEntries").value(stats.maxEntries())
+                        .name("maxBytes").value(stats.maxBytes())
+                        .endObject();
             }
-            sb.append('"');
-            return sb.toString();
         }
     }
 
     /**
-     * Handler para servir arquivos estáticos (HTML, CSS, JS)
+     * Handler para servir arquivos estáticos (HTML, CSS, JS) a partir do
+     * cache em memória, com ETag, revalidação condicional e gzip.
      */
     static class StaticFileHandler implements HttpHandler {
+        private final StaticAssets assets;
+
+        StaticFileHandler(StaticAssets assets) {
+            this.assets = assets;
+        }
+
         @Override
         public void handle(HttpExchange exchange) throws IOException {
-            String path = exchange.getRequestURI().getPath();
+            // Consumir o corpo antes de responder: respostas sem corpo (304)
+            // enviadas antes disso podem derrubar a conexão persistente
+            try (InputStream is = exchange.getRequestBody()) {
+                is.transferTo(OutputStream.nullOutputStream());
+            }
 
+            String method = exchange.getRequestMethod();
+            boolean head = "HEAD".equals(method);
+            if (!head && !"GET".equals(method)) {
+                exchange.sendResponseHeaders(405, -1);
+                exchange.close();
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
             if (path.equals("/")) {
                 path = "/index.html";
             }
 
-            // Mapear para o diretório web (relativo ao diretório de execução ou absoluto)
-            String filePath = findWebDirectory() + path;
-            File file = new File(filePath);
-
-            if (file.exists() && file.isFile()) {
-                // Determinar Content-Type
-                String contentType = getContentType(filePath);
+            StaticAssets.Asset asset = assets.get(path);
+            if (asset == null) {
+                byte[] response = "404 - Arquivo não encontrado".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                exchange.sendResponseHeaders(404, head ? -1 : response.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    if (!head) {
+                        os.write(response);
+                    }
+                }
+                return;
+            }
 
-                byte[] content = Files.readAllBytes(file.toPath());
+            boolean gzip = asset.gzip() != null && acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("ETag", gzip ? asset.gzipEtag() : asset.etag());
+            headers.set("Cache-Control", "no-cache");
+            if (asset.gzip() != null) {
+                headers.set("Vary", "Accept-Encoding");
+            }
 
-                exchange.getResponseHeaders().set("Content-Type", contentType);
-                exchange.sendResponseHeaders(200, content.length);
+            if (asset.matches(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
 
-                OutputStream os = exchange.getResponseBody();
-                os.write(content);
-                os.close();
-            } else {
-                String response = "404 - Arquivo não encontrado";
-                exchange.sendResponseHeaders(404, response.length());
-                OutputStream os = exchange.getResponseBody();
-                os.write(response.getBytes());
-                os.close();
+            byte[] body = gzip ? asset.gzip() : asset.identity();
+            headers.set("Content-Type", asset.contentType());
+            if (gzip) {
+                headers.set("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, head ? -1 : body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                if (!head) {
+                    os.write(body);
+                }
             }
         }
 
-        private String getContentType(String filePath) {
-            if (filePath.endsWith(".html"))
-                return "text/html; charset=utf-8";
-            if (filePath.endsWith(".css"))
-                return "text/css; charset=utf-8";
-            if (filePath.endsWith(".js"))
-                return "application/javascript; charset=utf-8";
-            if (filePath.endsWith(".json"))
-                return "application/json; charset=utf-8";
-            return "text/plain; charset=utf-8";
+        /**
+         * Verifica se o cliente aceita gzip, respeitando {@code q=0}.
+         */
+        static boolean acceptsGzip(String acceptEncoding) {
+            if (acceptEncoding == null) {
+                return false;
+            }
+            for (String part : acceptEncoding.split(",")) {
+                String[] params = part.trim().split(";");
+                String coding = params[0].trim();
+                if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                    continue;
+                }
+                for (int i = 1; i < params.length; i++) {
+                    String param = params[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            if (Double.parseDouble(param.substring(2)) == 0) {
+                                return false;
+                            }
+                        } catch (NumberFormatException e) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            }
+            return false;
         }
     }
 
@@ -362,29 +560,19 @@ public class WebServer {
             }
 
             // Ler o código do corpo da requisição
-            InputStreamReader isr = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8);
-            BufferedReader br = new BufferedReader(isr);
-            String code = br.lines().collect(Collectors.joining("\n"));
+            String code = readBody(exchange);
 
             // Executar o código e capturar a saída
             ExecutionResult result = executeCode(code);
 
             // Construir resposta JSON
-            String jsonResponse = String.format(
-                    "{\"success\": %s, \"output\": %s, \"error\": %s}",
-                    result.success,
-                    escapeJson(result.output),
-                    escapeJson(result.error));
-
-            byte[] response = jsonResponse.getBytes(StandardCharsets.UTF_8);
-
-            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
-            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-            exchange.sendResponseHeaders(200, response.length);
-
-            OutputStream os = exchange.getResponseBody();
-            os.write(response);
-            os.close();
+            try (JsonWriter json = JsonWriter.forExchange(exchange, 200)) {
+                json.beginObject()
+                        .name("success").value(result.success)
+                        .name("output").value(result.output)
+                        .name("error").value(result.error)
+                        .endObject();
+            }
         }
 
         private ExecutionResult executeCode(String code) {
@@ -398,16 +586,12 @@ public class WebServer {
                 System.setOut(new PrintStream(outContent, true, StandardCharsets.UTF_8));
                 System.setErr(new PrintStream(errContent, true, StandardCharsets.UTF_8));
 
-                // Executar análise léxica
-                Lexer lexer = new Lexer(code);
-                List<Token> tokens = lexer.scanTokens();
-
-                // Executar análise sintática
-                Parser parser = new Parser(tokens);
-                Program program = parser.parse();
+                // Executar (ou reaproveitar do cache) as análises léxica e sintática
+                Program program = programCache.get(code).program();
 
                 // Executar o programa
                 Interpreter interpreter = new Interpreter();
+                interpreter.setInteractiveOutput(false);
                 interpreter.execute(program);
 
                 // Restaurar streams
@@ -438,49 +622,6 @@ public class WebServer {
             }
         }
 
-        private String escapeJson(String str) {
-            if (str == null || str.isEmpty()) {
-                return "\"\"";
-            }
-
-            StringBuilder sb = new StringBuilder();
-            sb.append("\"");
-
-            for (char c : str.toCharArray()) {
-                switch (c) {
-                    case '"':
-                        sb.append("\\\"");
-                        break;
-                    case '\\':
-                        sb.append("\\\\");
-                        break;
-                    case '\b':
-                        sb.append("\\b");
-                        break;
-                    case '\f':
-                        sb.append("\\f");
-                        break;
-                    case '\n':
-                        sb.append("\\n");
-                        break;
-                    case '\r':
-                        sb.append("\\r");
-                        break;
-                    case '\t':
-                        sb.append("\\t");
-                        break;
-                    default:
-                        if (c < ' ') {
-                            sb.append(String.format("\\u%04x", (int) c));
-                        } else {
-                            sb.append(c);
-                        }
-                }
-            }
-
-            sb.append("\"");
-            return sb.toString();
-        }
     }
 
     static class ExecutionResult {
@@ -507,29 +648,24 @@ public class WebServer {
             }
 
             // Ler o código do corpo da requisição
-            InputStreamReader isr = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8);
-            BufferedReader br = new BufferedReader(isr);
-            String code = br.lines().collect(Collectors.joining("\n"));
+            String code = readBody(exchange);
 
             // Criar e iniciar sessão
-            ExecutionSession session = new ExecutionSession(code);
+            ExecutionSession session = new ExecutionSession(code, c -> programCache.get(c).program());
+            if ("1".equals(queryParam(exchange, "profile"))) {
+                session.enableProfiling();
+                profiles.put(session.getSessionId(), session.getProfiler());
+            }
+            if ("1".equals(queryParam(exchange, "lines"))) {
+                session.enableLineCounts();
+            }
             sessions.put(session.getSessionId(), session);
             session.start();
 
             // Retornar ID da sessão
-            String jsonResponse = String.format(
-                    "{\"sessionId\": \"%s\"}",
-                    session.getSessionId());
-
-            byte[] response = jsonResponse.getBytes(StandardCharsets.UTF_8);
-
-            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
-            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-            exchange.sendResponseHeaders(200, response.length);
-
-            OutputStream os = exchange.getResponseBody();
-            os.write(response);
-            os.close();
+            try (JsonWriter json = JsonWriter.forExchange(exchange, 200)) {
+                json.beginObject().name("sessionId").value(session.getSessionId()).endObject();
+            }
         }
     }
 
@@ -545,17 +681,7 @@ public class WebServer {
             }
 
             // Obter sessionId da query string
-            String query = exchange.getRequestURI().getQuery();
-            String sessionId = null;
-            if (query != null) {
-                for (String param : query.split("&")) {
-                    String[] pair = param.split("=");
-                    if (pair.length == 2 && pair[0].equals("sessionId")) {
-                        sessionId = pair[1];
-                        break;
-                    }
-                }
-            }
+            String sessionId = queryParam(exchange, "sessionId");
 
             if (sessionId == null) {
                 sendError(exchange, "sessionId não fornecido");
@@ -569,22 +695,18 @@ public class WebServer {
             }
 
             // Construir resposta com status da sessão
-            String jsonResponse = String.format(
-                    "{\"running\": %s, \"waitingForInput\": %s, \"output\": %s, \"error\": %s}",
-                    session.isRunning(),
-                    session.isWaitingForInput(),
-                    escapeJson(session.getOutput()),
-                    escapeJson(session.getError()));
-
-            byte[] response = jsonResponse.getBytes(StandardCharsets.UTF_8);
-
-            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
-            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-            exchange.sendResponseHeaders(200, response.length);
-
-            OutputStream os = exchange.getResponseBody();
-            os.write(response);
-            os.close();
+            try (JsonWriter json = JsonWriter.forExchange(exchange, 200)) {
+                json.beginObject()
+                        .name("running").value(session.isRunning())
+                        .name("waitingForInput").value(session.isWaitingForInput())
+                        .name("output").value(session.getOutput())
+                        .name("error").value(session.getError());
+                LineCounters counters = session.getLineCounts();
+                if (counters != null) {
+                    writeLineCounts(json, counters);
+                }
+                json.endObject();
+            }
 
             // Limpar sessão se não está mais rodando
             if (!session.isRunning()) {
@@ -592,61 +714,53 @@ public class WebServer {
             }
         }
 
-        private String escapeJson(String str) {
-            if (str == null || str.isEmpty()) {
-                return "\"\"";
-            }
-
-            StringBuilder sb = new StringBuilder();
-            sb.append("\"");
-
-            for (char c : str.toCharArray()) {
-                switch (c) {
-                    case '"':
-                        sb.append("\\\"");
-                        break;
-                    case '\\':
-                        sb.append("\\\\");
-                        break;
-                    case '\b':
-                        sb.append("\\b");
-                        break;
-                    case '\f':
-                        sb.append("\\f");
-                        break;
-                    case '\n':
-                        sb.append("\\n");
-                        break;
-                    case '\r':
-                        sb.append("\\r");
-                        break;
-                    case '\t':
-                        sb.append("\\t");
-                        break;
-                    default:
-                        if (c < ' ') {
-                            sb.append(String.format("\\u%04x", (int) c));
-                        } else {
-                            sb.append(c);
-                        }
-                }
-            }
 
-            sb.append("\"");
-            return sb.toString();
+    }
+
+    /**
+     * Escreve o campo {@code lineCounts}: quantas instruções de cada linha
+     * foram executadas (o primeiro elemento é a linha 1).
+     */
+    static void writeLineCounts(JsonWriter json, LineCounters counters) throws IOException {
+        json.name("lineCounts").beginArray();
+        for (long count : counters.snapshot()) {
+            json.value(count);
         }
+        json.endArray();
+    }
 
-        private void sendError(HttpExchange exchange, String message) throws IOException {
-            String jsonResponse = String.format("{\"error\": \"%s\"}", message);
-            byte[] response = jsonResponse.getBytes(StandardCharsets.UTF_8);
+    /**
+     * Handler que devolve as pilhas amostradas de uma sessão iniciada com
+     * {@code profile=1}, em texto no formato "collapsed stacks" (entrada de
+     * {@code flamegraph.pl} e speedscope). Durante a execução, devolve as
+     * amostras coletadas até o momento.
+     */
+    static class SessionProfileHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
 
-            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
-            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-            exchange.sendResponseHeaders(400, response.length);
+            String sessionId = queryParam(exchange, "sessionId");
+            if (sessionId == null) {
+                sendError(exchange, "sessionId não fornecido");
+                return;
+            }
+
+            SamplingProfiler profiler = profiles.get(sessionId);
+            if (profiler == null) {
+                sendError(exchange, "Perfil não encontrado para a sessão");
+                return;
+            }
 
-            OutputStream os = exchange.getResponseBody();
-            os.write(response);
-            os.close();
+            byte[] body = profiler.collapsed().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
         }
     }
 
@@ -662,9 +776,7 @@ public class WebServer {
             }
 
             // Ler JSON do corpo da requisição
-            InputStreamReader isr = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8);
-            BufferedReader br = new BufferedReader(isr);
-            String body = br.lines().collect(Collectors.joining("\n"));
+            String body = readBody(exchange);
 
             // Parse simples do JSON
             String sessionId = extractJsonField(body, "sessionId");
@@ -685,16 +797,9 @@ public class WebServer {
             session.provideInput(input);
 
             // Retornar sucesso
-            String jsonResponse = "{\"success\": true}";
-            byte[] response = jsonResponse.getBytes(StandardCharsets.UTF_8);
-
-            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
-            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-            exchange.sendResponseHeaders(200, response.length);
-
-            OutputStream os = exchange.getResponseBody();
-            os.write(response);
-            os.close();
+            try (JsonWriter json = JsonWriter.forExchange(exchange, 200)) {
+                json.beginObject().name("success").value(true).endObject();
+            }
         }
 
         private String extractJsonField(String json, String field) {
@@ -707,17 +812,5 @@ public class WebServer {
             return null;
         }
 
-        private void sendError(HttpExchange exchange, String message) throws IOException {
-            String jsonResponse = String.format("{\"error\": \"%s\"}", message);
-            byte[] response = jsonResponse.getBytes(StandardCharsets.UTF_8);
-
-            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
-            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-            exchange.sendResponseHeaders(400, response.length);
-
-            OutputStream os = exchange.getResponseBody();
-            os.write(response);
-            os.close();
-        }
     }
 }
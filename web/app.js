@@ -1,10 +1,21 @@
 // Aplicação principal do interpretador MiniPar Web
 let editor;
 const API_URL = 'http://localhost:8080';
+const WS_URL = 'ws://localhost:8081/session/ws';
 let inputQueue = [];
 let waitingForInput = false;
 let currentSessionId = null;
 let pollingInterval = null;
+let currentSocket = null;
+// Mapa de calor: contagem de execuções por linha na próxima execução
+let heatmapEnabled = false;
+let heatmapLineOffset = 0;
+let heatmapLines = [];
+// Documento aberto no servidor para análise incremental (/analyze/open)
+let liveDoc = null;
+let liveQueue = Promise.resolve();
+let liveGeneration = 0;
+let liveRenderTimer = null;
 let activeTab = 'tab-output';
 // AST canvas state
 let astCanvas, astCtx;
@@ -54,6 +65,9 @@ function initializeEditor() {
 
     // Ajustar altura do editor
     editor.setSize(null, "100%");
+
+    // Análise incremental: cada alteração é enviada como uma edição
+    editor.on('change', onEditorChange);
 }
 
 /**
@@ -62,6 +76,7 @@ function initializeEditor() {
 function setupEventListeners() {
     document.getElementById('runCode').addEventListener('click', runCode);
     document.getElementById('clearCode').addEventListener('click', handleClearOrStop);
+    document.getElementById('heatmapToggle').addEventListener('click', toggleHeatmap);
     document.getElementById('clearOutput').addEventListener('click', clearOutput);
     document.getElementById('loadExample').addEventListener('click', openExamplesModal);
     document.getElementById('closeModal').addEventListener('click', closeExamplesModal);
@@ -144,7 +159,7 @@ function closeExamplesModal() {
  */
 function handleClearOrStop() {
     // Se estiver executando, para a execução
-    if (pollingInterval) {
+    if (pollingInterval || currentSocket) {
         stopExecution();
     } else {
         // Caso contrário, limpa o código
@@ -157,6 +172,12 @@ function handleClearOrStop() {
  */
 function stopExecution() {
     if (confirm('Deseja realmente parar a execução?')) {
+        if (currentSocket) {
+            // Fechar a conexão cancela a sessão no servidor
+            const socket = currentSocket;
+            currentSocket = null;
+            socket.close();
+        }
         stopPolling();
         hideInputField();
         waitingForInput = false;
@@ -250,7 +271,9 @@ function setupTerminalInput() {
             waitingForInput = false;
 
             // Envia input para o servidor
-            if (currentSessionId) {
+            if (currentSocket) {
+                currentSocket.send(value);
+            } else if (currentSessionId) {
                 try {
                     await fetch(`${API_URL}/session/input`, {
                         method: 'POST',
@@ -351,14 +374,26 @@ async function runCode() {
     outputDiv.textContent = '';
     outputDiv.classList.remove('empty');
 
+    // O código enviado não tem as linhas em branco iniciais
+    clearHeatmap();
+    heatmapLineOffset = (editor.getValue().match(/^\s*/)[0].match(/\n/g) || []).length;
+
     try {
         // Atualizar Tokens e AST (análise léxica e sintática)
         analyzeAndRender(code).catch(err => {
             console.warn('Falha na análise (tokens/AST):', err);
         });
 
+        // Sessão interativa via WebSocket; se indisponível, usa polling HTTP
+        try {
+            await runWithWebSocket(code);
+            return;
+        } catch (wsError) {
+            console.warn('WebSocket indisponível, usando polling:', wsError);
+        }
+
         // Iniciar sessão de execução interativa
-        const startResponse = await fetch(`${API_URL}/session/start`, {
+        const startResponse = await fetch(`${API_URL}/session/start${heatmapEnabled ? '?lines=1' : ''}`, {
             method: 'POST',
             headers: {
                 'Content-Type': 'text/plain; charset=utf-8'
@@ -386,6 +421,87 @@ async function runCode() {
     }
 }
 
+/**
+ * Executa o código em uma sessão via WebSocket: saída e pedidos de entrada
+ * chegam assim que acontecem, sem polling.
+ * Rejeita a promessa se a conexão não puder ser aberta.
+ */
+function runWithWebSocket(code) {
+    return new Promise((resolve, reject) => {
+        let opened = false;
+        let finished = false;
+        const socket = new WebSocket(WS_URL + (heatmapEnabled ? '?lines=1' : ''));
+
+        socket.onopen = () => {
+            opened = true;
+            currentSocket = socket;
+            socket.send(code);
+            resolve();
+        };
+
+        socket.onerror = () => {
+            if (!opened) {
+                reject(new Error('Falha ao conectar em ' + WS_URL));
+            }
+        };
+
+        socket.onmessage = (event) => {
+            const message = JSON.parse(event.data);
+            switch (message.type) {
+                case 'output':
+                    appendStreamText(message.text);
+                    break;
+                case 'error':
+                    appendStreamText(message.text, 'output-error');
+                    break;
+                case 'input':
+                    if (!waitingForInput) {
+                        showInputField();
+                    }
+                    break;
+                case 'exit':
+                    finished = true;
+                    if (message.lineCounts) {
+                        renderHeatmap(message.lineCounts);
+                    }
+                    break;
+            }
+        };
+
+        socket.onclose = () => {
+            if (!opened || currentSocket !== socket) {
+                return;
+            }
+            currentSocket = null;
+            hideInputField();
+            waitingForInput = false;
+            if (!finished) {
+                appendToOutput('\nConexão com o servidor encerrada', 'output-error');
+            }
+            resetUIAfterExecution();
+        };
+    });
+}
+
+/**
+ * Acrescenta um trecho de saída (que pode não terminar em quebra de linha)
+ */
+function appendStreamText(text, className = '') {
+    const outputDiv = document.getElementById('output');
+    outputDiv.classList.remove('empty');
+
+    if (className) {
+        const span = document.createElement('span');
+        span.className = className;
+        span.textContent = text;
+        outputDiv.appendChild(span);
+    } else {
+        outputDiv.appendChild(document.createTextNode(text));
+    }
+
+    outputDiv.scrollTop = outputDiv.scrollHeight;
+}
+
 /**
  * Chama o backend para obter tokens e AST e renderiza nas respectivas abas
  */
@@ -408,6 +524,84 @@ async function analyzeAndRender(code) {
     fitAst();
 }
 
+/**
+ * Envia cada alteração do editor ao servidor como uma edição do documento
+ * aberto, em ordem. Se o documento ainda não existir (ou tiver sido
+ * descartado pelo servidor), abre um novo com o texto atual.
+ */
+function onEditorChange(cm, change) {
+    // As contagens valem para o texto executado
+    clearHeatmap();
+    const generation = liveGeneration;
+    if (!liveDoc) {
+        reopenLiveDocument();
+        return;
+    }
+    const offset = cm.indexFromPos(change.from);
+    const removed = change.removed.join('\n').length;
+    const inserted = change.text.join('\n');
+    liveQueue = liveQueue.then(async () => {
+        // Edições anteriores a uma reabertura já estão no texto reenviado
+        if (generation !== liveGeneration || !liveDoc) return;
+        const res = await fetch(`${API_URL}/analyze/edit?doc=${liveDoc.id}&offset=${offset}&delete=${removed}`, {
+            method: 'POST',
+            headers: { 'Content-Type': 'text/plain; charset=utf-8' },
+            body: inserted
+        });
+        if (!res.ok) {
+            reopenLiveDocument();
+            return;
+        }
+        const data = await res.json();
+        liveDoc.tokens.splice(data.tokens.start, data.tokens.deleteCount, ...data.tokens.insert);
+        liveDoc.statements.splice(data.statements.start, data.statements.deleteCount, ...data.statements.insert);
+        scheduleLiveRender();
+    }).catch(err => console.warn('Falha na análise incremental:', err));
+}
+
+function reopenLiveDocument() {
+    liveGeneration++;
+    const generation = liveGeneration;
+    const code = editor.getValue();
+    const previous = liveDoc;
+    liveDoc = null;
+    liveQueue = liveQueue.then(async () => {
+        if (previous) {
+            fetch(`${API_URL}/analyze/close?doc=${previous.id}`, { method: 'POST' }).catch(() => { });
+        }
+        const res = await fetch(`${API_URL}/analyze/open`, {
+            method: 'POST',
+            headers: { 'Content-Type': 'text/plain; charset=utf-8' },
+            body: code
+        });
+        if (!res.ok) throw new Error(`Erro HTTP: ${res.status}`);
+        const data = await res.json();
+        if (generation !== liveGeneration) return;
+        liveDoc = {
+            id: data.doc,
+            tokens: data.tokens || [],
+            statements: (data.astTree && data.astTree.children) || []
+        };
+        scheduleLiveRender();
+    }).catch(err => console.warn('Falha ao abrir documento para análise:', err));
+}
+
+/**
+ * Atualiza as abas de Tokens e AST com o estado do documento, no máximo a
+ * cada 200 ms durante a digitação.
+ */
+function scheduleLiveRender() {
+    if (liveRenderTimer) return;
+    liveRenderTimer = setTimeout(() => {
+        liveRenderTimer = null;
+        if (!liveDoc) return;
+        renderTokens(liveDoc.tokens, null);
+        const astPart = { type: 'Program', label: 'Program', children: liveDoc.statements };
+        astTree = buildCombinedTree(astPart, buildTokensTree(liveDoc.tokens));
+        redrawAst();
+    }, 200);
+}
+
 function renderTokens(tokens, error) {
     const el = document.getElementById('tokens');
     if (!el) return;
@@ -783,6 +977,9 @@ function startPolling() {
             if (!status.running) {
                 stopPolling();
                 resetUIAfterExecution();
+                if (status.lineCounts) {
+                    renderHeatmap(status.lineCounts);
+                }
 
                 if (status.error) {
                     appendToOutput('\n' + status.error, 'output-error');
@@ -797,6 +994,62 @@ function startPolling() {
     }, 200); // Poll a cada 200ms
 }
 
+/**
+ * Liga ou desliga a contagem de execuções por linha nas próximas execuções
+ */
+function toggleHeatmap() {
+    heatmapEnabled = !heatmapEnabled;
+    document.getElementById('heatmapToggle').classList.toggle('toggled', heatmapEnabled);
+    editor.setOption('gutters', heatmapEnabled ? ['heatmap-gutter', 'CodeMirror-linenumbers'] : []);
+    if (!heatmapEnabled) {
+        clearHeatmap();
+    }
+}
+
+/**
+ * Pinta o fundo de cada linha executada conforme o número de execuções (em
+ * escala logarítmica, de heat-1 a heat-5) e mostra a contagem na margem
+ */
+function renderHeatmap(counts) {
+    clearHeatmap();
+    const max = counts.reduce((a, b) => Math.max(a, b), 0);
+    if (max === 0) return;
+    editor.operation(() => {
+        counts.forEach((count, i) => {
+            const line = i + heatmapLineOffset;
+            if (count === 0 || line >= editor.lineCount()) return;
+            const level = Math.max(1, Math.ceil(5 * Math.log(count + 1) / Math.log(max + 1)));
+            editor.addLineClass(line, 'background', `heat-${level}`);
+            const marker = document.createElement('div');
+            marker.className = 'heatmap-count';
+            marker.textContent = formatCount(count);
+            marker.title = `${count} execuções`;
+            editor.setGutterMarker(line, 'heatmap-gutter', marker);
+            heatmapLines.push(line);
+        });
+    });
+}
+
+/**
+ * Remove o mapa de calor do editor
+ */
+function clearHeatmap() {
+    if (heatmapLines.length === 0) return;
+    editor.operation(() => {
+        for (const line of heatmapLines) {
+            editor.removeLineClass(line, 'background');
+        }
+        editor.clearGutter('heatmap-gutter');
+    });
+    heatmapLines = [];
+}
+
+function formatCount(n) {
+    if (n >= 1e6) return (n / 1e6).toFixed(1) + 'M';
+    if (n >= 1e3) return (n / 1e3).toFixed(1) + 'k';
+    return String(n);
+}
+
 /**
  * Para o polling
  */
@@ -846,11 +1099,6 @@ document.addEventListener('keydown', function (e) {
     }
 });
 
-// Feedback visual quando o código está sendo digitado
-editor.on('change', function () {
-    // Pode adicionar aqui validação em tempo real ou outras funcionalidades
-});
-
 console.log('🚀 MiniPar Web Interface carregada com sucesso!');
 console.log('Atalhos disponíveis:');
 console.log('  Ctrl+Enter / Cmd+Enter: Executar código');